@@ -0,0 +1,456 @@
+package de.tudl.learning.jw1;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * This class stores the state of many bank accounts outside of the Java heap.
+ * <p>
+ * Every account gets a dense slot number. The id, the balance in cents and the number of the account holder
+ * of every slot are written to direct {@link ByteBuffer}s, and a hash table of slot numbers, also off the heap,
+ * finds the slot of an id by open addressing with linear probing. {@link BankAccount} objects are only
+ * created when an account is read with {@link #get(UUID)}.
+ * </p>
+ * <p>
+ * Account holders stay on the heap, once per distinct holder object, so accounts of the same holder share
+ * one entry. A holder is dropped as soon as no account refers to it any more. The heap saving therefore
+ * depends on how many accounts share a holder: if many accounts share few holders, the heap holds almost
+ * nothing per account, which keeps it small and gives the garbage collector little to trace. If every
+ * account has a holder of its own, the holders and their entries remain on the heap and only the
+ * BankAccount objects, ids and map entries are saved.
+ * </p>
+ * <p>
+ * Direct buffers count against {@code -XX:MaxDirectMemorySize} and are only released when the store is
+ * garbage collected. This class is not thread-safe.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class AccountStore {
+
+    /**
+     * The number of slots per record buffer. The buffers are added one by one, so the store grows without copying.
+     */
+    private static final int SLOTS_PER_BUFFER = 1 << 20;
+
+    /**
+     * The layout of a record: the two halves of the id, the balance in cents and the number of the holder.
+     */
+    private static final int MOST_SIGNIFICANT_BITS = 0;
+    private static final int LEAST_SIGNIFICANT_BITS = 8;
+    private static final int BALANCE_CENTS = 16;
+    private static final int HOLDER = 24;
+    private static final int RECORD_SIZE = 28;
+
+    /**
+     * The largest table whose size in bytes still fits into an int.
+     */
+    private static final int MAX_TABLE_CAPACITY = 1 << 28;
+
+    /**
+     * The records of all accounts, {@link #SLOTS_PER_BUFFER} slots per buffer.
+     */
+    private final List<ByteBuffer> records = new ArrayList<>();
+
+    /**
+     * The distinct account holders and their numbers.
+     */
+    private final List<AccountHolder> holders = new ArrayList<>();
+    private final Map<AccountHolder, Integer> holderNumbers = new IdentityHashMap<>();
+
+    /**
+     * The number of accounts referring to every holder number.
+     */
+    private int[] holderReferences = new int[16];
+
+    /**
+     * The numbers of dropped holders, which are given to the next new holders.
+     */
+    private int[] freeHolderNumbers = new int[16];
+    private int freeHolderCount;
+
+    /**
+     * The slot number plus one of the account in every table entry, 0 for an empty entry.
+     */
+    private ByteBuffer table;
+    private int tableCapacity;
+
+    private int size;
+
+    /**
+     * Creates an empty account store.
+     */
+    public AccountStore() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty account store for the given number of accounts. It grows if more are added.
+     *
+     * @param expectedAccounts The expected number of accounts.
+     * @throws IllegalArgumentException if the number is negative or larger than the store can hold.
+     */
+    public AccountStore(int expectedAccounts) {
+        if (expectedAccounts < 0) {
+            throw new IllegalArgumentException("Expected accounts should not be negative!");
+        }
+
+        // Keep the table at most three quarters full. Computed in long, so large numbers cannot overflow.
+        long capacity = Math.max(16, expectedAccounts + expectedAccounts / 3L);
+
+        if (capacity > MAX_TABLE_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Expected accounts should not exceed " + MAX_TABLE_CAPACITY / 4 * 3 + "!"
+            );
+        }
+
+        tableCapacity = (int) (Long.highestOneBit(capacity - 1) << 1);
+        table = allocate(tableCapacity * Integer.BYTES);
+    }
+
+    /**
+     * Adds an account with its current balance and holder.
+     *
+     * @param account The account to add. (must not be null)
+     * @throws IllegalArgumentException if the account is null or an account with the same id is already stored.
+     * @throws IllegalStateException    if the store cannot grow any further.
+     */
+    public void add(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account should not be null!");
+        }
+
+        UUID id = account.getId();
+        int entry = findEntry(id.getMostSignificantBits(), id.getLeastSignificantBits());
+
+        if (table.getInt(entry * Integer.BYTES) != 0) {
+            throw new IllegalArgumentException("Account is already stored!");
+        }
+
+        if ((size + 1) * 4L > tableCapacity * 3L) {
+            growTable();
+            entry = findEntry(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        if (size % SLOTS_PER_BUFFER == 0) {
+            records.add(allocate(SLOTS_PER_BUFFER * RECORD_SIZE));
+        }
+
+        int slot = size++;
+        ByteBuffer buffer = recordOf(slot);
+        int offset = offsetOf(slot);
+
+        buffer.putLong(offset + MOST_SIGNIFICANT_BITS, id.getMostSignificantBits());
+        buffer.putLong(offset + LEAST_SIGNIFICANT_BITS, id.getLeastSignificantBits());
+        buffer.putLong(offset + BALANCE_CENTS, account.getBalanceCents());
+        buffer.putInt(offset + HOLDER, holderNumber(account.getAccountHolder()));
+        table.putInt(entry * Integer.BYTES, slot + 1);
+    }
+
+    /**
+     * Indicates whether an account is stored.
+     *
+     * @param id The id of the account.
+     * @return true if an account with this id is stored, false otherwise.
+     */
+    public boolean contains(UUID id) {
+        return id != null && slotOf(id) >= 0;
+    }
+
+    /**
+     * Creates a BankAccount with the current state of a stored account.
+     *
+     * @param id The id of the account.
+     * @return A new BankAccount with the id, balance and holder of the account.
+     * @throws NoSuchElementException if no account with this id is stored.
+     * @throws IllegalArgumentException if the id is null.
+     */
+    public BankAccount get(UUID id) {
+        int slot = requireSlot(id);
+
+        return BankAccount.ofCents(id, balanceCents(slot), holderOf(slot));
+    }
+
+    /**
+     * Returns the balance of a stored account without creating a BankAccount.
+     *
+     * @param id The id of the account.
+     * @return The balance in cents.
+     * @throws NoSuchElementException if no account with this id is stored.
+     */
+    public long getBalanceCents(UUID id) {
+        return balanceCents(requireSlot(id));
+    }
+
+    /**
+     * Replaces the balance and holder of a stored account with those of the given version of it.
+     *
+     * @param account The new version of the account. (must not be null)
+     * @throws NoSuchElementException if no account with its id is stored.
+     * @throws IllegalArgumentException if the account is null.
+     */
+    public void update(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account should not be null!");
+        }
+
+        int slot = requireSlot(account.getId());
+        ByteBuffer record = recordOf(slot);
+        int offset = offsetOf(slot);
+        // Take the new holder before the old one is released, in case both are the same.
+        int holder = holderNumber(account.getAccountHolder());
+        int previousHolder = record.getInt(offset + HOLDER);
+
+        record.putLong(offset + BALANCE_CENTS, account.getBalanceCents());
+        record.putInt(offset + HOLDER, holder);
+        releaseHolder(previousHolder);
+    }
+
+    /**
+     * Deposits money into a stored account, with the rules of {@link BankAccount#depositCents(long)}.
+     *
+     * @param id          The id of the account.
+     * @param amountCents The amount to deposit in cents.
+     * @return The new balance in cents.
+     * @throws NoSuchElementException   if no account with this id is stored.
+     * @throws IllegalArgumentException if the amount is negative.
+     * @throws ArithmeticException      if the balance overflows.
+     */
+    public long depositCents(UUID id, long amountCents) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive!");
+        }
+
+        int slot = requireSlot(id);
+        long balance = Money.add(balanceCents(slot), amountCents);
+
+        recordOf(slot).putLong(offsetOf(slot) + BALANCE_CENTS, balance);
+        return balance;
+    }
+
+    /**
+     * Withdraws money from a stored account, with the rules of {@link BankAccount#withdrawCents(long)}.
+     *
+     * @param id          The id of the account.
+     * @param amountCents The amount to withdraw in cents.
+     * @return The new balance in cents.
+     * @throws NoSuchElementException   if no account with this id is stored.
+     * @throws IllegalArgumentException if the amount is negative or exceeds the balance.
+     */
+    public long withdrawCents(UUID id, long amountCents) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Withdrawal amount must be positive!");
+        }
+
+        int slot = requireSlot(id);
+        long balance = balanceCents(slot);
+
+        if (amountCents > balance) {
+            throw new IllegalArgumentException("Insufficient balance to fulfill withdrawal!");
+        }
+
+        recordOf(slot).putLong(offsetOf(slot) + BALANCE_CENTS, balance - amountCents);
+        return balance - amountCents;
+    }
+
+    /**
+     * Returns the number of stored accounts.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of distinct account holders kept on the heap.
+     *
+     * @return The number of holders at least one stored account refers to.
+     */
+    public int getHolderCount() {
+        return holderNumbers.size();
+    }
+
+    /**
+     * Returns the exact sum of all balances, without creating any BankAccount.
+     *
+     * @return The total balance in cents.
+     * @throws ArithmeticException if the sum overflows.
+     */
+    public long getTotalBalanceCents() {
+        long total = 0;
+
+        for (int slot = 0; slot < size; slot++) {
+            total = Money.add(total, balanceCents(slot));
+        }
+
+        return total;
+    }
+
+    /**
+     * Passes every stored account to the action, in the order the accounts were added. The BankAccount
+     * objects are created one at a time, so the action decides which of them stay on the heap.
+     *
+     * @param action The action to perform for every account. (must not be null)
+     * @throws IllegalArgumentException if the action is null.
+     */
+    public void forEach(Consumer<BankAccount> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action should not be null!");
+        }
+
+        for (int slot = 0; slot < size; slot++) {
+            ByteBuffer record = recordOf(slot);
+            int offset = offsetOf(slot);
+            UUID id = new UUID(
+                    record.getLong(offset + MOST_SIGNIFICANT_BITS),
+                    record.getLong(offset + LEAST_SIGNIFICANT_BITS)
+            );
+
+            action.accept(BankAccount.ofCents(id, record.getLong(offset + BALANCE_CENTS), holderOf(slot)));
+        }
+    }
+
+    private int requireSlot(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        int slot = slotOf(id);
+
+        if (slot < 0) {
+            throw new NoSuchElementException("No account with id " + id + "!");
+        }
+
+        return slot;
+    }
+
+    private int slotOf(UUID id) {
+        return table.getInt(findEntry(id.getMostSignificantBits(), id.getLeastSignificantBits()) * Integer.BYTES) - 1;
+    }
+
+    /**
+     * Returns the table entry of the id, or the empty entry where it belongs if it is not stored.
+     */
+    private int findEntry(long most, long least) {
+        int mask = tableCapacity - 1;
+
+        for (int entry = hash(most, least) & mask; ; entry = (entry + 1) & mask) {
+            int slot = table.getInt(entry * Integer.BYTES) - 1;
+
+            if (slot < 0) {
+                return entry;
+            }
+
+            ByteBuffer record = recordOf(slot);
+            int offset = offsetOf(slot);
+
+            if (record.getLong(offset + MOST_SIGNIFICANT_BITS) == most
+                    && record.getLong(offset + LEAST_SIGNIFICANT_BITS) == least) {
+                return entry;
+            }
+        }
+    }
+
+    private void growTable() {
+        if (tableCapacity == MAX_TABLE_CAPACITY) {
+            throw new IllegalStateException("Account store is full!");
+        }
+
+        tableCapacity *= 2;
+        table = allocate(tableCapacity * Integer.BYTES);
+        int mask = tableCapacity - 1;
+
+        for (int slot = 0; slot < size; slot++) {
+            ByteBuffer record = recordOf(slot);
+            int offset = offsetOf(slot);
+            long most = record.getLong(offset + MOST_SIGNIFICANT_BITS);
+            long least = record.getLong(offset + LEAST_SIGNIFICANT_BITS);
+            int entry = hash(most, least) & mask;
+
+            while (table.getInt(entry * Integer.BYTES) != 0) {
+                entry = (entry + 1) & mask;
+            }
+
+            table.putInt(entry * Integer.BYTES, slot + 1);
+        }
+    }
+
+    /**
+     * Returns the number of the holder and counts one more account referring to it.
+     */
+    private int holderNumber(AccountHolder holder) {
+        Integer number = holderNumbers.get(holder);
+
+        if (number == null) {
+            if (freeHolderCount > 0) {
+                number = freeHolderNumbers[--freeHolderCount];
+                holders.set(number, holder);
+            } else {
+                number = holders.size();
+                holders.add(holder);
+
+                if (number == holderReferences.length) {
+                    holderReferences = Arrays.copyOf(holderReferences, number * 2);
+                }
+            }
+
+            holderNumbers.put(holder, number);
+        }
+
+        holderReferences[number]++;
+        return number;
+    }
+
+    /**
+     * Counts one account less referring to the holder and drops the holder if none is left.
+     */
+    private void releaseHolder(int number) {
+        if (--holderReferences[number] > 0) {
+            return;
+        }
+
+        holderNumbers.remove(holders.get(number));
+        holders.set(number, null);
+
+        if (freeHolderCount == freeHolderNumbers.length) {
+            freeHolderNumbers = Arrays.copyOf(freeHolderNumbers, freeHolderCount * 2);
+        }
+        freeHolderNumbers[freeHolderCount++] = number;
+    }
+
+    private AccountHolder holderOf(int slot) {
+        return holders.get(recordOf(slot).getInt(offsetOf(slot) + HOLDER));
+    }
+
+    private long balanceCents(int slot) {
+        return recordOf(slot).getLong(offsetOf(slot) + BALANCE_CENTS);
+    }
+
+    private ByteBuffer recordOf(int slot) {
+        return records.get(slot / SLOTS_PER_BUFFER);
+    }
+
+    private static int offsetOf(int slot) {
+        return (slot % SLOTS_PER_BUFFER) * RECORD_SIZE;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static int hash(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
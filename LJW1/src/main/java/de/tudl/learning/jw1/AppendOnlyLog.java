@@ -0,0 +1,398 @@
+package de.tudl.learning.jw1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents an append-only file of binary records written through a {@link FileChannel}.
+ * <p>
+ * Every record is framed as {@code [int length][int crc32][payload]} with a payload of at least one byte.
+ * When the log is opened, all complete records are replayed and a torn, zero-filled or corrupted tail,
+ * left behind by a crash in the middle of a write, is cut off.
+ * </p>
+ * <p>
+ * Durability uses group commit: {@link #write(ByteBuffer)} only hands the record to the operating
+ * system and returns its log sequence number, {@link #sync(long)} waits until it is on disk. If several
+ * threads sync at the same time, one of them forces the channel for all records written so far while
+ * the others wait for it, so a single fsync covers the whole group.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+final class AppendOnlyLog implements Closeable {
+
+    /**
+     * The size of the record header holding length and checksum.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * The largest payload accepted. Longer lengths in the file are treated as corruption.
+     */
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The number of bytes read from the file at once during replay.
+     */
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * Guards the file position while records are written.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Guards the group commit state.
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * The position in the file where the next record is written.
+     */
+    private long position;
+
+    /**
+     * The log sequence number after the last written record. It counts all bytes ever written and keeps
+     * growing when the file is truncated, so waiting writers never confuse old and new records.
+     */
+    private volatile long writtenSequence;
+
+    /**
+     * The log sequence number up to which all records are on disk.
+     */
+    private long durableSequence;
+
+    /**
+     * Whether a thread is forcing the channel at the moment.
+     */
+    private boolean syncing;
+
+    private AppendOnlyLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the log in the given file, replays all complete records and cuts off a torn tail.
+     * The file is created if it does not exist.
+     *
+     * @param file The log file.
+     * @param consumer The consumer receiving the payload of every complete record, in file order.
+     * @return The opened log, positioned behind the last complete record.
+     * @throws IOException if the file cannot be read or written.
+     */
+    static AppendOnlyLog open(Path file, Consumer<ByteBuffer> consumer) throws IOException {
+        return open(file, 0, consumer);
+    }
+
+    /**
+     * Opens the log in the given file, replays the complete records from the given offset on and cuts off
+     * a torn tail. The records before the offset are neither read nor checked, for example because their
+     * effects were stored in a snapshot.
+     *
+     * @param file The log file.
+     * @param offset The position of the first record to replay, a position returned by {@link #size()}.
+     * @param consumer The consumer receiving the payload of every complete record, in file order. The payload
+     *                 is only valid during the call.
+     * @return The opened log, positioned behind the last complete record.
+     * @throws IOException if the file cannot be read or written or is shorter than the offset.
+     */
+    static AppendOnlyLog open(Path file, long offset, Consumer<ByteBuffer> consumer) throws IOException {
+        FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+
+        try {
+            AppendOnlyLog log = new AppendOnlyLog(channel);
+            log.replay(offset, consumer);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a record to the log without waiting for it to reach the disk.
+     *
+     * @param payload The payload of the record. It is read from its position to its limit. (must not be empty)
+     * @return The log sequence number to pass to {@link #sync(long)}.
+     * @throws IOException if the record cannot be written.
+     * @throws IllegalArgumentException if the payload is empty or too large.
+     */
+    long write(ByteBuffer payload) throws IOException {
+        return write(Collections.singletonList(payload));
+    }
+
+    /**
+     * Writes several records behind each other without waiting for them to reach the disk. If the write
+     * fails, none of the records stays in the log.
+     *
+     * @param payloads The payloads of the records. They are read from their position to their limit. (must not be empty)
+     * @return The log sequence number after the last record to pass to {@link #sync(long)}.
+     * @throws IOException if the records cannot be written.
+     * @throws IllegalArgumentException if a payload is empty or too large.
+     */
+    long write(List<ByteBuffer> payloads) throws IOException {
+        ByteBuffer[] records = new ByteBuffer[2 * payloads.size()];
+        long length = 0;
+        CRC32 crc = new CRC32();
+
+        for (int i = 0; i < payloads.size(); i++) {
+            ByteBuffer payload = payloads.get(i);
+            int payloadLength = payload.remaining();
+
+            if (payloadLength == 0) {
+                throw new IllegalArgumentException("Payload should not be empty!");
+            }
+
+            if (payloadLength > MAX_PAYLOAD_SIZE) {
+                throw new IllegalArgumentException("Payload should not be larger than " + MAX_PAYLOAD_SIZE + " bytes!");
+            }
+
+            crc.reset();
+            crc.update(payload.duplicate());
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(payloadLength).putInt((int) crc.getValue()).flip();
+            records[2 * i] = header;
+            records[2 * i + 1] = payload;
+            length += HEADER_SIZE + payloadLength;
+        }
+
+        synchronized (writeLock) {
+            long start = position;
+            try {
+                long written = 0;
+                int first = 0;
+                while (written < length) {
+                    channel.position(position + written);
+                    written += channel.write(records, first, records.length - first);
+
+                    while (first < records.length && !records[first].hasRemaining()) {
+                        first++;
+                    }
+                }
+            } catch (IOException e) {
+                // Cut off the partial records so later records stay readable.
+                channel.truncate(start);
+                throw e;
+            }
+
+            position = start + length;
+            writtenSequence += length;
+            return writtenSequence;
+        }
+    }
+
+    /**
+     * Waits until all records up to the given log sequence number are on disk.
+     *
+     * @param sequence The log sequence number returned by {@link #write(ByteBuffer)}.
+     * @throws IOException if the channel cannot be forced.
+     */
+    void sync(long sequence) throws IOException {
+        boolean interrupted = false;
+
+        try {
+            while (true) {
+                synchronized (syncLock) {
+                    while (syncing && durableSequence < sequence) {
+                        try {
+                            syncLock.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+
+                    if (durableSequence >= sequence) {
+                        return;
+                    }
+
+                    syncing = true;
+                }
+
+                // Everything written until now is covered by this force, not only our own record.
+                long target = writtenSequence;
+                boolean forced = false;
+                try {
+                    channel.force(false);
+                    forced = true;
+                } finally {
+                    synchronized (syncLock) {
+                        syncing = false;
+                        if (forced) {
+                            durableSequence = Math.max(durableSequence, target);
+                        }
+                        syncLock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until all records written so far are on disk.
+     *
+     * @throws IOException if the channel cannot be forced.
+     */
+    void sync() throws IOException {
+        sync(writtenSequence);
+    }
+
+    /**
+     * Removes all records from the log. Must only be called after their effects were stored elsewhere,
+     * for example in a snapshot.
+     *
+     * @throws IOException if the file cannot be truncated.
+     */
+    void truncate() throws IOException {
+        synchronized (writeLock) {
+            channel.truncate(0);
+            channel.force(true);
+            position = 0;
+
+            synchronized (syncLock) {
+                durableSequence = Math.max(durableSequence, writtenSequence);
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the log file.
+     *
+     * @return The number of bytes in the log file.
+     */
+    long size() {
+        synchronized (writeLock) {
+            return position;
+        }
+    }
+
+    /**
+     * Closes the log file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads all complete records from the given offset on and cuts off everything behind the last one.
+     *
+     * @param offset The position of the first record.
+     * @param consumer The consumer receiving the payload of every complete record.
+     * @throws IOException if the file cannot be read or truncated or is shorter than the offset.
+     */
+    private void replay(long offset, Consumer<ByteBuffer> consumer) throws IOException {
+        long size = channel.size();
+
+        if (offset < 0 || offset > size) {
+            throw new IOException("Log file is shorter than the offset " + offset);
+        }
+
+        ReadWindow window = new ReadWindow(offset);
+        CRC32 crc = new CRC32();
+
+        while (offset + HEADER_SIZE <= size) {
+            ByteBuffer buffer = window.require(HEADER_SIZE);
+            int length = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + Integer.BYTES);
+
+            // Records are never empty, a length of 0 is a zero-filled tail whose checksum 0 would match.
+            if (length <= 0 || length > MAX_PAYLOAD_SIZE || offset + HEADER_SIZE + length > size) {
+                break;
+            }
+
+            buffer = window.require(HEADER_SIZE + length);
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(buffer.position() + HEADER_SIZE).limit(buffer.position() + HEADER_SIZE + length);
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            consumer.accept(payload.slice().asReadOnlyBuffer());
+            buffer.position(buffer.position() + HEADER_SIZE + length);
+            offset += HEADER_SIZE + length;
+        }
+
+        if (offset < size) {
+            channel.truncate(offset);
+            channel.force(true);
+        }
+
+        position = offset;
+    }
+
+    /**
+     * Reads the file in large chunks during replay, so a record costs no system call of its own.
+     */
+    private final class ReadWindow {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).limit(0);
+
+        /**
+         * The position in the file of the next byte to read into the buffer.
+         */
+        private long filePosition;
+
+        ReadWindow(long filePosition) {
+            this.filePosition = filePosition;
+        }
+
+        /**
+         * Makes sure that the given number of bytes is in the buffer.
+         *
+         * @param bytes The number of bytes needed. They must exist in the file.
+         * @return The buffer, positioned at the first of the bytes.
+         * @throws IOException if the file cannot be read or ends early.
+         */
+        ByteBuffer require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return buffer;
+            }
+
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(bytes).put(buffer);
+            } else {
+                buffer.compact();
+            }
+
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, filePosition);
+
+                if (read < 0) {
+                    throw new IOException("Unexpected end of log file");
+                }
+
+                filePosition += read;
+            }
+
+            return buffer.flip();
+        }
+    }
+}
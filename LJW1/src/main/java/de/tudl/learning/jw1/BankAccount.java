@@ -5,57 +5,106 @@ import java.util.UUID;
 public class BankAccount
 {
     private final UUID id;
-    private final double balance;
+    // The balance is kept in whole cents, see Money.
+    private final long balanceCents;
     private final AccountHolder accountHolder;
 
     public BankAccount(UUID id, double balance, AccountHolder accountHolder)
+    {
+        this(id, accountHolder, Money.toCents(balance));
+    }
+
+    private BankAccount(UUID id, AccountHolder accountHolder, long balanceCents)
     {
         this.id = (id != null) ? id : UUID.randomUUID();
 
         validateAccountHolder(accountHolder);
 
-        this.balance = balance;
+        this.balanceCents = balanceCents;
         this.accountHolder = accountHolder;
     }
 
     public BankAccount(BankAccount original)
     {
         this.id = original.id;
-        this.balance = original.balance;
+        this.balanceCents = original.balanceCents;
         this.accountHolder = original.accountHolder;
     }
 
+    /**
+     * Creates a bank account with a balance in cents.
+     *
+     * @param id            The id of the account, a random one if null.
+     * @param balanceCents  The balance in cents.
+     * @param accountHolder The holder of the account.
+     * @return The new account.
+     */
+    public static BankAccount ofCents(UUID id, long balanceCents, AccountHolder accountHolder)
+    {
+        return new BankAccount(id, accountHolder, balanceCents);
+    }
+
     public BankAccount() {
         this(UUID.randomUUID(), 0.0, new AccountHolder());
     }
 
     public BankAccount withBalance(double newBalance)
     {
-        return new BankAccount(this.id, newBalance, this.accountHolder);
+        return withBalanceCents(Money.toCents(newBalance));
+    }
+
+    public BankAccount withBalanceCents(long newBalanceCents)
+    {
+        return new BankAccount(this.id, this.accountHolder, newBalanceCents);
     }
 
     public BankAccount withAccountHolder(AccountHolder newAccountHolder)
     {
-        return new BankAccount(this.id, this.balance, newAccountHolder);
+        return new BankAccount(this.id, newAccountHolder, this.balanceCents);
     }
 
     public BankAccount deposit(double amount)
     {
-        if (amount < 0)
+        return depositCents(Money.toCents(amount));
+    }
+
+    /**
+     * Deposits an amount in cents.
+     *
+     * @param amountCents The amount to deposit in cents.
+     * @return The account with the new balance.
+     * @throws IllegalArgumentException if the amount is negative.
+     * @throws ArithmeticException      if the balance overflows.
+     */
+    public BankAccount depositCents(long amountCents)
+    {
+        if (amountCents < 0)
             throw new IllegalArgumentException("Deposit amount must be positive!");
 
-        return withBalance(this.balance + amount);
+        return withBalanceCents(Money.add(this.balanceCents, amountCents));
     }
 
     public BankAccount withdraw(double amount)
     {
-        if (amount < 0)
+        return withdrawCents(Money.toCents(amount));
+    }
+
+    /**
+     * Withdraws an amount in cents.
+     *
+     * @param amountCents The amount to withdraw in cents.
+     * @return The account with the new balance.
+     * @throws IllegalArgumentException if the amount is negative or exceeds the balance.
+     */
+    public BankAccount withdrawCents(long amountCents)
+    {
+        if (amountCents < 0)
             throw new IllegalArgumentException("Withdrawal amount must be positive!");
 
-        if (this.balance - amount < 0)
+        if (amountCents > this.balanceCents)
             throw new IllegalArgumentException("Insufficient balance to fulfill withdrawal!");
 
-        return withBalance(this.balance - amount);
+        return withBalanceCents(this.balanceCents - amountCents);
     }
 
     public UUID getId() {
@@ -63,7 +112,11 @@ public class BankAccount
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toAmount(balanceCents);
+    }
+
+    public long getBalanceCents() {
+        return balanceCents;
     }
 
     public AccountHolder getAccountHolder()
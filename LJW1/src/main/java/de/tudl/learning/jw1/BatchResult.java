@@ -0,0 +1,106 @@
+package de.tudl.learning.jw1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class represents the outcome of a batch operation on a To-do list.
+ * <p>
+ * Every task id of the batch ends up in exactly one of three lists: applied if the
+ * operation changed the To-do list, skipped if there was nothing to do (the task already
+ * exists, is unchanged, or appeared earlier in the same batch) and missing if the operation
+ * needs an existing task but none was found.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BatchResult {
+
+    /**
+     * The ids of the tasks the operation was applied to.
+     */
+    private final List<UUID> applied = new ArrayList<>();
+
+    /**
+     * The ids of the tasks which were skipped.
+     */
+    private final List<UUID> skipped = new ArrayList<>();
+
+    /**
+     * The ids of the tasks which were not found in the To-do list.
+     */
+    private final List<UUID> missing = new ArrayList<>();
+
+    /**
+     * Creates a new empty batch result. Only the To-do lists fill batch results.
+     */
+    BatchResult() {
+    }
+
+    /**
+     * Records that the operation was applied to the task with the given id.
+     *
+     * @param id The UUID of the task.
+     */
+    void addApplied(UUID id) {
+        applied.add(id);
+    }
+
+    /**
+     * Records that the task with the given id was skipped.
+     *
+     * @param id The UUID of the task.
+     */
+    void addSkipped(UUID id) {
+        skipped.add(id);
+    }
+
+    /**
+     * Records that no task with the given id was found.
+     *
+     * @param id The UUID of the task.
+     */
+    void addMissing(UUID id) {
+        missing.add(id);
+    }
+
+    /**
+     * Returns the ids of the tasks the operation was applied to, in batch order.
+     *
+     * @return An unmodifiable List of task ids.
+     */
+    public List<UUID> getApplied() {
+        return Collections.unmodifiableList(applied);
+    }
+
+    /**
+     * Returns the ids of the tasks which were skipped, in batch order.
+     *
+     * @return An unmodifiable List of task ids.
+     */
+    public List<UUID> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    /**
+     * Returns the ids of the tasks which were not found in the To-do list, in batch order.
+     *
+     * @return An unmodifiable List of task ids.
+     */
+    public List<UUID> getMissing() {
+        return Collections.unmodifiableList(missing);
+    }
+
+    /**
+     * Indicates whether the operation was applied to every task of the batch.
+     *
+     * @return true if no task was skipped or missing, false otherwise.
+     */
+    public boolean isComplete() {
+        return skipped.isEmpty() && missing.isEmpty();
+    }
+}
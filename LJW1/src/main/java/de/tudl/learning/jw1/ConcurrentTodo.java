@@ -0,0 +1,607 @@
+package de.tudl.learning.jw1;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents a thread-safe To-do list with the same API as {@link Todo}.
+ * <p>
+ * Reads never block: they go straight to concurrent maps which hand out the stored
+ * ImmutableTask objects. Writes are serialized per task id only, because every mutation runs
+ * inside {@link ConcurrentHashMap#compute} for its id, so operations on different tasks
+ * proceed in parallel. The insertion order and the due date index are kept in
+ * {@link ConcurrentSkipListMap} objects, which are updated without locks.
+ * </p>
+ * <p>
+ * Reads spanning several tasks, like {@link #getTasks()} or the due date queries, are weakly
+ * consistent: they never fail, but may or may not see writes running at the same time.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConcurrentTodo {
+
+    /**
+     * The tasks of the To-do list indexed by their unique identifier.
+     */
+    private final ConcurrentMap<UUID, Entry> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * The tasks of the To-do list ordered by the sequence number they were added with.
+     */
+    private final ConcurrentNavigableMap<Long, ImmutableTask> tasksInOrder = new ConcurrentSkipListMap<>();
+
+    /**
+     * A secondary index of the tasks sorted by their due date and then by insertion order.
+     */
+    private final ConcurrentNavigableMap<DueDateKey, ImmutableTask> tasksByDueDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * A read-only view of the stored tasks which is handed out by {@link #getTaskViews()}.
+     */
+    private final Collection<ImmutableTask> taskViews = Collections.unmodifiableCollection(tasksInOrder.values());
+
+    /**
+     * The source of the sequence numbers which define the insertion order.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates a new concurrent To-do object with the provided list of tasks.
+     *
+     * @param tasks The list of tasks for the To-do list. (must not be null)
+     * @throws IllegalArgumentException if the provided list of tasks is null.
+     */
+    public ConcurrentTodo(List<Task> tasks) {
+        if (tasks == null) {
+            throw new IllegalArgumentException("Task should not be null!");
+        }
+
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+
+    /**
+     * Creates a new empty concurrent To-do object.
+     */
+    public ConcurrentTodo() {
+    }
+
+    /**
+     * Adds a new Task object to the To-do list. If a task with the same id already exists, no change is made.
+     *
+     * @param task The Task object to be added. (must not be null and must have an id)
+     * @throws IllegalArgumentException if the provided task or its id is null.
+     */
+    public void addTask(Task task) {
+        if (task == null) throw new IllegalArgumentException(
+                "Task should not be null!"
+        );
+
+        if (task.getId() == null) throw new IllegalArgumentException(
+                "Id should not be null!"
+        );
+
+        insertTask(new ImmutableTask(task));
+    }
+
+    /**
+     * Restores a stored ImmutableTask object into the To-do list without copying it.
+     * If a task with the same id already exists, no change is made.
+     * Unlike added Task objects, restored tasks may have a due date in the past.
+     *
+     * @param task The ImmutableTask object to be restored. (must not be null and must have an id)
+     * @throws IllegalArgumentException if the provided task or its id is null.
+     */
+    public void restoreTask(ImmutableTask task) {
+        if (task == null) throw new IllegalArgumentException(
+                "Task should not be null!"
+        );
+
+        if (task.getId() == null) throw new IllegalArgumentException(
+                "Id should not be null!"
+        );
+
+        insertTask(task);
+    }
+
+    /**
+     * Returns a defensive copy of the list of tasks in the To-do list.
+     *
+     * @return A new List object containing copies of the tasks in the To-do list.
+     */
+    public List<Task> getTasks() {
+        List<Task> tasksCopy = new ArrayList<>();
+
+        for (ImmutableTask task : tasksInOrder.values()) {
+            tasksCopy.add(new Task(task));
+        }
+
+        return tasksCopy;
+    }
+
+    /**
+     * Returns a read-only view of the tasks in the To-do list in insertion order.
+     * The view reflects later changes and may be iterated while other threads modify the To-do list.
+     *
+     * @return An unmodifiable Collection of the tasks in the To-do list.
+     */
+    public Collection<ImmutableTask> getTaskViews() {
+        return taskViews;
+    }
+
+    /**
+     * Replaces the tasks in the To-do list.
+     * <p>
+     * The replacement is not atomic: concurrent readers may observe a partially replaced list.
+     * </p>
+     *
+     * @param tasks The new list of tasks for the To-do list. (must not be null and must not be empty)
+     * @throws IllegalArgumentException if the provided list is empty.
+     */
+    public void setTasks(List<Task> tasks) {
+        if (tasks == null || (containsSameTasks(tasks) && !tasks.isEmpty())) {
+            return;
+        }
+
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("Tasks should not be empty!");
+        }
+
+        for (UUID id : this.tasks.keySet()) {
+            removeTask(id);
+        }
+
+        for (Task task : tasks) {
+            addTask(task);
+        }
+    }
+
+    /**
+     * Retrieves a specific Task object from the To-do list based on its unique identifier.
+     *
+     * @param id The UUID of the task to be retrieved. (must not be null)
+     * @return A Task object matching the provided id.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    public Task getTask(UUID id) {
+        return new Task(getTaskView(id));
+    }
+
+    /**
+     * Retrieves a specific task from the To-do list based on its unique identifier without copying it.
+     *
+     * @param id The UUID of the task to be retrieved. (must not be null)
+     * @return The ImmutableTask object matching the provided id.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    public ImmutableTask getTaskView(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        Entry entry = tasks.get(id);
+
+        if (entry == null) {
+            throw new NoSuchElementException("No task found with ID:" + id);
+        }
+
+        return entry.task;
+    }
+
+    /**
+     * Updates an existing Task object in the To-do list with the provided information.
+     *
+     * @param updatedTask The Task object containing the updated information. (must not be null)
+     * @throws IllegalArgumentException if the provided updatedTask or its id is null.
+     * @throws NoSuchElementException if no task with the same id exists in the list.
+     */
+    public void updateTask(Task updatedTask) {
+        if (updatedTask == null) {
+            throw new IllegalArgumentException("Updated Task should not be null!");
+        }
+
+        if (updatedTask.getId() == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        if (replaceTask(new ImmutableTask(updatedTask)) == Change.MISSING) {
+            throw new NoSuchElementException("No task found with ID:" + updatedTask.getId());
+        }
+    }
+
+    /**
+     * Removes a task from the To-do list based on its unique identifier.
+     *
+     * @param taskId The UUID of the task to be removed.
+     * @throws IllegalArgumentException if the provided `taskId` is null.
+     * @throws NoSuchElementException if no task with the given `taskId` is found.
+     */
+    public void deleteTask(UUID taskId) {
+        if (taskId == null) throw new IllegalArgumentException(
+                "TaskId should not be null!"
+        );
+
+        if (!removeTask(taskId)) {
+            throw new NoSuchElementException("No task found with ID:" + taskId);
+        }
+    }
+
+    /**
+     * Adds a batch of Task objects to the To-do list.
+     * Tasks whose id already exists in the list or earlier in the batch are skipped.
+     * Each task is added atomically, the batch as a whole is not.
+     *
+     * @param newTasks The Task objects to be added. (must not be null or contain null or tasks without id)
+     * @return The BatchResult listing the added and skipped task ids.
+     * @throws IllegalArgumentException if the batch is invalid, in which case nothing is added.
+     */
+    public BatchResult addTasks(Collection<Task> newTasks) {
+        validateBatch(newTasks, "Tasks");
+
+        BatchResult result = new BatchResult();
+
+        for (Task task : newTasks) {
+            if (insertTask(new ImmutableTask(task))) {
+                result.addApplied(task.getId());
+            } else {
+                result.addSkipped(task.getId());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Updates a batch of existing Task objects in the To-do list.
+     * Unchanged tasks and tasks whose id appeared earlier in the batch are skipped,
+     * tasks which do not exist in the list are reported as missing.
+     * Each task is updated atomically, the batch as a whole is not.
+     *
+     * @param updatedTasks The Task objects containing the updated information. (must not be null or contain null or tasks without id)
+     * @return The BatchResult listing the updated, skipped and missing task ids.
+     * @throws IllegalArgumentException if the batch is invalid, in which case nothing is updated.
+     */
+    public BatchResult updateTasks(Collection<Task> updatedTasks) {
+        validateBatch(updatedTasks, "Updated Tasks");
+
+        BatchResult result = new BatchResult();
+        Set<UUID> seen = new HashSet<>();
+
+        for (Task updatedTask : updatedTasks) {
+            UUID id = updatedTask.getId();
+
+            if (!seen.add(id)) {
+                result.addSkipped(id);
+                continue;
+            }
+
+            switch (replaceTask(new ImmutableTask(updatedTask))) {
+                case APPLIED:
+                    result.addApplied(id);
+                    break;
+                case SKIPPED:
+                    result.addSkipped(id);
+                    break;
+                default:
+                    result.addMissing(id);
+                    break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes a batch of tasks from the To-do list.
+     * Ids which appeared earlier in the batch are skipped, ids without a task are reported as missing.
+     * Each task is removed atomically, the batch as a whole is not.
+     *
+     * @param taskIds The UUIDs of the tasks to be removed. (must not be null or contain null)
+     * @return The BatchResult listing the removed, skipped and missing task ids.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is removed.
+     */
+    public BatchResult deleteTasks(Collection<UUID> taskIds) {
+        if (taskIds == null) {
+            throw new IllegalArgumentException("TaskIds should not be null!");
+        }
+
+        for (UUID taskId : taskIds) {
+            if (taskId == null) {
+                throw new IllegalArgumentException("TaskIds should not contain null!");
+            }
+        }
+
+        BatchResult result = new BatchResult();
+        Set<UUID> seen = new HashSet<>();
+
+        for (UUID taskId : taskIds) {
+            if (!seen.add(taskId)) {
+                result.addSkipped(taskId);
+            } else if (removeTask(taskId)) {
+                result.addApplied(taskId);
+            } else {
+                result.addMissing(taskId);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns copies of all tasks due within the given range, ordered by due date.
+     *
+     * @param from The start of the range, inclusive. (must not be null)
+     * @param to The end of the range, inclusive. (must not be null or before from)
+     * @return A new List containing copies of the matching tasks.
+     * @throws IllegalArgumentException if from or to is null or if to is before from.
+     */
+    public List<Task> getTasksDueBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range should not be null!");
+        }
+
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End of range should not be before its start!");
+        }
+
+        return copyTasks(
+                tasksByDueDate.subMap(DueDateKey.first(from), true, DueDateKey.last(to), true),
+                Integer.MAX_VALUE
+        );
+    }
+
+    /**
+     * Returns copies of all tasks whose due date lies before the given point in time, ordered by due date.
+     *
+     * @param now The point in time to compare the due dates with. (must not be null)
+     * @return A new List containing copies of the overdue tasks.
+     * @throws IllegalArgumentException if now is null.
+     */
+    public List<Task> getOverdueTasks(LocalDateTime now) {
+        if (now == null) {
+            throw new IllegalArgumentException("Now should not be null!");
+        }
+
+        return copyTasks(tasksByDueDate.headMap(DueDateKey.first(now), false), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns copies of the next tasks that are due at or after the given point in time, ordered by due date.
+     *
+     * @param now The point in time to start from. (must not be null)
+     * @param count The maximum number of tasks to return. (must not be negative)
+     * @return A new List containing copies of at most count tasks.
+     * @throws IllegalArgumentException if now is null or count is negative.
+     */
+    public List<Task> getNextDueTasks(LocalDateTime now, int count) {
+        if (now == null) {
+            throw new IllegalArgumentException("Now should not be null!");
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Count should not be negative!");
+        }
+
+        return copyTasks(tasksByDueDate.tailMap(DueDateKey.first(now), true), count);
+    }
+
+    /**
+     * Adds the given task unless a task with the same id exists.
+     *
+     * @param task The ImmutableTask object to be stored.
+     * @return true if the task was added, false if a task with the same id already exists.
+     */
+    private boolean insertTask(ImmutableTask task) {
+        boolean[] inserted = new boolean[1];
+
+        tasks.computeIfAbsent(task.getId(), id -> {
+            Entry entry = new Entry(sequence.incrementAndGet(), task);
+            index(entry);
+            inserted[0] = true;
+            return entry;
+        });
+
+        return inserted[0];
+    }
+
+    /**
+     * Replaces the stored task with the same id as the given task.
+     *
+     * @param updatedTask The ImmutableTask object containing the updated information.
+     * @return APPLIED if the task was replaced, SKIPPED if it was unchanged and MISSING if no task with the same id exists.
+     */
+    private Change replaceTask(ImmutableTask updatedTask) {
+        Change[] change = {Change.MISSING};
+
+        tasks.computeIfPresent(updatedTask.getId(), (id, entry) -> {
+            if (entry.task.equals(updatedTask)) {
+                change[0] = Change.SKIPPED;
+                return entry;
+            }
+
+            // Keeping the sequence number keeps the position in the insertion order.
+            Entry updatedEntry = new Entry(entry.sequence, updatedTask);
+            tasksByDueDate.remove(entry.dueDateKey());
+            index(updatedEntry);
+            change[0] = Change.APPLIED;
+            return updatedEntry;
+        });
+
+        return change[0];
+    }
+
+    /**
+     * Adds the given entry to the insertion order and the due date index.
+     * Must only be called from within a compute call for the id of the entry.
+     *
+     * @param entry The entry to be indexed.
+     */
+    private void index(Entry entry) {
+        tasksInOrder.put(entry.sequence, entry.task);
+        tasksByDueDate.put(entry.dueDateKey(), entry.task);
+    }
+
+    /**
+     * Removes the task with the given id from all indexes.
+     *
+     * @param id The UUID of the task to be removed.
+     * @return true if a task was removed, false if no task with the given id exists.
+     */
+    private boolean removeTask(UUID id) {
+        boolean[] removed = new boolean[1];
+
+        tasks.computeIfPresent(id, (key, entry) -> {
+            tasksInOrder.remove(entry.sequence);
+            tasksByDueDate.remove(entry.dueDateKey());
+            removed[0] = true;
+            return null;
+        });
+
+        return removed[0];
+    }
+
+    /**
+     * Copies at most limit tasks out of the given part of the due date index.
+     *
+     * @param range The part of the due date index to copy the tasks from.
+     * @param limit The maximum number of tasks to copy.
+     * @return A new List containing copies of the tasks in due date order.
+     */
+    private static List<Task> copyTasks(NavigableMap<DueDateKey, ImmutableTask> range, int limit) {
+        List<Task> tasksCopy = new ArrayList<>();
+
+        for (ImmutableTask task : range.values()) {
+            if (tasksCopy.size() == limit) {
+                break;
+            }
+
+            tasksCopy.add(new Task(task));
+        }
+
+        return tasksCopy;
+    }
+
+    /**
+     * Validates that a batch of tasks contains neither null nor tasks without id.
+     *
+     * @param batch The batch to validate.
+     * @param batchName The name of the batch, used in error messages.
+     * @throws IllegalArgumentException if the batch is null or contains null or tasks without id.
+     */
+    private static void validateBatch(Collection<Task> batch, String batchName) {
+        if (batch == null) {
+            throw new IllegalArgumentException(batchName + " should not be null!");
+        }
+
+        for (Task task : batch) {
+            if (task == null || task.getId() == null) {
+                throw new IllegalArgumentException(batchName + " should not contain null or tasks without id!");
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given list contains exactly the tasks of the To-do list in the same order.
+     *
+     * @param other The list of tasks to compare with.
+     * @return true if both contain equal tasks in the same order, false otherwise.
+     */
+    private boolean containsSameTasks(List<Task> other) {
+        Iterator<Task> iterator = other.iterator();
+
+        for (ImmutableTask task : tasksInOrder.values()) {
+            if (!iterator.hasNext() || !task.equals(new ImmutableTask(iterator.next()))) {
+                return false;
+            }
+        }
+
+        return !iterator.hasNext();
+    }
+
+    /**
+     * The outcome of a change to a single task.
+     */
+    private enum Change {
+        APPLIED,
+        SKIPPED,
+        MISSING
+    }
+
+    /**
+     * A stored task together with the sequence number it was added with.
+     */
+    private static final class Entry {
+
+        private final long sequence;
+        private final ImmutableTask task;
+
+        private Entry(long sequence, ImmutableTask task) {
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        private DueDateKey dueDateKey() {
+            return new DueDateKey(task.getDueDate(), sequence);
+        }
+    }
+
+    /**
+     * The key of the due date index. The sequence number separates tasks sharing a due date.
+     */
+    private static final class DueDateKey implements Comparable<DueDateKey> {
+
+        private final LocalDateTime dueDate;
+        private final long sequence;
+
+        private DueDateKey(LocalDateTime dueDate, long sequence) {
+            this.dueDate = dueDate;
+            this.sequence = sequence;
+        }
+
+        private static DueDateKey first(LocalDateTime dueDate) {
+            return new DueDateKey(dueDate, Long.MIN_VALUE);
+        }
+
+        private static DueDateKey last(LocalDateTime dueDate) {
+            return new DueDateKey(dueDate, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(DueDateKey other) {
+            int result = dueDate.compareTo(other.dueDate);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof DueDateKey)) return false;
+            DueDateKey key = (DueDateKey) o;
+            return sequence == key.sequence && dueDate.equals(key.dueDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * dueDate.hashCode() + Long.hashCode(sequence);
+        }
+    }
+}
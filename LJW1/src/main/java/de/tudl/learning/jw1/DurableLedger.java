@@ -0,0 +1,749 @@
+package de.tudl.learning.jw1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class represents a ledger which survives restarts by journaling every change.
+ * <p>
+ * The accounts live in a {@link Ledger}. Every opened account, deposit, withdrawal and executed transaction
+ * is appended as a compact binary record to a journal, and the call returns once the record is on disk.
+ * Concurrent writers share their fsyncs through group commit. Only changes which succeeded are journaled,
+ * so the journal is the history of all executed transactions with the time they were executed.
+ * </p>
+ * <p>
+ * The record of a change is written while the ledger still holds the locks of its accounts, so a change
+ * building on another one is always journaled behind it. If the record cannot be written, the change is
+ * not made.
+ * </p>
+ * <p>
+ * After a configurable number of journaled changes, the state of all accounts is written to a snapshot
+ * together with the length of the journal at that moment. The journal itself is never shortened. On start,
+ * the snapshot is loaded and only the records behind it are replayed, and a torn tail is cut off. Every
+ * record only adds to or subtracts from balances, so the order of the records does not matter: the replay
+ * partitions the changes by account and sums every partition in parallel.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class DurableLedger implements Closeable {
+
+    private static final byte OPEN = 1;
+    private static final byte TRANSFER = 2;
+    private static final byte DEPOSIT = 3;
+    private static final byte WITHDRAW = 4;
+
+    private static final int SNAPSHOT_MAGIC = 0x4C4A5753;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * The smallest number of balance changes worth a partition of its own during replay.
+     */
+    private static final int MIN_CHANGES_PER_PARTITION = 64 * 1024;
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final Ledger ledger;
+    private final Path snapshotFile;
+    private final AppendOnlyLog journal;
+
+    /**
+     * The number of journaled changes after which a snapshot is written. 0 disables snapshots.
+     */
+    private final int snapshotInterval;
+
+    /**
+     * Changes hold the read lock while they update the ledger and write their record, so they run in parallel.
+     * A snapshot holds the write lock, so it sees no change half done.
+     */
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    /**
+     * The number of changes journaled since the last snapshot.
+     */
+    private final AtomicLong changesSinceSnapshot = new AtomicLong();
+
+    /**
+     * Whether a change is writing a periodic snapshot at the moment.
+     */
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    /**
+     * Opens a durable ledger by loading the snapshot and replaying the journal behind it.
+     *
+     * @param journalFile The path of the journal. It is created if it does not exist. (must not be null)
+     * @param snapshotFile The path of the snapshot. It is created with the first snapshot. (must not be null)
+     * @param snapshotInterval The number of journaled changes after which a snapshot is written. (0 disables it)
+     * @throws IOException if the snapshot or the journal cannot be read or decoded or do not match.
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    public DurableLedger(Path journalFile, Path snapshotFile, int snapshotInterval) throws IOException {
+        if (journalFile == null || snapshotFile == null) {
+            throw new IllegalArgumentException("Journal file and snapshot file should not be null!");
+        }
+
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("Snapshot interval should not be negative!");
+        }
+
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+
+        Map<UUID, BankAccount> accounts = new LinkedHashMap<>();
+        long journalOffset = readSnapshot(accounts);
+        Replay replay = new Replay();
+        try {
+            this.journal = AppendOnlyLog.open(journalFile, journalOffset, replay::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        try {
+            replay.applyTo(accounts);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+
+        this.ledger = new Ledger(new JournalWriter(), accounts.values());
+    }
+
+    /**
+     * Opens an account with its current balance.
+     *
+     * @param account The account to open. (must not be null)
+     * @throws IllegalArgumentException if the account is null or an account with the same id is already open.
+     * @throws UncheckedIOException if the change cannot be journaled.
+     */
+    public void openAccount(BankAccount account) {
+        snapshotLock.readLock().lock();
+        try {
+            ledger.openAccount(account);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+
+        commit(1);
+    }
+
+    /**
+     * Deposits money into an account.
+     *
+     * @param id     The id of the account.
+     * @param amount The amount to deposit. (must not be negative)
+     * @return The account after the deposit.
+     * @throws NoSuchElementException   if no account with this id is open.
+     * @throws IllegalArgumentException if the amount is negative.
+     * @throws UncheckedIOException     if the change cannot be journaled.
+     */
+    public BankAccount deposit(UUID id, double amount) {
+        BankAccount account;
+        snapshotLock.readLock().lock();
+        try {
+            account = ledger.deposit(id, amount);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+
+        commit(1);
+        return account;
+    }
+
+    /**
+     * Withdraws money from an account.
+     *
+     * @param id     The id of the account.
+     * @param amount The amount to withdraw. (must not be negative)
+     * @return The account after the withdrawal.
+     * @throws NoSuchElementException   if no account with this id is open.
+     * @throws IllegalArgumentException if the amount is negative or exceeds the balance.
+     * @throws UncheckedIOException     if the change cannot be journaled.
+     */
+    public BankAccount withdraw(UUID id, double amount) {
+        BankAccount account;
+        snapshotLock.readLock().lock();
+        try {
+            account = ledger.withdraw(id, amount);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+
+        commit(1);
+        return account;
+    }
+
+    /**
+     * Executes a transaction and journals it, see {@link Ledger#execute(Transaction)}.
+     *
+     * @param transaction The transaction to execute. (must not be null)
+     * @throws IllegalArgumentException if the transaction cannot be executed. Nothing is journaled then.
+     * @throws NoSuchElementException   if the sender or the receiver is not open.
+     * @throws UncheckedIOException     if the transaction cannot be journaled.
+     */
+    public void execute(Transaction transaction) {
+        snapshotLock.readLock().lock();
+        try {
+            ledger.execute(transaction);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+
+        commit(1);
+    }
+
+    /**
+     * Executes a batch of transactions and journals the executed ones, see {@link Ledger#executeBatch(Collection)}.
+     * The records of the batch are written together and share one sync.
+     *
+     * @param transactions The transactions to execute. (must not be null or contain null)
+     * @return The TransactionBatchResult listing the executed transactions and the rejected ones with their reason.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is executed.
+     * @throws UncheckedIOException     if the transactions cannot be journaled. None of them is executed then.
+     */
+    public TransactionBatchResult executeBatch(Collection<Transaction> transactions) {
+        TransactionBatchResult result;
+        snapshotLock.readLock().lock();
+        try {
+            result = ledger.executeBatch(transactions);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+
+        if (!result.getExecuted().isEmpty()) {
+            commit(result.getExecuted().size());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the current state of an account.
+     *
+     * @param id The id of the account.
+     * @return The latest version of the account.
+     * @throws NoSuchElementException if no account with this id is open.
+     * @throws IllegalArgumentException if the id is null.
+     */
+    public BankAccount getAccount(UUID id) {
+        return ledger.getAccount(id);
+    }
+
+    /**
+     * Returns the current balance of an account.
+     *
+     * @param id The id of the account.
+     * @return The balance of the account.
+     * @throws NoSuchElementException if no account with this id is open.
+     */
+    public double getBalance(UUID id) {
+        return ledger.getBalance(id);
+    }
+
+    /**
+     * Returns the current state of all accounts, see {@link Ledger#getAccounts()}.
+     *
+     * @return A list of all accounts in no particular order.
+     */
+    public List<BankAccount> getAccounts() {
+        return ledger.getAccounts();
+    }
+
+    /**
+     * Returns the exact sum of all balances in cents, see {@link Ledger#getTotalBalanceCents()}.
+     *
+     * @return The total balance of the ledger in cents.
+     */
+    public long getTotalBalanceCents() {
+        return ledger.getTotalBalanceCents();
+    }
+
+    /**
+     * Returns the number of open accounts.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return ledger.size();
+    }
+
+    /**
+     * Returns the size of the journal.
+     *
+     * @return The number of bytes in the journal file.
+     */
+    public long getJournalSize() {
+        return journal.size();
+    }
+
+    /**
+     * Writes the state of all accounts into a new snapshot. Changes wait until the snapshot is written.
+     *
+     * @throws IOException if the journal cannot be synced or the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            // The snapshot must never be ahead of the journal on disk.
+            journal.sync();
+            writeSnapshot(ledger.getAccounts(), journal.size());
+            changesSinceSnapshot.set(0);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the journal. All changes made before are already on disk.
+     *
+     * @throws IOException if the journal cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * Waits until the records of a change are on disk and writes a snapshot if it is due. The change is
+     * durable even if the snapshot fails, so the failure is only logged and the snapshot is tried again
+     * with the next change.
+     *
+     * @param records The number of records of the change.
+     * @throws UncheckedIOException if the journal cannot be synced.
+     */
+    private void commit(int records) {
+        try {
+            // The records of the change were written before, so this covers them.
+            journal.sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync the ledger journal", e);
+        }
+
+        long changes = changesSinceSnapshot.addAndGet(records);
+        if (snapshotInterval == 0 || changes < snapshotInterval || !snapshotting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // Another change may have written the snapshot since.
+            if (changesSinceSnapshot.get() >= snapshotInterval) {
+                snapshot();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.WARNING, "Cannot write a snapshot of the ledger, trying again with the next change", e);
+        } finally {
+            snapshotting.set(false);
+        }
+    }
+
+    /**
+     * Reads the accounts from the snapshot file.
+     *
+     * @param accounts The map receiving the accounts by their id.
+     * @return The length of the journal when the snapshot was written, 0 if there is no snapshot.
+     * @throws IOException if the snapshot cannot be read or is corrupted.
+     */
+    private long readSnapshot(Map<UUID, BankAccount> accounts) throws IOException {
+        InputStream file;
+        try {
+            file = Files.newInputStream(snapshotFile);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(file), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a ledger snapshot: " + snapshotFile);
+            }
+
+            long journalOffset = in.readLong();
+            int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                long balanceCents = in.readLong();
+                AccountHolder holder = new AccountHolder(
+                        new UUID(in.readLong(), in.readLong()),
+                        in.readUTF(),
+                        in.readUTF(),
+                        LocalDate.ofEpochDay(in.readLong())
+                );
+
+                accounts.put(id, BankAccount.ofCents(id, balanceCents, holder));
+            }
+
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException("Corrupted ledger snapshot: " + snapshotFile);
+            }
+
+            return journalOffset;
+        }
+    }
+
+    /**
+     * Replaces the snapshot file. The accounts are written to a temporary file which is synced to disk and
+     * then moved over the old snapshot, so the snapshot is never left half written.
+     *
+     * @param accounts The accounts to store.
+     * @param journalOffset The length of the journal the accounts contain all changes of.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    private void writeSnapshot(List<BankAccount> accounts, long journalOffset) throws IOException {
+        Path tempFile = Files.createTempFile(
+                snapshotFile.toAbsolutePath().getParent(),
+                snapshotFile.getFileName().toString(),
+                ".tmp"
+        );
+
+        try {
+            CRC32 crc = new CRC32();
+            try (
+                    FileOutputStream file = new FileOutputStream(tempFile.toFile());
+                    CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), crc);
+                    DataOutputStream out = new DataOutputStream(checked)
+            ) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(journalOffset);
+                out.writeInt(accounts.size());
+
+                for (BankAccount account : accounts) {
+                    AccountHolder holder = account.getAccountHolder();
+
+                    out.writeLong(account.getId().getMostSignificantBits());
+                    out.writeLong(account.getId().getLeastSignificantBits());
+                    out.writeLong(account.getBalanceCents());
+                    out.writeLong(holder.getId().getMostSignificantBits());
+                    out.writeLong(holder.getId().getLeastSignificantBits());
+                    out.writeUTF(holder.getName());
+                    out.writeUTF(holder.getSurname());
+                    out.writeLong(holder.getBirthday().toEpochDay());
+                }
+
+                out.writeInt((int) crc.getValue());
+                out.flush();
+                // The file must be on disk before it replaces the old snapshot.
+                file.getFD().sync();
+            }
+
+            try {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Writes the record of every change of the ledger to the journal while the ledger holds the locks of
+     * the changed accounts. The changes are made durable by {@link #commit(int)} after the locks are released.
+     */
+    private final class JournalWriter implements LedgerListener {
+
+        @Override
+        public void accountOpened(BankAccount account) {
+            append(Collections.singletonList(encodeOpen(account)));
+        }
+
+        @Override
+        public void deposited(UUID id, long amountCents) {
+            append(Collections.singletonList(encodeChange(DEPOSIT, id, amountCents)));
+        }
+
+        @Override
+        public void withdrawn(UUID id, long amountCents) {
+            append(Collections.singletonList(encodeChange(WITHDRAW, id, amountCents)));
+        }
+
+        @Override
+        public void executed(List<Transaction> transactions) {
+            long timestamp = System.currentTimeMillis();
+            List<ByteBuffer> records = new ArrayList<>(transactions.size());
+
+            for (Transaction transaction : transactions) {
+                records.add(encodeTransfer(transaction, timestamp));
+            }
+
+            append(records);
+        }
+
+        private void append(List<ByteBuffer> records) {
+            try {
+                journal.write(records);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot journal change to the ledger", e);
+            }
+        }
+    }
+
+    /**
+     * Encodes the record of an opened account.
+     *
+     * @param account The opened account.
+     * @return The encoded record.
+     */
+    private static ByteBuffer encodeOpen(BankAccount account) {
+        AccountHolder holder = account.getAccountHolder();
+        byte[] name = holder.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] surname = holder.getSurname().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer record = ByteBuffer.allocate(
+                1 + 4 * Long.BYTES + Long.BYTES + 2 * Integer.BYTES + name.length + surname.length + Long.BYTES
+        );
+
+        record.put(OPEN)
+                .putLong(account.getId().getMostSignificantBits())
+                .putLong(account.getId().getLeastSignificantBits())
+                .putLong(account.getBalanceCents())
+                .putLong(holder.getId().getMostSignificantBits())
+                .putLong(holder.getId().getLeastSignificantBits())
+                .putInt(name.length).put(name)
+                .putInt(surname.length).put(surname)
+                .putLong(holder.getBirthday().toEpochDay());
+
+        return record.flip();
+    }
+
+    /**
+     * Encodes the record of an executed transaction.
+     *
+     * @param transaction The executed transaction.
+     * @param timestamp The time of the execution in milliseconds since the epoch.
+     * @return The encoded record.
+     */
+    private static ByteBuffer encodeTransfer(Transaction transaction, long timestamp) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 6 * Long.BYTES + 2 * Long.BYTES);
+
+        record.put(TRANSFER)
+                .putLong(transaction.getId().getMostSignificantBits())
+                .putLong(transaction.getId().getLeastSignificantBits())
+                .putLong(transaction.getSender().getId().getMostSignificantBits())
+                .putLong(transaction.getSender().getId().getLeastSignificantBits())
+                .putLong(transaction.getReceiver().getId().getMostSignificantBits())
+                .putLong(transaction.getReceiver().getId().getLeastSignificantBits())
+                .putLong(transaction.getAmountCents())
+                .putLong(timestamp);
+
+        return record.flip();
+    }
+
+    /**
+     * Encodes the record of a deposit or a withdrawal.
+     *
+     * @param type The type of the record.
+     * @param id The id of the account.
+     * @param amountCents The amount in cents.
+     * @return The encoded record.
+     */
+    private static ByteBuffer encodeChange(byte type, UUID id, long amountCents) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 * Long.BYTES);
+
+        record.put(type)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putLong(amountCents)
+                .putLong(System.currentTimeMillis());
+
+        return record.flip();
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Collects the journal records during replay: opened accounts as they are, all other records as
+     * balance changes per account in primitive arrays.
+     */
+    private static final class Replay {
+
+        private final Map<UUID, BankAccount> opened = new LinkedHashMap<>();
+        private long[] mostSignificantBits = new long[1024];
+        private long[] leastSignificantBits = new long[1024];
+        private long[] changes = new long[1024];
+        private int count;
+
+        /**
+         * Collects a journal record.
+         *
+         * @param record The payload of the record.
+         * @throws UncheckedIOException if the record cannot be decoded, although its checksum matches.
+         */
+        void add(ByteBuffer record) {
+            try {
+                decode(record);
+            } catch (RuntimeException e) {
+                throw new UncheckedIOException(new IOException("Journal record cannot be decoded", e));
+            }
+        }
+
+        private void decode(ByteBuffer record) {
+            byte type = record.get();
+
+            switch (type) {
+                case OPEN:
+                    UUID id = new UUID(record.getLong(), record.getLong());
+                    long balanceCents = record.getLong();
+                    AccountHolder holder = new AccountHolder(
+                            new UUID(record.getLong(), record.getLong()),
+                            readString(record),
+                            readString(record),
+                            LocalDate.ofEpochDay(record.getLong())
+                    );
+                    opened.put(id, BankAccount.ofCents(id, balanceCents, holder));
+                    break;
+                case TRANSFER:
+                    record.position(record.position() + 2 * Long.BYTES);
+                    long senderMost = record.getLong();
+                    long senderLeast = record.getLong();
+                    long receiverMost = record.getLong();
+                    long receiverLeast = record.getLong();
+                    long amount = record.getLong();
+                    addChange(senderMost, senderLeast, -amount);
+                    addChange(receiverMost, receiverLeast, amount);
+                    break;
+                case DEPOSIT:
+                case WITHDRAW:
+                    long most = record.getLong();
+                    long least = record.getLong();
+                    long change = record.getLong();
+                    addChange(most, least, type == DEPOSIT ? change : -change);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal record type " + type + "!");
+            }
+        }
+
+        private void addChange(long most, long least, long change) {
+            if (count == changes.length) {
+                mostSignificantBits = Arrays.copyOf(mostSignificantBits, count * 2);
+                leastSignificantBits = Arrays.copyOf(leastSignificantBits, count * 2);
+                changes = Arrays.copyOf(changes, count * 2);
+            }
+
+            mostSignificantBits[count] = most;
+            leastSignificantBits[count] = least;
+            changes[count++] = change;
+        }
+
+        /**
+         * Adds the opened accounts to the accounts of the snapshot and applies the sum of the changes of
+         * every account. Every partition of the accounts is summed by a thread of its own.
+         *
+         * @param accounts The accounts of the snapshot, replaced by their replayed versions.
+         * @throws IOException if a record refers to an account that was never opened or overdraws an account.
+         */
+        void applyTo(Map<UUID, BankAccount> accounts) throws IOException {
+            accounts.putAll(opened);
+
+            int partitions = Math.max(1, Math.min(
+                    Runtime.getRuntime().availableProcessors(),
+                    count / MIN_CHANGES_PER_PARTITION
+            ));
+
+            List<Partition> sums = IntStream.range(0, partitions)
+                    .parallel()
+                    .mapToObj(partition -> sum(partition, partitions))
+                    .collect(Collectors.toList());
+
+            for (Partition partition : sums) {
+                for (int index = 0; index < partition.accounts.size(); index++) {
+                    UUID id = partition.accounts.get(index);
+                    BankAccount account = accounts.get(id);
+
+                    if (account == null) {
+                        throw new IOException("Journal refers to the unknown account " + id);
+                    }
+
+                    long balanceCents = Money.add(account.getBalanceCents(), partition.sums[index]);
+
+                    if (balanceCents < 0) {
+                        throw new IOException("Journal overdraws the account " + id);
+                    }
+
+                    accounts.put(id, account.withBalanceCents(balanceCents));
+                }
+            }
+        }
+
+        /**
+         * Sums the changes of the accounts of one partition.
+         */
+        private Partition sum(int partition, int partitions) {
+            UuidIndex accounts = new UuidIndex(Math.min(count / partitions + 1, 1 << 20));
+            long[] sums = new long[1024];
+
+            for (int i = 0; i < count; i++) {
+                long most = mostSignificantBits[i];
+                long least = leastSignificantBits[i];
+
+                if (Math.floorMod(Long.hashCode(most ^ least), partitions) != partition) {
+                    continue;
+                }
+
+                int index = accounts.add(most, least);
+                if (index == sums.length) {
+                    sums = Arrays.copyOf(sums, index * 2);
+                }
+                sums[index] = Money.add(sums[index], changes[i]);
+            }
+
+            return new Partition(accounts, sums);
+        }
+    }
+
+    /**
+     * The summed balance changes of the accounts of one partition, by the number of the account.
+     */
+    private static final class Partition {
+
+        private final UuidIndex accounts;
+        private final long[] sums;
+
+        Partition(UuidIndex accounts, long[] sums) {
+            this.accounts = accounts;
+            this.sums = sums;
+        }
+    }
+}
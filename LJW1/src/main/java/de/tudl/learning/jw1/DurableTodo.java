@@ -0,0 +1,404 @@
+package de.tudl.learning.jw1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class represents a To-do list which survives restarts by logging every change.
+ * <p>
+ * The tasks live in a {@link ConcurrentTodo}. Every add, update and delete is appended as a compact
+ * binary record to a write-ahead log, and the call returns once the record is on disk. Concurrent
+ * writers share their fsyncs through group commit. On start, the last snapshot written by the
+ * {@link TaskJsonFileService} is loaded and the log is replayed on top of it.
+ * </p>
+ * <p>
+ * After a configurable number of logged changes, the whole list is compacted into a new snapshot
+ * and the log is emptied. Replaying the log is idempotent, so a crash between writing the snapshot
+ * and emptying the log loses nothing. A failed compaction does not fail the change that triggered it,
+ * it is logged and tried again with the next change.
+ * </p>
+ * <p>
+ * A change is only made in memory after its record was written, so a change that cannot be logged
+ * leaves the list as it was.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class DurableTodo implements Closeable {
+
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final ConcurrentTodo todo = new ConcurrentTodo();
+    private final TaskJsonFileService snapshotService;
+    private final AppendOnlyLog log;
+
+    /**
+     * The number of logged changes after which the list is compacted into a new snapshot. 0 disables compaction.
+     */
+    private final int compactionThreshold;
+
+    /**
+     * Serializes writers, so the order of the log matches the order of the changes in memory and a change
+     * can be checked before its record is written.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * The number of changes logged since the last compaction. Guarded by {@link #writeLock}.
+     */
+    private int changesSinceCompaction;
+
+    /**
+     * Opens a durable To-do list by loading the snapshot and replaying the log on top of it.
+     *
+     * @param snapshotService The service storing the snapshots. (must not be null)
+     * @param logFile The path of the write-ahead log. It is created if it does not exist. (must not be null)
+     * @param compactionThreshold The number of logged changes after which a new snapshot is written. (0 disables it)
+     * @throws IOException if the snapshot or the log cannot be read.
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    public DurableTodo(TaskJsonFileService snapshotService, Path logFile, int compactionThreshold) throws IOException {
+        if (snapshotService == null || logFile == null) {
+            throw new IllegalArgumentException("Snapshot service and log file should not be null!");
+        }
+
+        if (compactionThreshold < 0) {
+            throw new IllegalArgumentException("Compaction threshold should not be negative!");
+        }
+
+        this.snapshotService = snapshotService;
+        this.compactionThreshold = compactionThreshold;
+
+        snapshotService.readFromFile(todo::restoreTask);
+        this.log = AppendOnlyLog.open(logFile, this::replay);
+    }
+
+    /**
+     * Adds a new Task object to the To-do list. If a task with the same id already exists, no change is made.
+     *
+     * @param task The Task object to be added. (must not be null and must have an id)
+     * @throws IllegalArgumentException if the provided task or its id is null.
+     * @throws UncheckedIOException if the change cannot be logged.
+     */
+    public void addTask(Task task) {
+        if (task == null) throw new IllegalArgumentException(
+                "Task should not be null!"
+        );
+
+        if (task.getId() == null) throw new IllegalArgumentException(
+                "Id should not be null!"
+        );
+
+        ImmutableTask added = new ImmutableTask(task);
+        long sequence;
+        synchronized (writeLock) {
+            if (findTask(added.getId()) != null) {
+                return;
+            }
+
+            sequence = write(encode(ADD, added));
+            todo.restoreTask(added);
+            compactIfDue();
+        }
+
+        sync(sequence);
+    }
+
+    /**
+     * Updates an existing Task object in the To-do list with the provided information.
+     *
+     * @param updatedTask The Task object containing the updated information. (must not be null)
+     * @throws IllegalArgumentException if the provided updatedTask or its id is null.
+     * @throws NoSuchElementException if no task with the same id exists in the list.
+     * @throws UncheckedIOException if the change cannot be logged.
+     */
+    public void updateTask(Task updatedTask) {
+        if (updatedTask == null) {
+            throw new IllegalArgumentException("Updated Task should not be null!");
+        }
+
+        if (updatedTask.getId() == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        ImmutableTask updated = new ImmutableTask(updatedTask);
+        long sequence;
+        synchronized (writeLock) {
+            ImmutableTask current = findTask(updated.getId());
+
+            if (current == null) {
+                throw new NoSuchElementException("No task found with ID:" + updated.getId());
+            }
+
+            if (current.equals(updated)) {
+                return;
+            }
+
+            sequence = write(encode(UPDATE, updated));
+            todo.updateTask(new Task(updated));
+            compactIfDue();
+        }
+
+        sync(sequence);
+    }
+
+    /**
+     * Removes a task from the To-do list based on its unique identifier.
+     *
+     * @param taskId The UUID of the task to be removed.
+     * @throws IllegalArgumentException if the provided `taskId` is null.
+     * @throws NoSuchElementException if no task with the given `taskId` is found.
+     * @throws UncheckedIOException if the change cannot be logged.
+     */
+    public void deleteTask(UUID taskId) {
+        if (taskId == null) throw new IllegalArgumentException(
+                "TaskId should not be null!"
+        );
+
+        long sequence;
+        synchronized (writeLock) {
+            if (findTask(taskId) == null) {
+                throw new NoSuchElementException("No task found with ID:" + taskId);
+            }
+
+            sequence = write(encodeDelete(taskId));
+            todo.deleteTask(taskId);
+            compactIfDue();
+        }
+
+        sync(sequence);
+    }
+
+    /**
+     * Returns a defensive copy of the list of tasks in the To-do list.
+     *
+     * @return A new List object containing copies of the tasks in the To-do list.
+     */
+    public List<Task> getTasks() {
+        return todo.getTasks();
+    }
+
+    /**
+     * Returns a read-only view of the tasks in the To-do list in insertion order.
+     *
+     * @return An unmodifiable Collection of the tasks in the To-do list.
+     */
+    public Collection<ImmutableTask> getTaskViews() {
+        return todo.getTaskViews();
+    }
+
+    /**
+     * Retrieves a specific Task object from the To-do list based on its unique identifier.
+     *
+     * @param id The UUID of the task to be retrieved. (must not be null)
+     * @return A Task object matching the provided id.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    public Task getTask(UUID id) {
+        return todo.getTask(id);
+    }
+
+    /**
+     * Retrieves a specific task from the To-do list based on its unique identifier without copying it.
+     *
+     * @param id The UUID of the task to be retrieved. (must not be null)
+     * @return The ImmutableTask object matching the provided id.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    public ImmutableTask getTaskView(UUID id) {
+        return todo.getTaskView(id);
+    }
+
+    /**
+     * Writes all tasks into a new snapshot and empties the log.
+     *
+     * @throws IOException if the snapshot cannot be written or the log cannot be emptied.
+     */
+    public void compact() throws IOException {
+        synchronized (writeLock) {
+            snapshotService.writeToFile(todo.getTaskViews());
+            log.truncate();
+            changesSinceCompaction = 0;
+        }
+    }
+
+    /**
+     * Returns the size of the write-ahead log.
+     *
+     * @return The number of bytes in the log file.
+     */
+    public long getLogSize() {
+        return log.size();
+    }
+
+    /**
+     * Closes the write-ahead log. All changes made before are already on disk.
+     *
+     * @throws IOException if the log cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Writes a record to the log. Must only be called while holding {@link #writeLock}.
+     *
+     * @param record The encoded record.
+     * @return The log sequence number of the record.
+     * @throws UncheckedIOException if the record cannot be written.
+     */
+    private long write(ByteBuffer record) {
+        try {
+            return log.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot log change to the To-do list", e);
+        }
+    }
+
+    /**
+     * Counts a logged change and compacts the list if the threshold is reached. The change is already logged,
+     * so a failed compaction is only logged and tried again with the next change.
+     * Must only be called while holding {@link #writeLock}.
+     */
+    private void compactIfDue() {
+        if (compactionThreshold == 0 || ++changesSinceCompaction < compactionThreshold) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (IOException | UncheckedIOException e) {
+            logger.log(Level.WARNING, "Cannot compact the To-do list, trying again with the next change", e);
+        }
+    }
+
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id The UUID of the task.
+     * @return The task, or null if there is none.
+     */
+    private ImmutableTask findTask(UUID id) {
+        try {
+            return todo.getTaskView(id);
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits until the record with the given log sequence number is on disk.
+     *
+     * @param sequence The log sequence number of the record.
+     */
+    private void sync(long sequence) {
+        try {
+            log.sync(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot sync the To-do list log", e);
+        }
+    }
+
+    /**
+     * Applies a logged record to the To-do list. Records which were already contained in the snapshot
+     * are applied again without effect.
+     *
+     * @param record The payload of the record.
+     */
+    private void replay(ByteBuffer record) {
+        byte type = record.get();
+        UUID id = new UUID(record.getLong(), record.getLong());
+
+        if (type == DELETE) {
+            todo.deleteTasks(Collections.singletonList(id));
+            return;
+        }
+
+        String title = readString(record);
+        String description = readString(record);
+        LocalDateTime dueDate = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+        ImmutableTask task = new ImmutableTask(id, title, description, dueDate);
+
+        if (type == UPDATE && !todo.updateTasks(Collections.singletonList(new Task(task))).getMissing().isEmpty()) {
+            todo.restoreTask(task);
+        } else if (type == ADD) {
+            todo.restoreTask(task);
+        }
+    }
+
+    /**
+     * Encodes an add or update record.
+     *
+     * @param type The type of the record.
+     * @param task The task after the change.
+     * @return The encoded record.
+     */
+    private static ByteBuffer encode(byte type, ImmutableTask task) {
+        byte[] title = task.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer record = ByteBuffer.allocate(
+                1 + 2 * Long.BYTES + 2 * Integer.BYTES + title.length + description.length + Long.BYTES + Integer.BYTES
+        );
+
+        record.put(type)
+                .putLong(task.getId().getMostSignificantBits())
+                .putLong(task.getId().getLeastSignificantBits())
+                .putInt(title.length).put(title)
+                .putInt(description.length).put(description)
+                .putLong(task.getDueDate().toEpochSecond(ZoneOffset.UTC))
+                .putInt(task.getDueDate().getNano());
+
+        return record.flip();
+    }
+
+    /**
+     * Encodes a delete record.
+     *
+     * @param id The UUID of the deleted task.
+     * @return The encoded record.
+     */
+    private static ByteBuffer encodeDelete(UUID id) {
+        ByteBuffer record = ByteBuffer.allocate(1 + 2 * Long.BYTES);
+
+        record.put(DELETE)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+
+        return record.flip();
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string from the record.
+     *
+     * @param record The record to read from.
+     * @return The decoded string.
+     */
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
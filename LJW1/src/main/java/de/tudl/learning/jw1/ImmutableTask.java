@@ -0,0 +1,160 @@
+package de.tudl.learning.jw1;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * This class represents an immutable snapshot of a Task.
+ * <p>
+ * The To-do list stores its tasks as ImmutableTask objects, so they can be handed out
+ * to readers directly instead of being copied for every read. Use {@link Task#Task(ImmutableTask)}
+ * to get a mutable Task for editing.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ImmutableTask {
+
+    /**
+     * A unique identifier for the task.
+     */
+    private final UUID id;
+
+    /**
+     * The title of the task.
+     */
+    private final String title;
+
+    /**
+     * A detailed description of the task.
+     */
+    private final String description;
+
+    /**
+     * The date and time by which the task should be completed.
+     */
+    private final LocalDateTime dueDate;
+
+    /**
+     * Creates an immutable snapshot of the provided Task object.
+     *
+     * @param task The Task object to be copied. (must not be null)
+     * @throws IllegalArgumentException if the provided task is null.
+     */
+    public ImmutableTask(Task task) {
+        if (task == null) throw new IllegalArgumentException(
+                "Task should not be null!"
+        );
+
+        this.id = task.getId();
+        this.title = task.getTitle();
+        this.description = task.getDescription();
+        this.dueDate = task.getDueDate();
+    }
+
+    /**
+     * Creates a new ImmutableTask with the provided properties.
+     * <p>
+     * Unlike {@link Task#Task(UUID, String, String, LocalDateTime)} the due date may lie in the past,
+     * because this constructor is used to restore tasks which were stored earlier.
+     * </p>
+     *
+     * @param id The unique identifier for the task.
+     * @param title The title of the task. (must not be null or empty)
+     * @param description The description of the task. (must not be null or empty)
+     * @param dueDate The date and time by which the task should be completed. (must not be null)
+     * @throws IllegalArgumentException if title, description, or dueDate is invalid.
+     */
+    public ImmutableTask(
+            UUID id,
+            String title,
+            String description,
+            LocalDateTime dueDate
+    ) {
+        if (title == null || title.isEmpty()) throw new IllegalArgumentException(
+                "Title cannot be null or empty!"
+        );
+
+        if (
+                description == null || description.isEmpty()
+        ) throw new IllegalArgumentException(
+                "Description cannot be null or empty!"
+        );
+
+        if (dueDate == null) throw new IllegalArgumentException(
+                "Due date cannot be null!"
+        );
+
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.dueDate = dueDate;
+    }
+
+    /**
+     *  Returns the unique identifier of the task.
+     *
+     *  @return The UUID of the task.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Returns the title of the task.
+     *
+     * @return The title of the task.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the description of the task.
+     *
+     * @return The description of the task.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the date and time by which the task should be completed.
+     *
+     * @return The due date of the task as a LocalDateTime object.
+     */
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * Indicates whether another object is equal to this ImmutableTask.
+     *
+     * @param o The object to compare with this ImmutableTask.
+     * @return true if the objects are equal, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ImmutableTask)) return false;
+        ImmutableTask task = (ImmutableTask) o;
+        return (
+                Objects.equals(id, task.id) &&
+                        Objects.equals(title, task.title) &&
+                        Objects.equals(description, task.description) &&
+                        Objects.equals(dueDate, task.dueDate)
+        );
+    }
+
+    /**
+     * Returns a hash code value for this ImmutableTask.
+     *
+     * @return The hash code value.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, description, dueDate);
+    }
+}
@@ -0,0 +1,455 @@
+package de.tudl.learning.jw1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class represents a ledger which holds the current state of bank accounts and executes transactions.
+ * <p>
+ * {@link BankAccount} objects are immutable, so the ledger keeps the latest version of every account by its
+ * id and replaces it with the copy returned by {@link BankAccount#withdraw(double)} and
+ * {@link BankAccount#deposit(double)}. A transaction debits the sender and credits the receiver atomically:
+ * either both accounts change or none does.
+ * </p>
+ * <p>
+ * Every account has a lock of its own. A transaction holds the locks of its two accounts, always taken in the
+ * order the accounts were opened in, so transactions on different accounts run in parallel and two transactions on the
+ * same accounts in opposite directions cannot deadlock. Reading a single account never blocks.
+ * </p>
+ * <p>
+ * A batch of transactions is executed with {@link #executeBatch(Collection)}. It locks every account of the
+ * batch once, runs the transactions against primitive working balances and then stores only the final
+ * balance of every changed account, so an account touched by many transactions is copied once per batch
+ * instead of once per transaction. This pays off when many transactions of a batch share accounts.
+ * </p>
+ * <p>
+ * A {@link LedgerListener} can be given to see every change before it is stored, while the locks of its
+ * accounts are still held. If the listener fails, the change is not stored.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class Ledger {
+
+    /**
+     * The accounts of the ledger indexed by their unique identifier.
+     */
+    private final ConcurrentMap<UUID, Entry> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of executed transactions.
+     */
+    private final AtomicLong executedTransactions = new AtomicLong();
+
+    /**
+     * The number of opened accounts, which gives every account its place in the lock order.
+     */
+    private final AtomicLong openedAccounts = new AtomicLong();
+
+    private final LedgerListener listener;
+
+    /**
+     * Creates an empty ledger.
+     */
+    public Ledger() {
+        this(LedgerListener.NONE, Collections.emptyList());
+    }
+
+    /**
+     * Creates a ledger which passes every change to the listener before it is stored.
+     *
+     * @param listener The listener of the changes. (must not be null)
+     * @param accounts The accounts the ledger starts with. The listener is not called for them.
+     * @throws IllegalArgumentException if the listener is null or the accounts contain null or the same id twice.
+     */
+    Ledger(LedgerListener listener, Collection<BankAccount> accounts) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null!");
+        }
+
+        this.listener = listener;
+
+        for (BankAccount account : accounts) {
+            if (account == null) {
+                throw new IllegalArgumentException("Account should not be null!");
+            }
+
+            if (this.accounts.putIfAbsent(account.getId(), new Entry(account, openedAccounts.getAndIncrement())) != null) {
+                throw new IllegalArgumentException("Account is already open!");
+            }
+        }
+    }
+
+    /**
+     * Opens an account in the ledger with its current balance.
+     *
+     * @param account The account to open. (must not be null)
+     * @throws IllegalArgumentException if the account is null or an account with the same id is already open.
+     */
+    public void openAccount(BankAccount account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account should not be null!");
+        }
+
+        Entry entry = new Entry(account, openedAccounts.getAndIncrement());
+
+        // The account only becomes visible after the listener returned, so nothing can change it before.
+        Entry opened = accounts.computeIfAbsent(account.getId(), id -> {
+            listener.accountOpened(account);
+            return entry;
+        });
+
+        if (opened != entry) {
+            throw new IllegalArgumentException("Account is already open!");
+        }
+    }
+
+    /**
+     * Returns the current state of an account.
+     *
+     * @param id The id of the account.
+     * @return The latest version of the account.
+     * @throws NoSuchElementException if no account with this id is open.
+     * @throws IllegalArgumentException if the id is null.
+     */
+    public BankAccount getAccount(UUID id) {
+        return entry(id).account;
+    }
+
+    /**
+     * Returns the current balance of an account.
+     *
+     * @param id The id of the account.
+     * @return The balance of the account.
+     * @throws NoSuchElementException if no account with this id is open.
+     */
+    public double getBalance(UUID id) {
+        return getAccount(id).getBalance();
+    }
+
+    /**
+     * Returns the current state of all accounts. The accounts are read one after another, so while transactions
+     * are running the result may contain accounts from before and after the same transaction.
+     *
+     * @return A list of all accounts in no particular order.
+     */
+    public List<BankAccount> getAccounts() {
+        List<BankAccount> result = new ArrayList<>(accounts.size());
+
+        for (Entry entry : accounts.values()) {
+            result.add(entry.account);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the sum of all balances. Like {@link #getAccounts()} it is only exact while no transactions run.
+     *
+     * @return The total balance of the ledger.
+     */
+    public double getTotalBalance() {
+        return Money.toAmount(getTotalBalanceCents());
+    }
+
+    /**
+     * Returns the exact sum of all balances in cents. Like {@link #getAccounts()} it is only exact while no
+     * transactions run.
+     *
+     * @return The total balance of the ledger in cents.
+     * @throws ArithmeticException if the sum overflows.
+     */
+    public long getTotalBalanceCents() {
+        long total = 0;
+
+        for (Entry entry : accounts.values()) {
+            total = Money.add(total, entry.account.getBalanceCents());
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns the number of open accounts.
+     *
+     * @return The number of accounts.
+     */
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Returns the number of transactions which were executed.
+     *
+     * @return The number of executed transactions.
+     */
+    public long getExecutedTransactions() {
+        return executedTransactions.get();
+    }
+
+    /**
+     * Deposits money into an account.
+     *
+     * @param id     The id of the account.
+     * @param amount The amount to deposit. (must not be negative)
+     * @return The account after the deposit.
+     * @throws NoSuchElementException   if no account with this id is open.
+     * @throws IllegalArgumentException if the amount is negative.
+     */
+    public BankAccount deposit(UUID id, double amount) {
+        Entry entry = entry(id);
+        long amountCents = Money.toCents(amount);
+
+        entry.lock.lock();
+        try {
+            BankAccount deposited = entry.account.depositCents(amountCents);
+            listener.deposited(id, amountCents);
+            entry.account = deposited;
+            return deposited;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Withdraws money from an account.
+     *
+     * @param id     The id of the account.
+     * @param amount The amount to withdraw. (must not be negative)
+     * @return The account after the withdrawal.
+     * @throws NoSuchElementException   if no account with this id is open.
+     * @throws IllegalArgumentException if the amount is negative or exceeds the balance.
+     */
+    public BankAccount withdraw(UUID id, double amount) {
+        Entry entry = entry(id);
+        long amountCents = Money.toCents(amount);
+
+        entry.lock.lock();
+        try {
+            BankAccount withdrawn = entry.account.withdrawCents(amountCents);
+            listener.withdrawn(id, amountCents);
+            entry.account = withdrawn;
+            return withdrawn;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * Executes a transaction: the amount is withdrawn from the sender and deposited to the receiver.
+     * The accounts of the transaction only identify the accounts, their balances are taken from the ledger.
+     *
+     * @param transaction The transaction to execute. (must not be null)
+     * @throws IllegalArgumentException if the transaction is null, sender and receiver are the same account
+     *                                  or the balance of the sender is too low. Nothing is changed then.
+     * @throws NoSuchElementException   if the sender or the receiver is not open.
+     */
+    public void execute(Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transaction should not be null!");
+        }
+
+        UUID senderId = transaction.getSender().getId();
+        UUID receiverId = transaction.getReceiver().getId();
+
+        if (senderId.equals(receiverId)) {
+            throw new IllegalArgumentException("Sender and receiver should be different accounts!");
+        }
+
+        Entry sender = entry(senderId);
+        Entry receiver = entry(receiverId);
+        boolean senderFirst = sender.lockOrder < receiver.lockOrder;
+        Entry first = senderFirst ? sender : receiver;
+        Entry second = senderFirst ? receiver : sender;
+
+        first.lock.lock();
+        second.lock.lock();
+        try {
+            // Compute both new states before storing one, so a failure leaves both accounts unchanged.
+            BankAccount debited = sender.account.withdrawCents(transaction.getAmountCents());
+            BankAccount credited = receiver.account.depositCents(transaction.getAmountCents());
+
+            listener.executed(Collections.singletonList(transaction));
+            sender.account = debited;
+            receiver.account = credited;
+        } finally {
+            second.lock.unlock();
+            first.lock.unlock();
+        }
+
+        executedTransactions.incrementAndGet();
+    }
+
+    /**
+     * Executes a batch of transactions in batch order, with the same result as executing them one after
+     * another with {@link #execute(Transaction)}, except that failing transactions are reported instead of thrown.
+     * <p>
+     * The accounts of the batch are locked for the whole batch. Every transaction is checked against the
+     * balances left by the transactions before it, so no account is overdrawn at any point, and the net
+     * change of every account is stored once at the end.
+     * </p>
+     *
+     * @param transactions The transactions to execute. (must not be null or contain null)
+     * @return The TransactionBatchResult listing the executed transactions and the rejected ones with their reason.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is executed.
+     */
+    public TransactionBatchResult executeBatch(Collection<Transaction> transactions) {
+        validateBatch(transactions);
+
+        TransactionBatchResult result = new TransactionBatchResult();
+        int count = transactions.size();
+        UuidIndex accountIndex = new UuidIndex(Math.min(count * 2, 1 << 20));
+        UuidIndex transactionIndex = new UuidIndex(count);
+        Entry[] batchEntries = new Entry[16];
+
+        // The account numbers of every transaction, or the reason if it is rejected before it runs.
+        int[] senders = new int[count];
+        int[] receivers = new int[count];
+        String[] reasons = new String[count];
+        int position = 0;
+
+        for (Transaction transaction : transactions) {
+            int index = position++;
+            UUID senderId = transaction.getSender().getId();
+            UUID receiverId = transaction.getReceiver().getId();
+            Entry sender = accounts.get(senderId);
+            Entry receiver = accounts.get(receiverId);
+            int seenTransactions = transactionIndex.size();
+
+            if (transactionIndex.add(transaction.getId()) < seenTransactions) {
+                reasons[index] = "Transaction appeared earlier in the batch!";
+            } else if (senderId.equals(receiverId)) {
+                reasons[index] = "Sender and receiver should be different accounts!";
+            } else if (sender == null || receiver == null) {
+                reasons[index] = "No account with id " + (sender == null ? senderId : receiverId) + "!";
+            }
+
+            if (reasons[index] != null) {
+                continue;
+            }
+
+            senders[index] = accountIndex.add(senderId);
+            receivers[index] = accountIndex.add(receiverId);
+
+            if (accountIndex.size() > batchEntries.length) {
+                batchEntries = Arrays.copyOf(batchEntries, batchEntries.length * 2);
+            }
+            batchEntries[senders[index]] = sender;
+            batchEntries[receivers[index]] = receiver;
+        }
+
+        // Sorting primitive keys of lock order and account number is much faster than sorting the entries.
+        long[] lockKeys = new long[accountIndex.size()];
+        for (int account = 0; account < lockKeys.length; account++) {
+            lockKeys[account] = batchEntries[account].lockOrder << 32 | account;
+        }
+        Arrays.sort(lockKeys);
+        List<Transaction> executed = new ArrayList<>();
+
+        for (long key : lockKeys) {
+            batchEntries[(int) key].lock.lock();
+        }
+        try {
+            long[] balances = new long[accountIndex.size()];
+            for (int account = 0; account < balances.length; account++) {
+                balances[account] = batchEntries[account].account.getBalanceCents();
+            }
+
+            position = 0;
+            for (Transaction transaction : transactions) {
+                int index = position++;
+                int sender = senders[index];
+                int receiver = receivers[index];
+
+                if (reasons[index] != null) {
+                    result.addRejected(transaction.getId(), reasons[index]);
+                    continue;
+                }
+
+                long amount = transaction.getAmountCents();
+
+                if (amount > balances[sender]) {
+                    result.addRejected(transaction.getId(), "Insufficient balance to fulfill withdrawal!");
+                } else if (balances[receiver] > Long.MAX_VALUE - amount) {
+                    result.addRejected(transaction.getId(), "Balance of the receiver would overflow!");
+                } else {
+                    balances[sender] -= amount;
+                    balances[receiver] += amount;
+                    result.addExecuted(transaction.getId());
+                    executed.add(transaction);
+                }
+            }
+
+            if (!executed.isEmpty()) {
+                listener.executed(executed);
+            }
+
+            for (int account = 0; account < balances.length; account++) {
+                Entry entry = batchEntries[account];
+
+                if (balances[account] != entry.account.getBalanceCents()) {
+                    entry.account = entry.account.withBalanceCents(balances[account]);
+                }
+            }
+        } finally {
+            for (int i = lockKeys.length - 1; i >= 0; i--) {
+                batchEntries[(int) lockKeys[i]].lock.unlock();
+            }
+        }
+
+        executedTransactions.addAndGet(executed.size());
+        return result;
+    }
+
+    private static void validateBatch(Collection<Transaction> transactions) {
+        if (transactions == null) {
+            throw new IllegalArgumentException("Transactions should not be null!");
+        }
+
+        for (Transaction transaction : transactions) {
+            if (transaction == null) {
+                throw new IllegalArgumentException("Transactions should not contain null!");
+            }
+        }
+    }
+
+    private Entry entry(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        Entry entry = accounts.get(id);
+
+        if (entry == null) {
+            throw new NoSuchElementException("No account with id " + id + "!");
+        }
+
+        return entry;
+    }
+
+    /**
+     * The latest version of an account. Writes hold the lock of the entry, reads only see the volatile field.
+     */
+    private static final class Entry {
+
+        private final long lockOrder;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile BankAccount account;
+
+        Entry(BankAccount account, long lockOrder) {
+            this.lockOrder = lockOrder;
+            this.account = account;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package de.tudl.learning.jw1;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This interface receives every change of a {@link Ledger} before the change is stored.
+ * <p>
+ * The listener is called while the ledger holds the locks of the changed accounts, so the changes of an
+ * account reach it in the order they are made and no other change can build on a change it has not seen
+ * yet. If the listener throws, the change is not stored and the exception is passed to the caller.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+interface LedgerListener {
+
+    /**
+     * The listener of a ledger nobody listens to.
+     */
+    LedgerListener NONE = new LedgerListener() {
+        @Override
+        public void accountOpened(BankAccount account) {
+        }
+
+        @Override
+        public void deposited(UUID id, long amountCents) {
+        }
+
+        @Override
+        public void withdrawn(UUID id, long amountCents) {
+        }
+
+        @Override
+        public void executed(List<Transaction> transactions) {
+        }
+    };
+
+    /**
+     * Called before an account is opened. No change of the account can happen before the call returns.
+     *
+     * @param account The account to open.
+     */
+    void accountOpened(BankAccount account);
+
+    /**
+     * Called before a deposit is stored.
+     *
+     * @param id          The id of the account.
+     * @param amountCents The deposited amount in cents.
+     */
+    void deposited(UUID id, long amountCents);
+
+    /**
+     * Called before a withdrawal is stored.
+     *
+     * @param id          The id of the account.
+     * @param amountCents The withdrawn amount in cents.
+     */
+    void withdrawn(UUID id, long amountCents);
+
+    /**
+     * Called before the balances of executed transactions are stored, once per transaction or batch.
+     *
+     * @param transactions The executed transactions in the order they were executed. (never empty)
+     */
+    void executed(List<Transaction> transactions);
+}
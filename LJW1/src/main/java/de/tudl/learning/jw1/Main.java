@@ -1,5 +1,8 @@
 package de.tudl.learning.jw1;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.Scanner;
 import java.util.UUID;
@@ -8,12 +11,16 @@ import java.util.logging.Logger;
 
 public class Main {
     static Logger logger = Logger.getLogger(Main.class.getName());
-    private static final Todo todoList = new Todo();
+    private static final int COMPACTION_THRESHOLD = 100;
+    private static final TaskJsonFileService taskFileService = new TaskJsonFileService("tasks.json");
+    private static DurableTodo todoList;
     private static final Scanner input = new Scanner(System.in);
 
     public static void main(String[] args) {
         int userChoice = 0;
 
+        if (!loadTasks()) return;
+
         while (userChoice != 6) {
             userChoice = menu();
 
@@ -35,6 +42,7 @@ public class Main {
                     break;
                 case 6:
                     logger.info("Exiting the program.");
+                    closeTasks();
                     break;
                 default:
                     logger.warning("Invalid choice. Please try again.");
@@ -72,10 +80,14 @@ public class Main {
     }
 
     private static void listAllTasks() {
-        todoList.getTasks().forEach(Main::showTask);
+        todoList.getTaskViews().forEach(Main::showTask);
     }
 
     private static void showTask(Task task) {
+        showTask(new ImmutableTask(task));
+    }
+
+    private static void showTask(ImmutableTask task) {
         System.out.println("----------------------------");
         System.out.printf("ID: %s%n", task.getId());
         System.out.printf("Title: %s%n", task.getTitle());
@@ -85,14 +97,14 @@ public class Main {
     }
 
     private static void showSingleTask() {
-        todoList.getTasks().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
+        todoList.getTaskViews().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
 
         System.out.println("Enter the ID of the task you want to view:");
         String id = input.nextLine();
-        Task searchedTask;
+        ImmutableTask searchedTask;
 
         try {
-            searchedTask = todoList.getTask(UUID.fromString(id));
+            searchedTask = todoList.getTaskView(UUID.fromString(id));
             showTask(searchedTask);
         } catch (Exception e) {
             logger.log(Level.WARNING, "No task found using ID {0}", id);
@@ -108,20 +120,21 @@ public class Main {
 
         System.out.print("Enter due date (format: YYYY-MM-DDTHH:MM): ");
         String dateTimeInput = input.nextLine();
-        LocalDateTime dueDate;
 
         try {
-            dueDate = LocalDateTime.parse(dateTimeInput);
+            LocalDateTime dueDate = LocalDateTime.parse(dateTimeInput);
             Task newTask = new Task(UUID.randomUUID(), title, description, dueDate);
             todoList.addTask(newTask);
             logger.info("Task added successfully.");
+        } catch (UncheckedIOException e) {
+            logger.log(Level.WARNING, "Cannot save the new task: {0}", e.getMessage());
         } catch (Exception e) {
             logger.log(Level.WARNING, "Invalid date format or task data. Please try again.");
         }
     }
 
     private static void editTask() {
-        todoList.getTasks().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
+        todoList.getTaskViews().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
 
         System.out.print("Enter task id:");
         String id = input.nextLine();
@@ -169,7 +182,7 @@ public class Main {
     }
 
     private static void deleteTask() {
-        todoList.getTasks().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
+        todoList.getTaskViews().forEach(e -> logger.log(Level.INFO, "Task ID: {0}", e.getId()));
 
         System.out.print("Enter task id:");
         String id = input.nextLine();
@@ -204,4 +217,23 @@ public class Main {
             logger.warning("Cannot delete task!");
         }
     }
-}
\ No newline at end of file
+
+    private static boolean loadTasks() {
+        try {
+            todoList = new DurableTodo(taskFileService, Paths.get("tasks.log"), COMPACTION_THRESHOLD);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Cannot load tasks from {0}", taskFileService.getFilePath());
+            return false;
+        }
+    }
+
+    private static void closeTasks() {
+        // The log is closed even if the compaction fails, its changes are on disk and replayed on the next start.
+        try (DurableTodo todo = todoList) {
+            todo.compact();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot save tasks to {0}", taskFileService.getFilePath());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.tudl.learning.jw1;
+
+/**
+ * This class provides exact arithmetic on amounts of money in cents.
+ * <p>
+ * Amounts are plain {@code long} values of the minor unit, so they are exact, need no allocation and do not
+ * have to be boxed to be stored. Binary {@code double} values cannot represent most decimal fractions, which
+ * lets sums of balances drift by fractions of a cent. All operations check for overflow instead of wrapping
+ * around.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Money {
+
+    /**
+     * The number of cents in one unit of the currency.
+     */
+    public static final int CENTS_PER_UNIT = 100;
+
+    /**
+     * The largest amount which can be converted to cents without overflow.
+     */
+    private static final double MAX_AMOUNT = Long.MAX_VALUE / (double) CENTS_PER_UNIT;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to cents, rounded to the nearest cent.
+     *
+     * @param amount The amount in units of the currency.
+     * @return The amount in cents.
+     * @throws IllegalArgumentException if the amount is not a number, infinite or too large for cents.
+     */
+    public static long toCents(double amount) {
+        if (Double.isNaN(amount) || Math.abs(amount) >= MAX_AMOUNT) {
+            throw new IllegalArgumentException("Amount " + amount + " cannot be represented in cents!");
+        }
+
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * Converts cents to an amount in units of the currency. The result is the double nearest to the exact amount.
+     *
+     * @param cents The amount in cents.
+     * @return The amount in units of the currency.
+     */
+    public static double toAmount(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * Adds two amounts.
+     *
+     * @param a The first amount in cents.
+     * @param b The second amount in cents.
+     * @return The sum in cents.
+     * @throws ArithmeticException if the sum overflows.
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Subtracts an amount from another.
+     *
+     * @param a The amount in cents to subtract from.
+     * @param b The amount in cents to subtract.
+     * @return The difference in cents.
+     * @throws ArithmeticException if the difference overflows.
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplies an amount by a whole factor.
+     *
+     * @param cents  The amount in cents.
+     * @param factor The factor.
+     * @return The product in cents.
+     * @throws ArithmeticException if the product overflows.
+     */
+    public static long multiply(long cents, long factor) {
+        return Math.multiplyExact(cents, factor);
+    }
+
+    /**
+     * Formats an amount with two decimal places, e.g. {@code -12.05}.
+     *
+     * @param cents The amount in cents.
+     * @return The formatted amount.
+     */
+    public static String format(long cents) {
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        long fraction = Math.abs(cents % CENTS_PER_UNIT);
+
+        return (cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
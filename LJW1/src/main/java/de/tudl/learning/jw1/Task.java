@@ -96,6 +96,18 @@ public class Task {
         this.dueDate = other.getDueDate();
     }
 
+    /**
+     * Creates a mutable copy of the provided ImmutableTask object.
+     *
+     * @param other The ImmutableTask object to be copied.
+     */
+    public Task(ImmutableTask other) {
+        this.id = other.getId();
+        this.title = other.getTitle();
+        this.description = other.getDescription();
+        this.dueDate = other.getDueDate();
+    }
+
     /**
      *  Returns the unique identifier of the task.
      *
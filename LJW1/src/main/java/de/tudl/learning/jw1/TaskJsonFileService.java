@@ -0,0 +1,456 @@
+package de.tudl.learning.jw1;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * This class stores the tasks of a To-do list as a JSON array in a file.
+ * <p>
+ * Tasks are read and written one at a time through Jackson's streaming {@link JsonParser} and
+ * {@link JsonGenerator}, so neither direction builds the whole document in memory. New tasks
+ * can be appended to an existing file without rewriting it. An append that is interrupted by a crash
+ * can leave the file without its end, the tasks before it are still read and the file is repaired.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public class TaskJsonFileService {
+
+    /**
+     * The buffer size used when writing the whole file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of bytes read at once while searching the end of the file for an append.
+     */
+    private static final int TAIL_BUFFER_SIZE = 512;
+
+    /**
+     * The Jackson factory creating the parsers and generators. It is thread-safe and shared.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Path filePath;
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    /**
+     * Creates a new TaskJsonFileService for the given file. The file itself does not need to exist yet.
+     *
+     * @param filePath The path of the JSON file. (must not be null or blank and its directory must exist)
+     * @throws IllegalArgumentException if the file path is invalid.
+     */
+    public TaskJsonFileService(String filePath) {
+        validateFilePath(filePath);
+
+        this.filePath = Path.of(filePath).toAbsolutePath();
+    }
+
+    /**
+     * Returns the path of the JSON file.
+     *
+     * @return The absolute path of the JSON file.
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Reads all tasks from the file into a new To-do list.
+     * If the file ends early, for example after an interrupted append, it is backed up as backup_&lt;name&gt;,
+     * rewritten with the tasks before the end, so later appends work again, and these tasks are returned.
+     * If it is corrupted otherwise, it is backed up and an empty To-do list is returned.
+     *
+     * @return A new Todo object containing the stored tasks, or an empty one if the file does not exist.
+     */
+    public Todo readFromFile() {
+        Todo todo = new Todo();
+
+        try {
+            readFromFile(todo::restoreTask);
+        } catch (JsonEOFException e) {
+            logger.warning("tasks in " + filePath + " end early, keeping the tasks before: " + e.getMessage());
+            backupCorruptedFile();
+            repairFile(todo);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning("cannot read tasks from " + filePath + ": " + e.getMessage());
+            backupCorruptedFile();
+            return new Todo();
+        }
+
+        return todo;
+    }
+
+    /**
+     * Streams the tasks stored in the file to the given consumer, one task at a time and in file order.
+     * Nothing is passed to the consumer if the file does not exist.
+     *
+     * @param consumer The consumer receiving the tasks. (must not be null)
+     * @throws JsonEOFException if the file ends early. All complete tasks before were passed to the consumer.
+     * @throws IOException if the file cannot be read or is not a valid JSON array of tasks.
+     * @throws IllegalArgumentException if a stored task is invalid.
+     */
+    public void readFromFile(Consumer<ImmutableTask> consumer) throws IOException {
+        if (Files.notExists(filePath)) return;
+
+        long size = Files.size(filePath);
+
+        try (JsonParser parser = JSON_FACTORY.createParser(filePath.toFile())) {
+            try {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Expected a JSON array of tasks");
+                }
+
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    consumer.accept(readTask(parser));
+                }
+
+                if (token != JsonToken.END_ARRAY) {
+                    throw new JsonParseException(parser, "Expected a task or the end of the array");
+                }
+            } catch (JsonParseException e) {
+                // Jackson reports some ends of the input as other errors, for example behind a comma.
+                if (e instanceof JsonEOFException || e.getLocation() == null || e.getLocation().getByteOffset() < size) {
+                    throw e;
+                }
+
+                throw new JsonEOFException(parser, null, e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the file with the given tasks. The tasks are written to a temporary file which is synced
+     * to disk and then moved over the original, so the file is never left half written.
+     *
+     * @param tasks The tasks to be stored, for example {@link Todo#getTaskViews()}. (must not be null)
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeToFile(Collection<ImmutableTask> tasks) throws IOException {
+        if (tasks == null) {
+            throw new IllegalArgumentException("Tasks should not be null!");
+        }
+
+        Path tempFile = Files.createTempFile(filePath.getParent(), filePath.getFileName().toString(), ".tmp");
+
+        try {
+            try (
+                    FileOutputStream file = new FileOutputStream(tempFile.toFile());
+                    OutputStream out = new BufferedOutputStream(file, BUFFER_SIZE);
+                    JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)
+            ) {
+                generator.writeStartArray();
+                for (ImmutableTask task : tasks) {
+                    writeTask(generator, task);
+                }
+                generator.writeEndArray();
+                generator.flush();
+                // The file must be on disk before it replaces the original.
+                file.getFD().sync();
+            }
+
+            moveIntoPlace(tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Appends a single task to the end of the stored JSON array without rewriting the rest of the file.
+     * The file is created if it does not exist. The task is on disk when the method returns.
+     * <p>
+     * This is meant for callers which keep the file as their only store and add tasks without loading the
+     * list, {@link DurableTodo} logs its changes elsewhere and does not use it.
+     * </p>
+     * <p>
+     * The closing bracket is overwritten, so a crash in the middle of the append leaves the file without
+     * its end. Appends fail until {@link #readFromFile()} restored the tasks before the new one and repaired
+     * the file.
+     * </p>
+     *
+     * @param task The task to be appended. (must not be null)
+     * @throws IOException if the file cannot be written or does not end with a JSON array.
+     */
+    public void appendToFile(ImmutableTask task) throws IOException {
+        if (task == null) {
+            throw new IllegalArgumentException("Task should not be null!");
+        }
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json, JsonEncoding.UTF8)) {
+            writeTask(generator, task);
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                filePath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        )) {
+            ByteBuffer buffer = ByteBuffer.allocate(TAIL_BUFFER_SIZE);
+            long closingBracket = findLastNonWhitespace(channel, channel.size(), buffer);
+
+            if (closingBracket < 0) {
+                write(channel, 0, "[", json, "]");
+            } else {
+                if (readByte(channel, closingBracket, buffer) != ']') {
+                    throw new IOException("File does not end with a JSON array: " + filePath);
+                }
+
+                long previous = findLastNonWhitespace(channel, closingBracket, buffer);
+                String separator = previous >= 0 && readByte(channel, previous, buffer) == '[' ? "" : ",";
+
+                // Overwrite the closing bracket and write it again after the new task.
+                write(channel, closingBracket, separator, json, "]");
+            }
+
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads the fields of a single task. The parser must be positioned on the start of the task object.
+     * Unknown fields are skipped.
+     *
+     * @param parser The parser positioned on the start of the task object.
+     * @return The ImmutableTask object described by the JSON object.
+     * @throws IOException if the JSON object is malformed.
+     */
+    private static ImmutableTask readTask(JsonParser parser) throws IOException {
+        UUID id = null;
+        String title = null;
+        String description = null;
+        LocalDateTime dueDate = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+
+            try {
+                switch (fieldName) {
+                    case "id":
+                        String value = parser.getValueAsString();
+                        id = value == null ? null : UUID.fromString(value);
+                        break;
+                    case "title":
+                        title = parser.getValueAsString();
+                        break;
+                    case "description":
+                        description = parser.getValueAsString();
+                        break;
+                    case "dueDate":
+                        String dueDateValue = parser.getValueAsString();
+                        dueDate = dueDateValue == null ? null : LocalDateTime.parse(dueDateValue);
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new JsonParseException(parser, "Invalid value for field " + fieldName, e);
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Expected the end of the task");
+        }
+
+        return new ImmutableTask(id, title, description, dueDate);
+    }
+
+    /**
+     * Writes a single task as JSON object.
+     *
+     * @param generator The generator to write the task to.
+     * @param task The task to be written.
+     * @throws IOException if the task cannot be written.
+     */
+    private static void writeTask(JsonGenerator generator, ImmutableTask task) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", task.getId() == null ? null : task.getId().toString());
+        generator.writeStringField("title", task.getTitle());
+        generator.writeStringField("description", task.getDescription());
+        generator.writeStringField("dueDate", task.getDueDate().toString());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Moves the given file over the JSON file, atomically if the file system supports it.
+     *
+     * @param source The file to be moved.
+     * @throws IOException if the file cannot be moved.
+     */
+    private void moveIntoPlace(Path source) throws IOException {
+        try {
+            Files.move(source, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Finds the position of the last byte before the given position which is not JSON whitespace.
+     * The file is read backwards in blocks of the size of the buffer.
+     *
+     * @param channel The channel to search.
+     * @param before The position to search backwards from, exclusive.
+     * @param buffer The buffer to read the blocks into.
+     * @return The position of the byte, or -1 if there are only whitespaces.
+     * @throws IOException if the channel cannot be read.
+     */
+    private static long findLastNonWhitespace(FileChannel channel, long before, ByteBuffer buffer) throws IOException {
+        for (long end = before; end > 0; ) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            read(channel, buffer, start);
+
+            for (int index = buffer.limit() - 1; index >= 0; index--) {
+                byte value = buffer.get(index);
+
+                if (value != ' ' && value != '\n' && value != '\r' && value != '\t') {
+                    return start + index;
+                }
+            }
+
+            end = start;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the byte at the given position.
+     *
+     * @param channel The channel to read from.
+     * @param position The position of the byte.
+     * @param buffer The buffer to read the byte into.
+     * @return The byte at the given position.
+     * @throws IOException if the channel cannot be read.
+     */
+    private static byte readByte(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(1);
+        read(channel, buffer, position);
+
+        return buffer.get(0);
+    }
+
+    /**
+     * Fills the buffer up to its limit with the bytes from the given position on.
+     *
+     * @param channel The channel to read from.
+     * @param buffer The buffer to fill.
+     * @param position The position of the first byte.
+     * @throws IOException if the channel cannot be read or ends before the buffer is full.
+     */
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * Writes prefix, JSON and suffix at the given position and cuts off everything behind them.
+     *
+     * @param channel The channel to write to.
+     * @param position The position to start writing at.
+     * @param prefix The text written before the JSON.
+     * @param json The serialized task.
+     * @param suffix The text written after the JSON.
+     * @throws IOException if the channel cannot be written.
+     */
+    private static void write(
+            FileChannel channel,
+            long position,
+            String prefix,
+            ByteArrayOutputStream json,
+            String suffix
+    ) throws IOException {
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        byte[] jsonBytes = json.toByteArray();
+        byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(prefixBytes.length + jsonBytes.length + suffixBytes.length);
+        buffer.put(prefixBytes).put(jsonBytes).put(suffixBytes).flip();
+
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+
+        channel.truncate(position);
+    }
+
+    /**
+     * Rewrites the file with the tasks recovered from it, so it ends with a complete JSON array again.
+     *
+     * @param todo The To-do list holding the recovered tasks.
+     */
+    private void repairFile(Todo todo) {
+        try {
+            writeToFile(todo.getTaskViews());
+        } catch (IOException e) {
+            logger.warning("cannot repair tasks in " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the corrupted file to backup_&lt;name&gt; next to it.
+     */
+    private void backupCorruptedFile() {
+        Path backupFile = filePath.resolveSibling("backup_" + filePath.getFileName());
+
+        try {
+            Files.copy(filePath, backupFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ignored) {
+            logger.info("cannot write file to path at " + backupFile);
+        }
+    }
+
+    /**
+     * Validates that the file path is not blank and points into an existing directory.
+     *
+     * @param filePath The file path to validate.
+     * @throws IllegalArgumentException if the file path is invalid.
+     */
+    private static void validateFilePath(String filePath) {
+        if (filePath == null || filePath.isBlank()) throw new IllegalArgumentException(
+                "Filepath should not be empty."
+        );
+
+        Path parent = Path.of(filePath).toAbsolutePath().getParent();
+
+        if (parent == null || !Files.isDirectory(parent)) throw new IllegalArgumentException(
+                "Filepath is not a valid path."
+        );
+    }
+}
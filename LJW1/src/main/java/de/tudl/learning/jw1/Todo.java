@@ -1,8 +1,18 @@
 package de.tudl.learning.jw1;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
@@ -15,9 +25,23 @@ import java.util.UUID;
 public class Todo {
 
     /**
-     * A list of Task objects representing the tasks in the To-do list.
+     * The tasks of the To-do list indexed by their unique identifier.
+     * A LinkedHashMap keeps the insertion order for {@link #getTasks()} while
+     * lookups, updates and deletions by id run in constant time.
+     * The tasks are stored as ImmutableTask objects, so they can be handed out without copying.
      */
-    private ArrayList<Task> tasks;
+    private final Map<UUID, ImmutableTask> tasks = new LinkedHashMap<>();
+
+    /**
+     * A read-only view of the stored tasks which is handed out by {@link #getTaskViews()}.
+     */
+    private final Collection<ImmutableTask> taskViews = Collections.unmodifiableCollection(tasks.values());
+
+    /**
+     * A secondary index of the tasks sorted by their due date. Tasks sharing a due date
+     * are kept in insertion order. Range queries walk only the matching part of the index.
+     */
+    private final NavigableMap<LocalDateTime, Map<UUID, ImmutableTask>> tasksByDueDate = new TreeMap<>();
 
     /**
      * Creates a new To-do object with the provided list of tasks.
@@ -29,14 +53,18 @@ public class Todo {
         if (tasks == null) {
             throw new IllegalArgumentException("Task should not be null!");
         }
-        this.tasks = new ArrayList<>(tasks);
+
+        for (Task task : tasks) {
+            if (!this.tasks.containsKey(task.getId())) {
+                putTask(new ImmutableTask(task));
+            }
+        }
     }
 
     /**
      * Creates a new empty To-do object.
      */
     public Todo() {
-        this.tasks = new ArrayList<>();
     }
 
     /**
@@ -50,9 +78,27 @@ public class Todo {
                 "Task should not be null!"
         );
 
-        if (tasks.stream().anyMatch(e -> e.getId().equals(task.getId()))) return;
+        if (tasks.containsKey(task.getId())) return;
+
+        putTask(new ImmutableTask(task));
+    }
+
+    /**
+     * Restores a stored ImmutableTask object into the To-do list without copying it.
+     * If a task with the same id already exists, no change is made.
+     * Unlike added Task objects, restored tasks may have a due date in the past.
+     *
+     * @param task The ImmutableTask object to be restored. (must not be null)
+     * @throws IllegalArgumentException if the provided task is null.
+     */
+    public void restoreTask(ImmutableTask task) {
+        if (task == null) throw new IllegalArgumentException(
+                "Task should not be null!"
+        );
+
+        if (tasks.containsKey(task.getId())) return;
 
-        tasks.add(new Task(task));
+        putTask(task);
     }
 
     /**
@@ -61,15 +107,28 @@ public class Todo {
      * @return A new List object containing copies of the tasks in the To-do list.
      */
     public List<Task> getTasks() {
-        List<Task> tasksCopy = new ArrayList<>();
+        List<Task> tasksCopy = new ArrayList<>(tasks.size());
 
-        for (Task task : tasks) {
+        for (ImmutableTask task : tasks.values()) {
             tasksCopy.add(new Task(task));
         }
 
         return tasksCopy;
     }
 
+    /**
+     * Returns a read-only view of the tasks in the To-do list in insertion order.
+     * <p>
+     * Unlike {@link #getTasks()} this allocates nothing per task. The view reflects later
+     * changes to the To-do list and must not be iterated while the To-do list is modified.
+     * </p>
+     *
+     * @return An unmodifiable Collection of the tasks in the To-do list.
+     */
+    public Collection<ImmutableTask> getTaskViews() {
+        return taskViews;
+    }
+
     /**
      * Sets the list of tasks in the To-do list.
      *
@@ -77,7 +136,7 @@ public class Todo {
      * @throws IllegalArgumentException if the provided list is null or empty, or if the current list is already equal to the provided list.
      */
     public void setTasks(List<Task> tasks) {
-        if (tasks == null || (this.tasks.equals(tasks) && !tasks.isEmpty())) {
+        if (tasks == null || (containsSameTasks(tasks) && !tasks.isEmpty())) {
             return;
         }
 
@@ -85,9 +144,12 @@ public class Todo {
             throw new IllegalArgumentException("Tasks should not be empty!");
         }
 
-        this.tasks = new ArrayList<>();
+        this.tasks.clear();
+        this.tasksByDueDate.clear();
         for (Task task : tasks) {
-            this.tasks.add(new Task(task));
+            if (!this.tasks.containsKey(task.getId())) {
+                putTask(new ImmutableTask(task));
+            }
         }
     }
 
@@ -104,14 +166,23 @@ public class Todo {
             throw new IllegalArgumentException("Id should not be null!");
         }
 
-        return tasks
-                .stream()
-                .filter(e -> e.getId().equals(id))
-                .findFirst()
-                .map(Task::new)
-                .orElseThrow(() ->
-                        new NoSuchElementException("No task found with ID:" + id)
-                );
+        return new Task(getTaskView(id));
+    }
+
+    /**
+     * Retrieves a specific task from the To-do list based on its unique identifier without copying it.
+     *
+     * @param id The UUID of the task to be retrieved. (must not be null)
+     * @return The ImmutableTask object matching the provided id.
+     * @throws IllegalArgumentException if the provided id is null.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    public ImmutableTask getTaskView(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        return findTask(id);
     }
 
     /**
@@ -125,16 +196,16 @@ public class Todo {
             throw new IllegalArgumentException("Updated Task should not be null!");
         }
 
-        Task task = getTask(updatedTask.getId());
+        ImmutableTask task = findTask(updatedTask.getId());
+        ImmutableTask updatedTaskCopy = new ImmutableTask(updatedTask);
 
-        if (task.equals(updatedTask)) {
+        if (task.equals(updatedTaskCopy)) {
             return;
         }
 
-        Task updatedTaskCopy = new Task(updatedTask);
-        int indexOfTask = tasks.indexOf(task);
-
-        tasks.set(indexOfTask, updatedTaskCopy);
+        unindexDueDate(task);
+        // Replacing the value of an existing key keeps its position in the insertion order.
+        putTask(updatedTaskCopy);
     }
 
     /**
@@ -149,8 +220,278 @@ public class Todo {
                 "TaskId should not be null!"
         );
 
-        Task task = getTask(taskId);
+        ImmutableTask task = tasks.remove(taskId);
+
+        if (task == null) {
+            throw new NoSuchElementException("No task found with ID:" + taskId);
+        }
+
+        unindexDueDate(task);
+    }
+
+    /**
+     * Adds a batch of Task objects to the To-do list in a single pass.
+     * Tasks whose id already exists in the list or earlier in the batch are skipped.
+     *
+     * @param newTasks The Task objects to be added. (must not be null or contain null)
+     * @return The BatchResult listing the added and skipped task ids.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is added.
+     */
+    public BatchResult addTasks(Collection<Task> newTasks) {
+        validateBatch(newTasks, "Tasks");
+
+        BatchResult result = new BatchResult();
+
+        for (Task task : newTasks) {
+            if (tasks.containsKey(task.getId())) {
+                result.addSkipped(task.getId());
+                continue;
+            }
+
+            putTask(new ImmutableTask(task));
+            result.addApplied(task.getId());
+        }
+
+        return result;
+    }
+
+    /**
+     * Updates a batch of existing Task objects in the To-do list in a single pass.
+     * Unchanged tasks and tasks whose id appeared earlier in the batch are skipped,
+     * tasks which do not exist in the list are reported as missing.
+     *
+     * @param updatedTasks The Task objects containing the updated information. (must not be null or contain null)
+     * @return The BatchResult listing the updated, skipped and missing task ids.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is updated.
+     */
+    public BatchResult updateTasks(Collection<Task> updatedTasks) {
+        validateBatch(updatedTasks, "Updated Tasks");
+
+        BatchResult result = new BatchResult();
+        Set<UUID> seen = new HashSet<>();
+
+        for (Task updatedTask : updatedTasks) {
+            UUID id = updatedTask.getId();
+
+            if (!seen.add(id)) {
+                result.addSkipped(id);
+                continue;
+            }
+
+            ImmutableTask task = tasks.get(id);
+
+            if (task == null) {
+                result.addMissing(id);
+                continue;
+            }
+
+            ImmutableTask updatedTaskCopy = new ImmutableTask(updatedTask);
+
+            if (task.equals(updatedTaskCopy)) {
+                result.addSkipped(id);
+                continue;
+            }
+
+            unindexDueDate(task);
+            putTask(updatedTaskCopy);
+            result.addApplied(id);
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes a batch of tasks from the To-do list in a single pass.
+     * Ids which appeared earlier in the batch are skipped, ids without a task are reported as missing.
+     *
+     * @param taskIds The UUIDs of the tasks to be removed. (must not be null or contain null)
+     * @return The BatchResult listing the removed, skipped and missing task ids.
+     * @throws IllegalArgumentException if the batch is null or contains null, in which case nothing is removed.
+     */
+    public BatchResult deleteTasks(Collection<UUID> taskIds) {
+        validateBatch(taskIds, "TaskIds");
+
+        BatchResult result = new BatchResult();
+        Set<UUID> seen = new HashSet<>();
+
+        for (UUID taskId : taskIds) {
+            if (!seen.add(taskId)) {
+                result.addSkipped(taskId);
+                continue;
+            }
+
+            ImmutableTask task = tasks.remove(taskId);
+
+            if (task == null) {
+                result.addMissing(taskId);
+                continue;
+            }
+
+            unindexDueDate(task);
+            result.addApplied(taskId);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns copies of all tasks due within the given range, ordered by due date.
+     *
+     * @param from The start of the range, inclusive. (must not be null)
+     * @param to The end of the range, inclusive. (must not be null or before from)
+     * @return A new List containing copies of the matching tasks.
+     * @throws IllegalArgumentException if from or to is null or if to is before from.
+     */
+    public List<Task> getTasksDueBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range should not be null!");
+        }
+
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End of range should not be before its start!");
+        }
+
+        return copyTasks(tasksByDueDate.subMap(from, true, to, true), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns copies of all tasks whose due date lies before the given point in time, ordered by due date.
+     *
+     * @param now The point in time to compare the due dates with. (must not be null)
+     * @return A new List containing copies of the overdue tasks.
+     * @throws IllegalArgumentException if now is null.
+     */
+    public List<Task> getOverdueTasks(LocalDateTime now) {
+        if (now == null) {
+            throw new IllegalArgumentException("Now should not be null!");
+        }
+
+        return copyTasks(tasksByDueDate.headMap(now, false), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns copies of the next tasks that are due at or after the given point in time, ordered by due date.
+     *
+     * @param now The point in time to start from. (must not be null)
+     * @param count The maximum number of tasks to return. (must not be negative)
+     * @return A new List containing copies of at most count tasks.
+     * @throws IllegalArgumentException if now is null or count is negative.
+     */
+    public List<Task> getNextDueTasks(LocalDateTime now, int count) {
+        if (now == null) {
+            throw new IllegalArgumentException("Now should not be null!");
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Count should not be negative!");
+        }
+
+        return copyTasks(tasksByDueDate.tailMap(now, true), count);
+    }
+
+    /**
+     * Looks up the internal task for the given id.
+     *
+     * @param id The UUID of the task to be retrieved.
+     * @return The internal ImmutableTask object matching the provided id.
+     * @throws NoSuchElementException if no task is found with the provided id.
+     */
+    private ImmutableTask findTask(UUID id) {
+        ImmutableTask task = tasks.get(id);
+
+        if (task == null) {
+            throw new NoSuchElementException("No task found with ID:" + id);
+        }
+
+        return task;
+    }
+
+    /**
+     * Stores the given task in the id index and the due date index.
+     *
+     * @param task The internal ImmutableTask object to be stored.
+     */
+    private void putTask(ImmutableTask task) {
+        tasks.put(task.getId(), task);
+        tasksByDueDate
+                .computeIfAbsent(task.getDueDate(), dueDate -> new LinkedHashMap<>())
+                .put(task.getId(), task);
+    }
+
+    /**
+     * Removes the given task from the due date index.
+     *
+     * @param task The internal ImmutableTask object to be removed.
+     */
+    private void unindexDueDate(ImmutableTask task) {
+        Map<UUID, ImmutableTask> sameDueDate = tasksByDueDate.get(task.getDueDate());
+        sameDueDate.remove(task.getId());
+
+        if (sameDueDate.isEmpty()) {
+            tasksByDueDate.remove(task.getDueDate());
+        }
+    }
+
+    /**
+     * Copies at most limit tasks out of the given part of the due date index.
+     *
+     * @param range The part of the due date index to copy the tasks from.
+     * @param limit The maximum number of tasks to copy.
+     * @return A new List containing copies of the tasks in due date order.
+     */
+    private static List<Task> copyTasks(NavigableMap<LocalDateTime, Map<UUID, ImmutableTask>> range, int limit) {
+        List<Task> tasksCopy = new ArrayList<>();
+
+        for (Map<UUID, ImmutableTask> sameDueDate : range.values()) {
+            for (ImmutableTask task : sameDueDate.values()) {
+                if (tasksCopy.size() == limit) {
+                    return tasksCopy;
+                }
+
+                tasksCopy.add(new Task(task));
+            }
+        }
+
+        return tasksCopy;
+    }
+
+    /**
+     * Validates that a batch and all of its elements are not null.
+     *
+     * @param batch The batch to validate.
+     * @param batchName The name of the batch, used in error messages.
+     * @throws IllegalArgumentException if the batch is null or contains null.
+     */
+    private static void validateBatch(Collection<?> batch, String batchName) {
+        if (batch == null) {
+            throw new IllegalArgumentException(batchName + " should not be null!");
+        }
+
+        for (Object element : batch) {
+            if (element == null) {
+                throw new IllegalArgumentException(batchName + " should not contain null!");
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given list contains exactly the tasks of the To-do list in the same order.
+     *
+     * @param other The list of tasks to compare with.
+     * @return true if both contain equal tasks in the same order, false otherwise.
+     */
+    private boolean containsSameTasks(List<Task> other) {
+        if (other.size() != tasks.size()) {
+            return false;
+        }
+
+        Iterator<Task> iterator = other.iterator();
+        for (ImmutableTask task : tasks.values()) {
+            if (!task.equals(new ImmutableTask(iterator.next()))) {
+                return false;
+            }
+        }
 
-        tasks.remove(task);
+        return true;
     }
 }
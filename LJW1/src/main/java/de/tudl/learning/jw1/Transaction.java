@@ -7,19 +7,26 @@ public class Transaction {
     private final UUID id;
     private final BankAccount sender;
     private final BankAccount receiver;
-    private final double amount;
+    // The amount is kept in whole cents, see Money.
+    private final long amountCents;
 
     public Transaction(BankAccount sender, BankAccount receiver, double amount)
     {
-        this.id = UUID.randomUUID();
+        // Amounts below half a cent round to 0 and are rejected like 0.
+        this(sender, receiver, Money.toCents(amount), UUID.randomUUID());
+    }
+
+    private Transaction(BankAccount sender, BankAccount receiver, long amountCents, UUID id)
+    {
+        this.id = id;
 
         validateBankAccount(sender, "Sender");
         validateBankAccount(receiver, "Receiver");
-        validateAmount(amount);
+        validateAmount(amountCents);
 
         this.sender = sender;
         this.receiver = receiver;
-        this.amount = amount;
+        this.amountCents = amountCents;
     }
 
     public Transaction(Transaction original)
@@ -27,7 +34,21 @@ public class Transaction {
         this.id = original.id;
         this.sender = original.sender;
         this.receiver = original.receiver;
-        this.amount = original.amount;
+        this.amountCents = original.amountCents;
+    }
+
+    /**
+     * Creates a transaction of an amount in cents.
+     *
+     * @param sender      The account to debit.
+     * @param receiver    The account to credit.
+     * @param amountCents The amount in cents.
+     * @return The new transaction.
+     * @throws IllegalArgumentException if an account is null or the amount is not positive.
+     */
+    public static Transaction ofCents(BankAccount sender, BankAccount receiver, long amountCents)
+    {
+        return new Transaction(sender, receiver, amountCents, UUID.randomUUID());
     }
 
     public UUID getId() {
@@ -43,7 +64,11 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toAmount(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
     }
 
     private void validateBankAccount(BankAccount field, String fieldName) {
@@ -51,7 +76,7 @@ public class Transaction {
             throw new IllegalArgumentException(fieldName + "should not be null!");
     }
 
-    private void validateAmount(double amount) {
+    private void validateAmount(long amount) {
         if (amount < 0)
             throw new IllegalArgumentException("Amount should not be negative!");
 
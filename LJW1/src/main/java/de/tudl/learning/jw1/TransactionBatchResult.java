@@ -0,0 +1,86 @@
+package de.tudl.learning.jw1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This class represents the outcome of a batch of transactions executed by a {@link Ledger}.
+ * <p>
+ * Every transaction of the batch is either executed or rejected. A rejected transaction did not change any
+ * account and is reported with the reason, the same message {@link Ledger#execute(Transaction)} would throw.
+ * A transaction given more than once is executed at most once, its repetitions are rejected. If a transaction
+ * is rejected more than once, the first reason is kept.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TransactionBatchResult {
+
+    /**
+     * The ids of the executed transactions.
+     */
+    private final List<UUID> executed = new ArrayList<>();
+
+    /**
+     * The reasons of the rejected transactions by their id.
+     */
+    private final Map<UUID, String> rejected = new LinkedHashMap<>();
+
+    /**
+     * Creates a new empty batch result. Only the ledger fills batch results.
+     */
+    TransactionBatchResult() {
+    }
+
+    /**
+     * Records that the transaction with the given id was executed.
+     *
+     * @param id The UUID of the transaction.
+     */
+    void addExecuted(UUID id) {
+        executed.add(id);
+    }
+
+    /**
+     * Records that the transaction with the given id was rejected.
+     *
+     * @param id     The UUID of the transaction.
+     * @param reason Why the transaction was rejected.
+     */
+    void addRejected(UUID id, String reason) {
+        rejected.putIfAbsent(id, reason);
+    }
+
+    /**
+     * Returns the ids of the executed transactions, in batch order.
+     *
+     * @return An unmodifiable List of transaction ids.
+     */
+    public List<UUID> getExecuted() {
+        return Collections.unmodifiableList(executed);
+    }
+
+    /**
+     * Returns the rejected transactions with the reason of their rejection, in batch order.
+     *
+     * @return An unmodifiable Map from transaction id to reason.
+     */
+    public Map<UUID, String> getRejected() {
+        return Collections.unmodifiableMap(rejected);
+    }
+
+    /**
+     * Indicates whether every transaction of the batch was executed.
+     *
+     * @return true if no transaction was rejected, false otherwise.
+     */
+    public boolean isComplete() {
+        return rejected.isEmpty();
+    }
+}
@@ -0,0 +1,130 @@
+package de.tudl.learning.jw1;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * This class numbers UUIDs densely in the order they are first seen.
+ * <p>
+ * The two halves of every UUID are kept in primitive arrays and found again by open addressing with linear
+ * probing, so looking up or adding an id allocates nothing. The dense numbers can then index plain arrays,
+ * e.g. the balances of the accounts of a {@link Ledger#executeBatch(java.util.Collection) batch}.
+ * </p>
+ *
+ * @author Florian Liehr
+ * @version 1.0
+ * @since 1.0
+ */
+final class UuidIndex {
+
+    /**
+     * The dense number plus one of the id in every slot, 0 for an empty slot.
+     */
+    private int[] slots;
+
+    /**
+     * The halves of the ids by their dense number.
+     */
+    private long[] mostSignificantBits;
+    private long[] leastSignificantBits;
+
+    private int size;
+
+    /**
+     * Creates an index for the given number of ids. It grows if more are added.
+     *
+     * @param expectedSize The expected number of ids.
+     */
+    UuidIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+
+        slots = new int[capacity];
+        mostSignificantBits = new long[capacity / 2];
+        leastSignificantBits = new long[capacity / 2];
+    }
+
+    /**
+     * Returns the number of the id, numbering it first if it was not seen before.
+     *
+     * @param id The id. (must not be null)
+     * @return The number of the id, {@link #size()} - 1 if it is new.
+     */
+    int add(UUID id) {
+        return add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the number of the id with the given halves, numbering it first if it was not seen before.
+     *
+     * @param most The most significant bits of the id.
+     * @param least The least significant bits of the id.
+     * @return The number of the id, {@link #size()} - 1 if it is new.
+     */
+    int add(long most, long least) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash(most, least) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+
+            if (index < 0) {
+                if (size == mostSignificantBits.length) {
+                    grow();
+                    return add(most, least);
+                }
+
+                mostSignificantBits[size] = most;
+                leastSignificantBits[size] = least;
+                slots[slot] = ++size;
+                return size - 1;
+            }
+
+            if (mostSignificantBits[index] == most && leastSignificantBits[index] == least) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Returns the id with the given number.
+     *
+     * @param index The number of the id, less than {@link #size()}.
+     * @return The id.
+     */
+    UUID get(int index) {
+        return new UUID(mostSignificantBits[index], leastSignificantBits[index]);
+    }
+
+    /**
+     * Returns the number of ids.
+     *
+     * @return The number of ids.
+     */
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        int mask = capacity - 1;
+
+        slots = new int[capacity];
+        mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity / 2);
+        leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity / 2);
+
+        for (int index = 0; index < size; index++) {
+            int slot = hash(mostSignificantBits[index], leastSignificantBits[index]) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = index + 1;
+        }
+    }
+
+    private static int hash(long most, long least) {
+        // Random UUIDs are well mixed already, the multiplication only spreads ids of other versions.
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,140 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.AccountStore;
+import de.tudl.learning.jw1.BankAccount;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Measures the heap footprint and the garbage collection cost of holding many accounts, once as
+ * {@link BankAccount} objects in a {@link HashMap} and once in an {@link AccountStore}.
+ *
+ * <p>For both it reports the used heap and direct memory, the time of a full collection, which has to trace
+ * every live object, and the time spent in collections while short-lived garbage is allocated next to the
+ * accounts. The number of these collections depends on how far the heap has grown, the time per collection
+ * is comparable. This is not a JMH benchmark, as JMH measures the time of operations rather than the heap.
+ *
+ * <p>The saving of the store depends on how many accounts share a holder, because the holders stay on the
+ * heap. The second argument sets the number of distinct holders, by default 100,000. If it is at least the
+ * number of accounts, every account gets a holder of its own.
+ *
+ * <p>Run it with a heap large enough for the map, e.g. for the default of 10,000,000 accounts with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-Xmx4g -XX:+UseG1GC -classpath %classpath de.tudl.learning.jw1.benchmark.AccountStoreFootprint 10000000 100000"}.
+ */
+public class AccountStoreFootprint {
+
+    /**
+     * The amount of short-lived garbage allocated while the accounts are alive.
+     */
+    private static final long GARBAGE_BYTES = 8L << 30;
+
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int holderCount = Math.min(accounts, args.length > 1 ? Integer.parseInt(args[1]) : 100_000);
+        // Holders of their own are created with their account, so they are only kept alive by it.
+        AccountHolder[] holders = new AccountHolder[holderCount < accounts ? holderCount : 0];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new AccountHolder();
+        }
+
+        long baseline = usedHeap();
+        System.out.printf("%,d accounts of %,d holders%n", accounts, holderCount);
+
+        Map<UUID, BankAccount> map = new HashMap<>();
+        for (int i = 0; i < accounts; i++) {
+            BankAccount account = BankAccount.ofCents(UUID.randomUUID(), i, holder(holders, i));
+            map.put(account.getId(), account);
+        }
+        report("HashMap<UUID, BankAccount>", baseline, accounts);
+        map = null;
+
+        AccountStore store = new AccountStore(accounts);
+        for (int i = 0; i < accounts; i++) {
+            store.add(BankAccount.ofCents(UUID.randomUUID(), i, holder(holders, i)));
+        }
+        report("AccountStore", baseline, accounts);
+        System.out.printf("%,d accounts of %,d holders stored%n", store.size(), store.getHolderCount());
+    }
+
+    private static AccountHolder holder(AccountHolder[] holders, int account) {
+        return holders.length == 0 ? new AccountHolder() : holders[account % holders.length];
+    }
+
+    private static void report(String name, long baseline, int accounts) {
+        long heap = usedHeap() - baseline;
+
+        long fullGcStart = gcMillis();
+        System.gc();
+        long fullGc = gcMillis() - fullGcStart;
+
+        long churnGcStart = gcMillis();
+        long churnCountStart = gcCount();
+        // The ring keeps the garbage alive briefly, so it is really allocated.
+        Object[] ring = new Object[1024];
+        for (long allocated = 0, i = 0; allocated < GARBAGE_BYTES; allocated += 1024, i++) {
+            ring[(int) (i & 1023)] = new byte[1024];
+        }
+        long churnGc = gcMillis() - churnGcStart;
+        long churnCount = gcCount() - churnCountStart;
+
+        System.out.printf(
+                "%-26s heap %,6d MB (%,4d B/account), direct %,5d MB, full GC %,5d ms, churn GC %,5d ms in %,d collections "
+                        + "(%.1f ms each)%n",
+                name,
+                heap >> 20,
+                heap / accounts,
+                directMemory() >> 20,
+                fullGc,
+                churnGc,
+                churnCount,
+                churnGc / (double) Math.max(1, churnCount)
+        );
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directMemory() {
+        long used = 0;
+
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+
+        return used;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += collector.getCollectionTime();
+        }
+
+        return millis;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += collector.getCollectionCount();
+        }
+
+        return count;
+    }
+}
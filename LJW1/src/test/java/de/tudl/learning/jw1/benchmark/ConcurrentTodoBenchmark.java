@@ -0,0 +1,135 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.ConcurrentTodo;
+import de.tudl.learning.jw1.ImmutableTask;
+import de.tudl.learning.jw1.Task;
+import de.tudl.learning.jw1.Todo;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of {@link ConcurrentTodo} with a {@link Todo} guarded by a single lock
+ * for a mixed workload of lookups and updates on random tasks.
+ *
+ * <p>The main method runs the benchmark with 1, 2, 4, 8, 16 and 32 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentTodoBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    /**
+     * The share of updates in the workload, in percent.
+     */
+    @Param({"10", "50"})
+    private int writePercent;
+
+    private ConcurrentTodo concurrentTodo;
+    private SynchronizedTodo synchronizedTodo;
+    private UUID[] ids;
+
+    @Setup
+    public void setUp() {
+        concurrentTodo = new ConcurrentTodo();
+        synchronizedTodo = new SynchronizedTodo(new Todo());
+        ids = new UUID[SIZE];
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < SIZE; i++) {
+            Task task = new Task(UUID.randomUUID(), "Task " + i, "Description " + i, dueDate.plusMinutes(i));
+            ids[i] = task.getId();
+            concurrentTodo.addTask(task);
+            synchronizedTodo.addTask(task);
+        }
+    }
+
+    @Benchmark
+    public Object concurrentTodo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID id = ids[random.nextInt(SIZE)];
+
+        if (random.nextInt(100) >= writePercent) {
+            return concurrentTodo.getTaskView(id);
+        }
+
+        Task task = concurrentTodo.getTask(id);
+        task.setTitle("Updated " + random.nextInt());
+        concurrentTodo.updateTask(task);
+        return task;
+    }
+
+    @Benchmark
+    public Object synchronizedTodo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID id = ids[random.nextInt(SIZE)];
+
+        if (random.nextInt(100) >= writePercent) {
+            return synchronizedTodo.getTaskView(id);
+        }
+
+        Task task = synchronizedTodo.getTask(id);
+        task.setTitle("Updated " + random.nextInt());
+        synchronizedTodo.updateTask(task);
+        return task;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32}) {
+            new Runner(
+                    new OptionsBuilder()
+                            .include(ConcurrentTodoBenchmark.class.getSimpleName())
+                            .threads(threads)
+                            .build()
+            ).run();
+        }
+    }
+
+    /**
+     * A To-do list which serializes every call through one lock.
+     */
+    private static final class SynchronizedTodo {
+
+        private final Todo todo;
+
+        SynchronizedTodo(Todo todo) {
+            this.todo = todo;
+        }
+
+        synchronized void addTask(Task task) {
+            todo.addTask(task);
+        }
+
+        synchronized Task getTask(UUID id) {
+            return todo.getTask(id);
+        }
+
+        synchronized ImmutableTask getTaskView(UUID id) {
+            return todo.getTaskView(id);
+        }
+
+        synchronized void updateTask(Task task) {
+            todo.updateTask(task);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.BankAccount;
+import de.tudl.learning.jw1.DurableLedger;
+import de.tudl.learning.jw1.Transaction;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how long a {@link DurableLedger} takes to start from a journal of 1,000,000 transactions between
+ * 10,000 accounts, once replaying the whole journal and once from a snapshot taken at its end.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.jw1.benchmark.DurableLedgerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurableLedgerBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int TRANSACTIONS = 1_000_000;
+    private static final int BATCH_SIZE = 10_000;
+
+    /**
+     * Whether a snapshot was taken after the last transaction.
+     */
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    private Path directory;
+    private Path journalFile;
+    private Path snapshotFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-benchmark");
+        journalFile = directory.resolve("ledger.journal");
+        snapshotFile = directory.resolve("ledger.snapshot");
+        Random random = new Random(42);
+
+        try (DurableLedger ledger = new DurableLedger(journalFile, snapshotFile, 0)) {
+            BankAccount[] accounts = new BankAccount[ACCOUNTS];
+            AccountHolder holder = new AccountHolder();
+
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accounts[i] = BankAccount.ofCents(UUID.randomUUID(), 1_000_000_000L, holder);
+                ledger.openAccount(accounts[i]);
+            }
+
+            for (int i = 0; i < TRANSACTIONS; i += BATCH_SIZE) {
+                List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+                for (int j = 0; j < BATCH_SIZE; j++) {
+                    int sender = random.nextInt(ACCOUNTS);
+                    int receiver = (sender + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    batch.add(Transaction.ofCents(accounts[sender], accounts[receiver], 1 + random.nextInt(10_000)));
+                }
+                ledger.executeBatch(batch);
+            }
+
+            if (snapshot) {
+                ledger.snapshot();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long open() throws IOException {
+        try (DurableLedger ledger = new DurableLedger(journalFile, snapshotFile, 0)) {
+            return ledger.getTotalBalanceCents();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DurableLedgerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
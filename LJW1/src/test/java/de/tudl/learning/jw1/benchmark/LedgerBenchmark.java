@@ -0,0 +1,100 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.BankAccount;
+import de.tudl.learning.jw1.Ledger;
+import de.tudl.learning.jw1.Transaction;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the transfer throughput of {@link Ledger} and its per-account locks with the same ledger
+ * serialized by one global lock, between random pairs of accounts.
+ *
+ * <p>With few accounts most transfers touch the same accounts and contend anyway, with many accounts
+ * the per-account locks let transfers run in parallel. The main method runs the benchmark with
+ * 1, 2, 4, 8, 16 and 32 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerBenchmark {
+
+    /**
+     * The number of accounts the transfers are spread over.
+     */
+    @Param({"4", "10000"})
+    private int accounts;
+
+    private Ledger ledger;
+    private Ledger globallyLockedLedger;
+    private BankAccount[] bankAccounts;
+
+    @Setup
+    public void setUp() {
+        ledger = new Ledger();
+        globallyLockedLedger = new Ledger();
+        bankAccounts = new BankAccount[accounts];
+
+        for (int i = 0; i < accounts; i++) {
+            bankAccounts[i] = new BankAccount(UUID.randomUUID(), 1e12, new AccountHolder());
+            ledger.openAccount(bankAccounts[i]);
+            globallyLockedLedger.openAccount(bankAccounts[i]);
+        }
+    }
+
+    @Benchmark
+    public Transaction perAccountLocks() {
+        Transaction transaction = randomTransaction();
+        ledger.execute(transaction);
+        return transaction;
+    }
+
+    @Benchmark
+    public Transaction globalLock() {
+        Transaction transaction = randomTransaction();
+
+        synchronized (globallyLockedLedger) {
+            globallyLockedLedger.execute(transaction);
+        }
+
+        return transaction;
+    }
+
+    private Transaction randomTransaction() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(accounts);
+        int receiver = (sender + 1 + random.nextInt(accounts - 1)) % accounts;
+
+        return new Transaction(bankAccounts[sender], bankAccounts[receiver], 1 + random.nextInt(100));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32}) {
+            new Runner(
+                    new OptionsBuilder()
+                            .include(LedgerBenchmark.class.getSimpleName())
+                            .threads(threads)
+                            .build()
+            ).run();
+        }
+    }
+}
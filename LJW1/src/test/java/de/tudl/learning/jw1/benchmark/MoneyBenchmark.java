@@ -0,0 +1,113 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.Money;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares applying the same transfers to balances held as {@code double}, as {@code long} cents with
+ * {@link Money} and as {@link BigDecimal}.
+ *
+ * <p>Every transfer debits one balance and credits another, like a ledger does. The cents are exact and
+ * allocation free like the doubles, the doubles drift by fractions of a cent and {@link BigDecimal}
+ * allocates a new object for every operation.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.jw1.benchmark.MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"100000"})
+    private int transfers;
+
+    private int[] senders;
+    private int[] receivers;
+    private long[] amountsCents;
+    private double[] amounts;
+    private BigDecimal[] decimalAmounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        senders = new int[transfers];
+        receivers = new int[transfers];
+        amountsCents = new long[transfers];
+        amounts = new double[transfers];
+        decimalAmounts = new BigDecimal[transfers];
+
+        for (int i = 0; i < transfers; i++) {
+            senders[i] = random.nextInt(ACCOUNTS);
+            receivers[i] = random.nextInt(ACCOUNTS);
+            amountsCents[i] = 1 + random.nextInt(100_000);
+            amounts[i] = Money.toAmount(amountsCents[i]);
+            decimalAmounts[i] = BigDecimal.valueOf(amountsCents[i], 2);
+        }
+    }
+
+    @Benchmark
+    public double[] doubleBalances() {
+        double[] balances = new double[ACCOUNTS];
+
+        for (int i = 0; i < transfers; i++) {
+            balances[senders[i]] -= amounts[i];
+            balances[receivers[i]] += amounts[i];
+        }
+
+        return balances;
+    }
+
+    @Benchmark
+    public long[] centBalances() {
+        long[] balances = new long[ACCOUNTS];
+
+        for (int i = 0; i < transfers; i++) {
+            balances[senders[i]] = Money.subtract(balances[senders[i]], amountsCents[i]);
+            balances[receivers[i]] = Money.add(balances[receivers[i]], amountsCents[i]);
+        }
+
+        return balances;
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalBalances() {
+        BigDecimal[] balances = new BigDecimal[ACCOUNTS];
+        Arrays.fill(balances, BigDecimal.ZERO.setScale(2));
+
+        for (int i = 0; i < transfers; i++) {
+            balances[senders[i]] = balances[senders[i]].subtract(decimalAmounts[i]);
+            balances[receivers[i]] = balances[receivers[i]].add(decimalAmounts[i]);
+        }
+
+        return balances;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
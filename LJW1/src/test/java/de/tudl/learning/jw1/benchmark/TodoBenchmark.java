@@ -0,0 +1,167 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.Task;
+import de.tudl.learning.jw1.Todo;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the UUID indexed {@link Todo} with the former list based implementation
+ * for lookups, updates, deletions and duplicate checks on growing task lists.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.jw1.benchmark.TodoBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TodoBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private Todo indexedTodo;
+    private ListTodo listTodo;
+    private UUID[] ids;
+
+    @Setup
+    public void setUp() {
+        List<Task> tasks = new ArrayList<>(size);
+        ids = new UUID[size];
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < size; i++) {
+            Task task = new Task(UUID.randomUUID(), "Task " + i, "Description " + i, dueDate);
+            ids[i] = task.getId();
+            tasks.add(task);
+        }
+
+        indexedTodo = new Todo(tasks);
+        listTodo = new ListTodo(tasks);
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(size)];
+    }
+
+    @Benchmark
+    public Task indexedGetTask() {
+        return indexedTodo.getTask(randomId());
+    }
+
+    @Benchmark
+    public Task listGetTask() {
+        return listTodo.getTask(randomId());
+    }
+
+    @Benchmark
+    public void indexedUpdateTask() {
+        Task task = indexedTodo.getTask(randomId());
+        task.setTitle("Updated " + System.nanoTime());
+        indexedTodo.updateTask(task);
+    }
+
+    @Benchmark
+    public void listUpdateTask() {
+        Task task = listTodo.getTask(randomId());
+        task.setTitle("Updated " + System.nanoTime());
+        listTodo.updateTask(task);
+    }
+
+    @Benchmark
+    public void indexedDeleteAndAddTask() {
+        Task task = indexedTodo.getTask(randomId());
+        indexedTodo.deleteTask(task.getId());
+        indexedTodo.addTask(task);
+    }
+
+    @Benchmark
+    public void listDeleteAndAddTask() {
+        Task task = listTodo.getTask(randomId());
+        listTodo.deleteTask(task.getId());
+        listTodo.addTask(task);
+    }
+
+    @Benchmark
+    public void indexedAddDuplicateTask() {
+        indexedTodo.addTask(indexedTodo.getTask(randomId()));
+    }
+
+    @Benchmark
+    public void listAddDuplicateTask() {
+        listTodo.addTask(listTodo.getTask(randomId()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                new OptionsBuilder()
+                        .include(TodoBenchmark.class.getSimpleName())
+                        .build()
+        ).run();
+    }
+
+    /**
+     * The former list based To-do implementation which scans all tasks on every operation.
+     */
+    private static final class ListTodo {
+
+        private final ArrayList<Task> tasks;
+
+        ListTodo(List<Task> tasks) {
+            this.tasks = new ArrayList<>(tasks);
+        }
+
+        void addTask(Task task) {
+            if (tasks.stream().anyMatch(e -> e.getId().equals(task.getId()))) return;
+
+            tasks.add(new Task(task));
+        }
+
+        Task getTask(UUID id) {
+            return tasks
+                    .stream()
+                    .filter(e -> e.getId().equals(id))
+                    .findFirst()
+                    .map(Task::new)
+                    .orElseThrow(() ->
+                            new NoSuchElementException("No task found with ID:" + id)
+                    );
+        }
+
+        void updateTask(Task updatedTask) {
+            Task task = getTask(updatedTask.getId());
+
+            if (task.equals(updatedTask)) {
+                return;
+            }
+
+            tasks.set(tasks.indexOf(task), new Task(updatedTask));
+        }
+
+        void deleteTask(UUID taskId) {
+            tasks.remove(getTask(taskId));
+        }
+    }
+}
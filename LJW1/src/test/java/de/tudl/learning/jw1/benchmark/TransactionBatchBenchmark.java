@@ -0,0 +1,96 @@
+package de.tudl.learning.jw1.benchmark;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.BankAccount;
+import de.tudl.learning.jw1.Ledger;
+import de.tudl.learning.jw1.Transaction;
+import de.tudl.learning.jw1.TransactionBatchResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares executing a batch of transactions with {@link Ledger#executeBatch(java.util.Collection)} with
+ * executing the same transactions one by one with {@link Ledger#execute(Transaction)}.
+ *
+ * <p>With few accounts every account is touched by many transactions of the batch, which the batch nets
+ * into one update per account. With many accounts there is little to net, and sorting and locking every
+ * account of the batch up front costs more than it saves.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.jw1.benchmark.TransactionBatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBatchBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The number of accounts the transactions are spread over.
+     */
+    @Param({"16", "10000"})
+    private int accounts;
+
+    private Ledger ledger;
+    private List<Transaction> batch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        BankAccount[] bankAccounts = new BankAccount[accounts];
+        ledger = new Ledger();
+        batch = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < accounts; i++) {
+            bankAccounts[i] = BankAccount.ofCents(UUID.randomUUID(), 1_000_000_000_000L, new AccountHolder());
+            ledger.openAccount(bankAccounts[i]);
+        }
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int sender = random.nextInt(accounts);
+            int receiver = (sender + 1 + random.nextInt(accounts - 1)) % accounts;
+            batch.add(Transaction.ofCents(bankAccounts[sender], bankAccounts[receiver], 1 + random.nextInt(10_000)));
+        }
+    }
+
+    @Benchmark
+    public Ledger oneByOne() {
+        for (Transaction transaction : batch) {
+            ledger.execute(transaction);
+        }
+
+        return ledger;
+    }
+
+    @Benchmark
+    public TransactionBatchResult batch() {
+        return ledger.executeBatch(batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TransactionBatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,148 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.AccountStore;
+import de.tudl.learning.jw1.BankAccount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AccountStoreTest {
+
+    @Test
+    void testAddAndGet() {
+        AccountStore store = new AccountStore();
+        AccountHolder holder = new AccountHolder();
+        BankAccount account = new BankAccount(UUID.randomUUID(), 42.20, holder);
+
+        store.add(account);
+        BankAccount stored = store.get(account.getId());
+
+        assertEquals(1, store.size());
+        assertTrue(store.contains(account.getId()));
+        assertEquals(account.getId(), stored.getId());
+        assertEquals(4220, stored.getBalanceCents());
+        assertSame(holder, stored.getAccountHolder(), "The holder should be kept by reference!");
+        assertNotSame(account, stored, "Accounts should be created when they are read!");
+    }
+
+    @Test
+    void testInvalidArguments() {
+        AccountStore store = new AccountStore();
+        BankAccount account = new BankAccount();
+        store.add(account);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(null));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new BankAccount(account)), "Do not add an account twice!");
+        assertThrows(IllegalArgumentException.class, () -> store.get(null));
+        assertThrows(IllegalArgumentException.class, () -> new AccountStore(-1));
+        assertThrows(IllegalArgumentException.class, () -> new AccountStore(250_000_000), "Table would exceed an int of bytes");
+        assertThrows(IllegalArgumentException.class, () -> new AccountStore(Integer.MAX_VALUE));
+        assertThrows(NoSuchElementException.class, () -> store.get(UUID.randomUUID()));
+        assertThrows(NoSuchElementException.class, () -> store.update(new BankAccount()));
+        assertFalse(store.contains(UUID.randomUUID()));
+        assertFalse(store.contains(null));
+    }
+
+    @Test
+    void testDepositAndWithdraw() {
+        AccountStore store = new AccountStore();
+        BankAccount account = BankAccount.ofCents(null, 10_000, new AccountHolder());
+        store.add(account);
+
+        assertEquals(15_000, store.depositCents(account.getId(), 5_000));
+        assertEquals(3_000, store.withdrawCents(account.getId(), 12_000));
+        assertThrows(IllegalArgumentException.class, () -> store.withdrawCents(account.getId(), 3_001));
+        assertThrows(IllegalArgumentException.class, () -> store.depositCents(account.getId(), -1));
+        assertThrows(IllegalArgumentException.class, () -> store.withdrawCents(account.getId(), -1));
+        assertEquals(3_000, store.getBalanceCents(account.getId()), "Failed operations should not change the balance!");
+
+        store.withdrawCents(account.getId(), 3_000);
+        store.depositCents(account.getId(), Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> store.depositCents(account.getId(), 1));
+    }
+
+    @Test
+    void testUpdate() {
+        AccountStore store = new AccountStore();
+        BankAccount account = new BankAccount(UUID.randomUUID(), 10.0, new AccountHolder());
+        AccountHolder newHolder = new AccountHolder();
+        store.add(account);
+
+        store.update(account.withBalance(99.99).withAccountHolder(newHolder));
+
+        assertEquals(9_999, store.getBalanceCents(account.getId()));
+        assertSame(newHolder, store.get(account.getId()).getAccountHolder());
+    }
+
+    @Test
+    void testUnusedHoldersAreDropped() {
+        AccountStore store = new AccountStore();
+        AccountHolder shared = new AccountHolder();
+        BankAccount first = BankAccount.ofCents(UUID.randomUUID(), 0, shared);
+        BankAccount second = BankAccount.ofCents(UUID.randomUUID(), 0, shared);
+        store.add(first);
+        store.add(second);
+        assertEquals(1, store.getHolderCount(), "Accounts of the same holder should share it!");
+
+        for (int i = 0; i < 1_000; i++) {
+            store.update(first.withAccountHolder(new AccountHolder()));
+        }
+        assertEquals(2, store.getHolderCount(), "Replaced holders should be dropped!");
+
+        store.update(first.withAccountHolder(shared));
+        assertEquals(1, store.getHolderCount());
+        store.update(second);
+        assertSame(shared, store.get(second.getId()).getAccountHolder(), "Updating to the same holder should keep it!");
+
+        AccountHolder other = new AccountHolder();
+        store.update(second.withAccountHolder(other));
+        assertSame(shared, store.get(first.getId()).getAccountHolder());
+        assertSame(other, store.get(second.getId()).getAccountHolder());
+    }
+
+    @Test
+    void testGrowsBeyondExpectedSize() {
+        AccountStore store = new AccountStore(4);
+        AccountHolder holder = new AccountHolder();
+        List<UUID> ids = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            BankAccount account = BankAccount.ofCents(UUID.randomUUID(), i, holder);
+            store.add(account);
+            ids.add(account.getId());
+        }
+
+        assertEquals(100_000, store.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, store.getBalanceCents(ids.get(i)), "Every account should be found after growing!");
+        }
+        assertEquals(100_000L * 99_999 / 2, store.getTotalBalanceCents());
+    }
+
+    @Test
+    void testForEachInAddOrder() {
+        AccountStore store = new AccountStore();
+        List<BankAccount> added = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            BankAccount account = BankAccount.ofCents(UUID.randomUUID(), i * 100L, new AccountHolder());
+            store.add(account);
+            added.add(account);
+        }
+
+        List<BankAccount> visited = new ArrayList<>();
+        store.forEach(visited::add);
+
+        assertEquals(added.size(), visited.size());
+        for (int i = 0; i < added.size(); i++) {
+            assertEquals(added.get(i).getId(), visited.get(i).getId());
+            assertEquals(added.get(i).getBalanceCents(), visited.get(i).getBalanceCents());
+            assertSame(added.get(i).getAccountHolder(), visited.get(i).getAccountHolder());
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.forEach(null));
+    }
+}
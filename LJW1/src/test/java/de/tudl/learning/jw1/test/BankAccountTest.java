@@ -262,4 +262,37 @@ class BankAccountTest {
 
         assertThrows(IllegalArgumentException.class, () -> original.withdraw(400.0));
     }
+
+    @Test
+    void testBalanceIsKeptInCents()
+    {
+        BankAccount account = new BankAccount();
+
+        for (int i = 0; i < 10; i++) {
+            account = account.deposit(0.1);
+        }
+
+        assertEquals(100, account.getBalanceCents(), "Balance should be exactly 100 cents.");
+        assertEquals(1.0, account.getBalance(), "Balance should be exactly 1.0.");
+    }
+
+    @Test
+    void testCentsMethods()
+    {
+        BankAccount account = BankAccount.ofCents(null, 4220, new AccountHolder());
+
+        assertEquals(42.2, account.getBalance(), "Balance should be converted from cents.");
+        assertEquals(5220, account.depositCents(1000).getBalanceCents(), "Deposit should add the cents.");
+        assertEquals(0, account.withdrawCents(4220).getBalanceCents(), "Withdrawal should subtract the cents.");
+        assertThrows(IllegalArgumentException.class, () -> account.withdrawCents(4221));
+        assertThrows(IllegalArgumentException.class, () -> account.depositCents(-1));
+    }
+
+    @Test
+    void testDepositOverflow()
+    {
+        BankAccount account = BankAccount.ofCents(null, Long.MAX_VALUE, new AccountHolder());
+
+        assertThrows(ArithmeticException.class, () -> account.depositCents(1));
+    }
 }
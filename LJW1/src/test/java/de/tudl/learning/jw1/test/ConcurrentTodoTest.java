@@ -0,0 +1,234 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.BatchResult;
+import de.tudl.learning.jw1.ConcurrentTodo;
+import de.tudl.learning.jw1.ImmutableTask;
+import de.tudl.learning.jw1.Task;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentTodoTest {
+
+    @Test
+    void testConcurrentTodoWithTasksNull() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentTodo(null));
+    }
+
+    @Test
+    void testAddAndGetTask() {
+        ConcurrentTodo todo = new ConcurrentTodo();
+        Task task = new Task();
+
+        todo.addTask(task);
+        todo.addTask(task);
+
+        assertEquals(task, todo.getTask(task.getId()), "Should be the added task!");
+        assertEquals(1, todo.getTasks().size(), "Do not add same task twice!");
+    }
+
+    @Test
+    void testAddTaskWithoutId() {
+        ConcurrentTodo todo = new ConcurrentTodo();
+        Task taskWithoutId = new Task(null, "Title", "Description", LocalDateTime.now().plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> todo.addTask(null));
+        assertThrows(IllegalArgumentException.class, () -> todo.addTask(taskWithoutId));
+    }
+
+    @Test
+    void testGetTasksKeepsInsertionOrder() {
+        Task first = new Task();
+        Task second = new Task();
+        Task third = new Task();
+        ConcurrentTodo todo = new ConcurrentTodo(List.of(first, second, third));
+
+        Task toUpdate = todo.getTask(second.getId());
+        toUpdate.setTitle("Updated Title");
+        todo.updateTask(toUpdate);
+
+        assertEquals(List.of(first, toUpdate, third), todo.getTasks(), "Updated task should keep its position");
+    }
+
+    @Test
+    void testGetTaskViewsIsUnmodifiable() {
+        ConcurrentTodo todo = new ConcurrentTodo(List.of(new Task()));
+
+        assertThrows(UnsupportedOperationException.class, () -> todo.getTaskViews().clear());
+    }
+
+    @Test
+    void testUpdateTaskWithWrongId() {
+        ConcurrentTodo todo = new ConcurrentTodo();
+
+        assertThrows(IllegalArgumentException.class, () -> todo.updateTask(null));
+        assertThrows(NoSuchElementException.class, () -> todo.updateTask(new Task()));
+    }
+
+    @Test
+    void testDeleteTaskTwice() {
+        ConcurrentTodo todo = new ConcurrentTodo();
+        Task task = new Task();
+        todo.addTask(task);
+
+        todo.deleteTask(task.getId());
+
+        assertThrows(NoSuchElementException.class, () -> todo.getTask(task.getId()));
+        assertThrows(NoSuchElementException.class, () -> todo.deleteTask(task.getId()));
+        assertThrows(IllegalArgumentException.class, () -> todo.deleteTask(null));
+    }
+
+    @Test
+    void testSetTasks() {
+        ConcurrentTodo todo = new ConcurrentTodo(List.of(new Task()));
+        List<Task> tasks = List.of(new Task(), new Task());
+
+        todo.setTasks(tasks);
+
+        assertEquals(tasks, todo.getTasks(), "Tasks should be replaced");
+        assertThrows(IllegalArgumentException.class, () -> todo.setTasks(new ArrayList<>()));
+    }
+
+    @Test
+    void testDueDateQueries() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base.plusDays(1));
+        Task third = new Task(UUID.randomUUID(), "Third", "Third Description", base.plusDays(2));
+        ConcurrentTodo todo = new ConcurrentTodo(List.of(third, first, second));
+
+        assertEquals(List.of(first, second), todo.getTasksDueBetween(base, base.plusDays(1)));
+        assertEquals(List.of(first), todo.getOverdueTasks(base.plusDays(1)));
+        assertEquals(List.of(second, third), todo.getNextDueTasks(base.plusDays(1), 5));
+
+        Task toUpdate = todo.getTask(first.getId());
+        toUpdate.setDueDate(base.plusDays(3));
+        todo.updateTask(toUpdate);
+
+        assertEquals(List.of(second, third, toUpdate), todo.getNextDueTasks(base, 5), "Updated due date should be indexed");
+    }
+
+    @Test
+    void testConcurrentMutationsKeepIndexesConsistent() throws Exception {
+        int threads = 8;
+        int tasksPerThread = 2_000;
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        ConcurrentTodo todo = new ConcurrentTodo();
+        Task shared = new Task(UUID.randomUUID(), "Shared", "Shared Description", base);
+        todo.addTask(shared);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Set<UUID>>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                start.await();
+                Set<UUID> kept = new HashSet<>();
+
+                for (int i = 0; i < tasksPerThread; i++) {
+                    Task task = new Task(UUID.randomUUID(), "Task " + i, "Description " + i, base.plusMinutes(i));
+                    todo.addTask(task);
+
+                    task.setDueDate(base.plusMinutes(i + thread));
+                    todo.updateTask(task);
+
+                    Task sharedCopy = todo.getTask(shared.getId());
+                    sharedCopy.setTitle("Shared " + thread + " " + i);
+                    todo.updateTask(sharedCopy);
+
+                    if (i % 2 == 0) {
+                        todo.deleteTask(task.getId());
+                    } else {
+                        kept.add(task.getId());
+                    }
+
+                    // Readers must never fail while writers are running.
+                    if (i % 100 == 0) {
+                        for (ImmutableTask view : todo.getTaskViews()) {
+                            assertNotNull(view.getId());
+                        }
+                    }
+                }
+
+                return kept;
+            }));
+        }
+
+        start.countDown();
+        Set<UUID> expected = new HashSet<>();
+        expected.add(shared.getId());
+        for (Future<Set<UUID>> result : results) {
+            expected.addAll(result.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        Set<UUID> actual = new HashSet<>();
+        for (ImmutableTask view : todo.getTaskViews()) {
+            actual.add(view.getId());
+        }
+
+        assertEquals(expected, actual, "Only the tasks which were not deleted should remain");
+        assertEquals(expected.size(), todo.getTasks().size(), "Insertion order should not contain stale tasks");
+        assertEquals(
+                expected.size(),
+                todo.getTasksDueBetween(base, base.plusDays(2)).size(),
+                "Due date index should not contain stale tasks"
+        );
+        for (UUID id : expected) {
+            assertEquals(id, todo.getTaskView(id).getId());
+        }
+    }
+
+    @Test
+    void testBatchOperations() {
+        Task existing = new Task();
+        ConcurrentTodo todo = new ConcurrentTodo(List.of(existing));
+        Task added = new Task();
+
+        BatchResult addResult = todo.addTasks(List.of(added, existing));
+
+        assertEquals(List.of(added.getId()), addResult.getApplied());
+        assertEquals(List.of(existing.getId()), addResult.getSkipped());
+
+        Task updated = new Task(added);
+        updated.setTitle("Updated Title");
+        Task unknown = new Task();
+
+        BatchResult updateResult = todo.updateTasks(List.of(updated, existing, unknown));
+
+        assertEquals(List.of(added.getId()), updateResult.getApplied());
+        assertEquals(List.of(existing.getId()), updateResult.getSkipped());
+        assertEquals(List.of(unknown.getId()), updateResult.getMissing());
+        assertEquals(List.of(existing, updated), todo.getTasks());
+
+        BatchResult deleteResult = todo.deleteTasks(List.of(existing.getId(), existing.getId(), unknown.getId()));
+
+        assertEquals(List.of(existing.getId()), deleteResult.getApplied());
+        assertEquals(List.of(existing.getId()), deleteResult.getSkipped());
+        assertEquals(List.of(unknown.getId()), deleteResult.getMissing());
+        assertEquals(List.of(updated), todo.getTasks());
+    }
+
+    @Test
+    void testBatchWithTaskWithoutId() {
+        ConcurrentTodo todo = new ConcurrentTodo();
+        Task taskWithoutId = new Task(null, "Title", "Description", LocalDateTime.now().plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> todo.addTasks(List.of(new Task(), taskWithoutId)));
+        assertTrue(todo.getTasks().isEmpty(), "Nothing should be added from an invalid batch");
+    }
+}
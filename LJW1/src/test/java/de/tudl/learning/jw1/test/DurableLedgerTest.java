@@ -0,0 +1,394 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.BankAccount;
+import de.tudl.learning.jw1.DurableLedger;
+import de.tudl.learning.jw1.Transaction;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DurableLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path journalFile;
+    private Path snapshotFile;
+    private DurableLedger ledger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journalFile = directory.resolve("ledger.journal");
+        snapshotFile = directory.resolve("ledger.snapshot");
+        ledger = new DurableLedger(journalFile, snapshotFile, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ledger.close();
+    }
+
+    private DurableLedger reopen(int snapshotInterval) throws IOException {
+        ledger.close();
+        ledger = new DurableLedger(journalFile, snapshotFile, snapshotInterval);
+        return ledger;
+    }
+
+    private BankAccount openAccount(long balanceCents) {
+        BankAccount account = BankAccount.ofCents(UUID.randomUUID(), balanceCents, new AccountHolder());
+        ledger.openAccount(account);
+        return account;
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DurableLedger(null, snapshotFile, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DurableLedger(journalFile, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DurableLedger(journalFile, snapshotFile, -1));
+    }
+
+    @Test
+    void testChangesSurviveReopen() throws IOException {
+        AccountHolder holder = new AccountHolder(UUID.randomUUID(), "Ada", "Lovelace", LocalDate.of(1815, 12, 10));
+        BankAccount first = BankAccount.ofCents(UUID.randomUUID(), 10_000, holder);
+        ledger.openAccount(first);
+        BankAccount second = openAccount(0);
+        BankAccount third = openAccount(500);
+
+        ledger.execute(new Transaction(first, second, 30.25));
+        ledger.deposit(third.getId(), 1.10);
+        ledger.withdraw(first.getId(), 9.99);
+        ledger.executeBatch(List.of(
+                new Transaction(second, third, 10.0),
+                new Transaction(third, first, 16.10)
+        ));
+
+        reopen(0);
+
+        assertEquals(3, ledger.size());
+        assertEquals(7_586, ledger.getAccount(first.getId()).getBalanceCents());
+        assertEquals(2_025, ledger.getAccount(second.getId()).getBalanceCents());
+        assertEquals(0, ledger.getAccount(third.getId()).getBalanceCents());
+        assertEquals(holder, ledger.getAccount(first.getId()).getAccountHolder(), "Holder should be restored");
+        assertFalse(Files.exists(snapshotFile), "No snapshot should be written without an interval");
+    }
+
+    @Test
+    void testInvalidChangesAreNotJournaled() {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        long journalSize = ledger.getJournalSize();
+
+        assertThrows(IllegalArgumentException.class, () -> ledger.execute(new Transaction(sender, receiver, 10.01)));
+        assertThrows(IllegalArgumentException.class, () -> ledger.withdraw(sender.getId(), 10.01));
+        assertThrows(IllegalArgumentException.class, () -> ledger.openAccount(sender));
+        assertThrows(NoSuchElementException.class, () -> ledger.deposit(UUID.randomUUID(), 1.0));
+        assertFalse(ledger.executeBatch(List.of(new Transaction(receiver, sender, 1.0))).isComplete());
+        assertEquals(journalSize, ledger.getJournalSize(), "Rejected changes should not be journaled");
+    }
+
+    @Test
+    void testSnapshotKeepsJournal() throws IOException {
+        reopen(3);
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        ledger.execute(Transaction.ofCents(sender, receiver, 100));
+        long journalSize = ledger.getJournalSize();
+        ledger.execute(Transaction.ofCents(sender, receiver, 200));
+
+        assertTrue(Files.exists(snapshotFile), "Snapshot should be written after 3 changes");
+        assertTrue(ledger.getJournalSize() > journalSize, "Journal should not be shortened by the snapshot");
+
+        reopen(3);
+
+        assertEquals(700, ledger.getAccount(sender.getId()).getBalanceCents(), "Snapshot and journal should be combined");
+        assertEquals(300, ledger.getAccount(receiver.getId()).getBalanceCents());
+    }
+
+    @Test
+    void testCorruptedSnapshotIsRejected() throws IOException {
+        openAccount(1_000);
+        ledger.snapshot();
+        ledger.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile.toFile(), "rw")) {
+            file.seek(30);
+            int value = file.read();
+            file.seek(30);
+            file.write(value ^ 0xFF);
+        }
+
+        assertThrows(IOException.class, () -> new DurableLedger(journalFile, snapshotFile, 0));
+        ledger = new DurableLedger(journalFile, directory.resolve("other.snapshot"), 0);
+        assertEquals(1, ledger.size(), "The whole journal should still restore the ledger");
+    }
+
+    @Test
+    void testTornTailIsCutOff() throws IOException {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        ledger.execute(Transaction.ofCents(sender, receiver, 100));
+        long intactSize = ledger.getJournalSize();
+        ledger.execute(Transaction.ofCents(sender, receiver, 200));
+        ledger.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        ledger = new DurableLedger(journalFile, snapshotFile, 0);
+
+        assertEquals(900, ledger.getAccount(sender.getId()).getBalanceCents(), "Only complete records should be replayed");
+        assertEquals(100, ledger.getAccount(receiver.getId()).getBalanceCents());
+        assertEquals(intactSize, Files.size(journalFile), "Torn record should be cut off");
+
+        ledger.execute(Transaction.ofCents(sender, receiver, 50));
+        reopen(0);
+
+        assertEquals(150, ledger.getAccount(receiver.getId()).getBalanceCents(), "Records after recovery should be readable");
+    }
+
+    @Test
+    void testTornTailBehindSnapshotIsCutOff() throws IOException {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        ledger.execute(Transaction.ofCents(sender, receiver, 100));
+        ledger.snapshot();
+        long snapshotSize = ledger.getJournalSize();
+        ledger.execute(Transaction.ofCents(sender, receiver, 200));
+        ledger.close();
+
+        // Simulates a crash in the middle of writing the header of the record behind the snapshot.
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "rw")) {
+            file.setLength(snapshotSize + 3);
+        }
+
+        ledger = new DurableLedger(journalFile, snapshotFile, 0);
+
+        assertEquals(900, ledger.getAccount(sender.getId()).getBalanceCents());
+        assertEquals(snapshotSize, Files.size(journalFile), "Torn header should be cut off");
+    }
+
+    @Test
+    void testCorruptedRecordIsCutOff() throws IOException {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        long intactSize = ledger.getJournalSize();
+        ledger.execute(Transaction.ofCents(sender, receiver, 100));
+        ledger.deposit(receiver.getId(), 1.0);
+        ledger.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile.toFile(), "rw")) {
+            file.seek(intactSize + 40);
+            int value = file.read();
+            file.seek(intactSize + 40);
+            file.write(value ^ 0xFF);
+        }
+
+        ledger = new DurableLedger(journalFile, snapshotFile, 0);
+
+        assertEquals(1_000, ledger.getAccount(sender.getId()).getBalanceCents(), "Record with a wrong checksum should be dropped");
+        assertEquals(0, ledger.getAccount(receiver.getId()).getBalanceCents(), "Records behind it should be dropped too");
+        assertEquals(intactSize, Files.size(journalFile));
+    }
+
+    @Test
+    void testZeroFilledTailIsCutOff() throws IOException {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        ledger.execute(Transaction.ofCents(sender, receiver, 100));
+        long intactSize = ledger.getJournalSize();
+        ledger.close();
+
+        // A crash after the file was extended but before the record was written leaves zero bytes behind.
+        Files.write(journalFile, new byte[16], StandardOpenOption.APPEND);
+
+        ledger = new DurableLedger(journalFile, snapshotFile, 0);
+
+        assertEquals(900, ledger.getAccount(sender.getId()).getBalanceCents(), "Records before the zero bytes should be replayed");
+        assertEquals(100, ledger.getAccount(receiver.getId()).getBalanceCents());
+        assertEquals(intactSize, Files.size(journalFile), "Zero-filled tail should be cut off");
+    }
+
+    @Test
+    void testUndecodableRecordIsRejected() throws IOException {
+        openAccount(1_000);
+        ledger.close();
+
+        // A record of an unknown type with a matching checksum, framed as length, CRC32 and payload.
+        byte[] payload = {99};
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        Files.write(journalFile, record.array(), StandardOpenOption.APPEND);
+
+        assertThrows(IOException.class, () -> new DurableLedger(journalFile, snapshotFile, 0),
+                "A record which cannot be decoded should be rejected");
+    }
+
+    @Test
+    void testFailedJournalWriteChangesNothing() throws IOException {
+        BankAccount sender = openAccount(1_000);
+        BankAccount receiver = openAccount(0);
+        // Every write to the closed journal fails.
+        ledger.close();
+
+        assertThrows(UncheckedIOException.class, () -> ledger.deposit(receiver.getId(), 5.0));
+        assertEquals(0, ledger.getAccount(receiver.getId()).getBalanceCents(), "Deposit should not be kept");
+        assertThrows(IllegalArgumentException.class, () -> ledger.withdraw(receiver.getId(), 5.0),
+                "Money of the failed deposit should not be withdrawable");
+        assertThrows(UncheckedIOException.class, () -> ledger.execute(Transaction.ofCents(sender, receiver, 100)));
+        assertThrows(UncheckedIOException.class, () -> ledger.executeBatch(List.of(
+                Transaction.ofCents(sender, receiver, 100),
+                Transaction.ofCents(sender, receiver, 200)
+        )));
+        assertEquals(1_000, ledger.getAccount(sender.getId()).getBalanceCents(), "Transfers should not be kept");
+        assertEquals(0, ledger.getAccount(receiver.getId()).getBalanceCents());
+        assertThrows(UncheckedIOException.class, () -> openAccount(0));
+        assertEquals(2, ledger.size(), "Account should not be opened");
+
+        reopen(0);
+
+        assertEquals(1_000, ledger.getAccount(sender.getId()).getBalanceCents());
+        assertEquals(0, ledger.getAccount(receiver.getId()).getBalanceCents());
+    }
+
+    @Test
+    void testReplayOfWithdrawalWithoutItsDepositIsRejected() throws IOException {
+        BankAccount account = openAccount(0);
+        ledger.deposit(account.getId(), 5.0);
+        ledger.withdraw(account.getId(), 5.0);
+        ledger.close();
+
+        // Drops the second record, the deposit, from the journal. Every record starts with its length.
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(journalFile));
+        int openLength = 8 + journal.getInt(0);
+        int depositLength = 8 + journal.getInt(openLength);
+        ByteBuffer withoutDeposit = ByteBuffer.allocate(journal.capacity() - depositLength);
+        withoutDeposit.put(journal.array(), 0, openLength);
+        withoutDeposit.put(journal.array(), openLength + depositLength, journal.capacity() - openLength - depositLength);
+        Files.write(journalFile, withoutDeposit.array());
+
+        assertThrows(IOException.class, () -> new DurableLedger(journalFile, snapshotFile, 0),
+                "A journal overdrawing an account should be rejected");
+    }
+
+    @Test
+    void testFailedSnapshotIsRetried() throws IOException {
+        Path blockedSnapshot = directory.resolve("blocked");
+        ledger.close();
+        ledger = new DurableLedger(journalFile, blockedSnapshot, 2);
+        // A non-empty directory cannot be replaced by the snapshot.
+        Files.createDirectory(blockedSnapshot);
+        Files.createFile(blockedSnapshot.resolve("file"));
+
+        BankAccount account = openAccount(0);
+        ledger.deposit(account.getId(), 1.0);
+        ledger.deposit(account.getId(), 2.0);
+
+        assertTrue(Files.isDirectory(blockedSnapshot), "Snapshot should have failed");
+        assertEquals(300, ledger.getAccount(account.getId()).getBalanceCents(), "Changes should still be made");
+
+        Files.delete(blockedSnapshot.resolve("file"));
+        Files.delete(blockedSnapshot);
+        ledger.deposit(account.getId(), 3.0);
+
+        assertTrue(Files.isRegularFile(blockedSnapshot), "Snapshot should be written by the next change");
+    }
+
+    @Test
+    void testReplayOfManyTransactions() throws IOException {
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accounts.add(openAccount(1_000_000));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < 100; i++) {
+            List<Transaction> batch = new ArrayList<>();
+            for (int j = 0; j < 500; j++) {
+                BankAccount sender = accounts.get(random.nextInt(accounts.size()));
+                BankAccount receiver = accounts.get(random.nextInt(accounts.size()));
+                batch.add(Transaction.ofCents(sender, receiver, 1 + random.nextInt(10_000)));
+            }
+            ledger.executeBatch(batch);
+        }
+
+        List<Long> balances = new ArrayList<>();
+        for (BankAccount account : accounts) {
+            balances.add(ledger.getAccount(account.getId()).getBalanceCents());
+        }
+
+        reopen(0);
+
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(balances.get(i), ledger.getAccount(accounts.get(i).getId()).getBalanceCents());
+        }
+        assertEquals(50 * 1_000_000L, ledger.getTotalBalanceCents(), "Money should neither be created nor destroyed");
+    }
+
+    @Test
+    void testConcurrentWritersWithSnapshots() throws Exception {
+        reopen(50);
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(openAccount(100_000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 400; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                BankAccount sender = accounts.get(random.nextInt(accounts.size()));
+                BankAccount receiver = accounts.get(random.nextInt(accounts.size()));
+
+                try {
+                    ledger.execute(Transaction.ofCents(sender, receiver, 1 + random.nextInt(50_000)));
+                } catch (IllegalArgumentException e) {
+                    // Overdrawn or the same account.
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Long> balances = new ArrayList<>();
+        for (BankAccount account : accounts) {
+            balances.add(ledger.getAccount(account.getId()).getBalanceCents());
+        }
+
+        reopen(0);
+
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(balances.get(i), ledger.getAccount(accounts.get(i).getId()).getBalanceCents(),
+                    "Snapshots taken between concurrent changes should lose nothing");
+        }
+    }
+}
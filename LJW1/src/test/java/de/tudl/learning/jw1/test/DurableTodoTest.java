@@ -0,0 +1,267 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.DurableTodo;
+import de.tudl.learning.jw1.Task;
+import de.tudl.learning.jw1.TaskJsonFileService;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DurableTodoTest {
+
+    @TempDir
+    Path directory;
+
+    private TaskJsonFileService snapshotService;
+    private Path logFile;
+    private DurableTodo todo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshotService = new TaskJsonFileService(directory.resolve("tasks.json").toString());
+        logFile = directory.resolve("tasks.log");
+        todo = new DurableTodo(snapshotService, logFile, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        todo.close();
+    }
+
+    private DurableTodo reopen(int compactionThreshold) throws IOException {
+        todo.close();
+        todo = new DurableTodo(snapshotService, logFile, compactionThreshold);
+        return todo;
+    }
+
+    private static Task newTask(String title) {
+        return new Task(UUID.randomUUID(), title, "Description of " + title, LocalDateTime.now().plusDays(1));
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new DurableTodo(null, logFile, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DurableTodo(snapshotService, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DurableTodo(snapshotService, logFile, -1));
+    }
+
+    @Test
+    void testChangesSurviveReopen() throws IOException {
+        Task first = newTask("First");
+        Task second = newTask("Second");
+        Task third = newTask("Third");
+        todo.addTask(first);
+        todo.addTask(second);
+        todo.addTask(third);
+
+        second.setTitle("Second updated");
+        todo.updateTask(second);
+        todo.deleteTask(first.getId());
+
+        reopen(0);
+
+        assertEquals(List.of(second, third), todo.getTasks(), "Log should restore all changes in order");
+        assertFalse(Files.exists(snapshotService.getFilePath()), "No snapshot should be written without compaction");
+    }
+
+    @Test
+    void testInvalidChangesAreNotLogged() {
+        Task task = newTask("Task");
+        todo.addTask(task);
+        long logSize = todo.getLogSize();
+
+        todo.addTask(task);
+        todo.updateTask(task);
+
+        assertThrows(IllegalArgumentException.class, () -> todo.addTask(null));
+        assertThrows(NoSuchElementException.class, () -> todo.updateTask(newTask("Missing")));
+        assertThrows(NoSuchElementException.class, () -> todo.deleteTask(UUID.randomUUID()));
+        assertEquals(logSize, todo.getLogSize(), "Duplicate, unchanged and missing tasks should not be logged");
+    }
+
+    @Test
+    void testCompactionWritesSnapshotAndEmptiesLog() throws IOException {
+        reopen(3);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Task task = newTask("Task " + i);
+            tasks.add(task);
+            todo.addTask(task);
+        }
+
+        assertTrue(Files.exists(snapshotService.getFilePath()), "Snapshot should be written after 3 changes");
+        assertTrue(todo.getLogSize() > 0, "Change after compaction should be logged");
+
+        reopen(3);
+
+        assertEquals(tasks, todo.getTasks(), "Snapshot and log should be combined");
+    }
+
+    @Test
+    void testFailedWriteChangesNothing() throws IOException {
+        Task task = newTask("Task");
+        todo.addTask(task);
+        // Every write to the closed log fails.
+        todo.close();
+
+        assertThrows(UncheckedIOException.class, () -> todo.addTask(newTask("Other")));
+        Task updated = new Task(task.getId(), "Updated", task.getDescription(), task.getDueDate());
+        assertThrows(UncheckedIOException.class, () -> todo.updateTask(updated));
+        assertThrows(UncheckedIOException.class, () -> todo.deleteTask(task.getId()));
+        assertEquals(List.of(task), todo.getTasks(), "Changes which were not logged should not be made");
+
+        reopen(0);
+
+        assertEquals(List.of(task), todo.getTasks());
+    }
+
+    @Test
+    void testFailedCompactionDoesNotFailChange() throws IOException {
+        reopen(2);
+        // A non-empty directory cannot be replaced by the snapshot.
+        Path snapshotFile = snapshotService.getFilePath();
+        Files.createDirectory(snapshotFile);
+        Files.createFile(snapshotFile.resolve("file"));
+
+        Task first = newTask("First");
+        Task second = newTask("Second");
+        todo.addTask(first);
+        todo.addTask(second);
+
+        assertTrue(Files.isDirectory(snapshotFile), "Compaction should have failed");
+        assertEquals(List.of(first, second), todo.getTasks(), "Changes should still be made");
+        long logSize = todo.getLogSize();
+
+        Files.delete(snapshotFile.resolve("file"));
+        Files.delete(snapshotFile);
+        todo.deleteTask(first.getId());
+
+        assertTrue(Files.isRegularFile(snapshotFile), "Compaction should be tried again with the next change");
+        assertTrue(todo.getLogSize() < logSize, "Log should be emptied by the compaction");
+
+        reopen(0);
+
+        assertEquals(List.of(second), todo.getTasks());
+    }
+
+    @Test
+    void testReplayAfterCompactionWithStaleLog() throws IOException {
+        Task task = newTask("Task");
+        todo.addTask(task);
+        task.setTitle("Updated");
+        todo.updateTask(task);
+        byte[] staleLog = Files.readAllBytes(logFile);
+
+        todo.compact();
+        todo.close();
+        // Simulates a crash after the snapshot was written but before the log was emptied.
+        Files.write(logFile, staleLog);
+        todo = new DurableTodo(snapshotService, logFile, 0);
+
+        assertEquals(List.of(task), todo.getTasks(), "Replaying records already in the snapshot should not change it");
+    }
+
+    @Test
+    void testTornTailIsCutOff() throws IOException {
+        Task first = newTask("First");
+        Task second = newTask("Second");
+        todo.addTask(first);
+        long intactSize = todo.getLogSize();
+        todo.addTask(second);
+        todo.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(logFile.toFile(), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        todo = new DurableTodo(snapshotService, logFile, 0);
+
+        assertEquals(List.of(first), todo.getTasks(), "Only the complete record should be restored");
+        assertEquals(intactSize, Files.size(logFile), "Torn record should be cut off");
+
+        Task third = newTask("Third");
+        todo.addTask(third);
+        reopen(0);
+
+        assertEquals(List.of(first, third), todo.getTasks(), "Records after recovery should be readable");
+    }
+
+    @Test
+    void testCorruptedRecordIsCutOff() throws IOException {
+        Task first = newTask("First");
+        todo.addTask(first);
+        long intactSize = todo.getLogSize();
+        todo.addTask(newTask("Second"));
+        todo.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(logFile.toFile(), "rw")) {
+            file.seek(intactSize + 12);
+            int value = file.read();
+            file.seek(intactSize + 12);
+            file.write(value ^ 0xFF);
+        }
+
+        todo = new DurableTodo(snapshotService, logFile, 0);
+
+        assertEquals(List.of(first), todo.getTasks(), "Record with a wrong checksum should be dropped");
+        assertEquals(intactSize, Files.size(logFile));
+    }
+
+    @Test
+    void testZeroFilledTailIsCutOff() throws IOException {
+        Task first = newTask("First");
+        Task second = newTask("Second");
+        todo.addTask(first);
+        todo.addTask(second);
+        long intactSize = todo.getLogSize();
+        todo.close();
+
+        // A crash after the file was extended but before the record was written leaves zero bytes behind.
+        Files.write(logFile, new byte[16], StandardOpenOption.APPEND);
+
+        todo = new DurableTodo(snapshotService, logFile, 0);
+
+        assertEquals(List.of(first, second), todo.getTasks(), "Records before the zero bytes should be restored");
+        assertEquals(intactSize, Files.size(logFile), "Zero-filled tail should be cut off");
+    }
+
+    @Test
+    void testConcurrentWritersShareSyncs() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 400; i++) {
+            Task task = newTask("Task " + i);
+            tasks.add(task);
+            futures.add(executor.submit(() -> todo.addTask(task)));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        reopen(0);
+
+        assertEquals(tasks.size(), todo.getTasks().size(), "All concurrently added tasks should be restored");
+        assertTrue(todo.getTasks().containsAll(tasks));
+    }
+}
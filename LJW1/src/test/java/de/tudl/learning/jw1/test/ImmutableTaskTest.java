@@ -0,0 +1,60 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.ImmutableTask;
+import de.tudl.learning.jw1.Task;
+import org.junit.jupiter.api.Test;
+
+class ImmutableTaskTest {
+
+    @Test
+    void testImmutableTaskInitialization() {
+        Task task = new Task();
+
+        ImmutableTask immutableTask = new ImmutableTask(task);
+
+        assertEquals(task.getId(), immutableTask.getId());
+        assertEquals(task.getTitle(), immutableTask.getTitle());
+        assertEquals(task.getDescription(), immutableTask.getDescription());
+        assertEquals(task.getDueDate(), immutableTask.getDueDate());
+    }
+
+    @Test
+    void testImmutableTaskWithTaskNull() {
+        assertThrows(IllegalArgumentException.class, () -> new ImmutableTask(null));
+    }
+
+    @Test
+    void testModifyTaskDoesNotAffectImmutableTask() {
+        Task task = new Task();
+        task.setTitle("Original Title");
+
+        ImmutableTask immutableTask = new ImmutableTask(task);
+        task.setTitle("Modified Title");
+
+        assertEquals("Original Title", immutableTask.getTitle(), "Snapshot should not follow the Task");
+    }
+
+    @Test
+    void testTaskFromImmutableTask() {
+        Task task = new Task();
+        ImmutableTask immutableTask = new ImmutableTask(task);
+
+        Task copy = new Task(immutableTask);
+
+        assertEquals(task, copy, "Mutable copy should equal the original Task");
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        Task task = new Task();
+
+        ImmutableTask first = new ImmutableTask(task);
+        ImmutableTask second = new ImmutableTask(task);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, new ImmutableTask(new Task()));
+    }
+}
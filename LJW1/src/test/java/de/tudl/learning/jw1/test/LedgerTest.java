@@ -0,0 +1,295 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.AccountHolder;
+import de.tudl.learning.jw1.BankAccount;
+import de.tudl.learning.jw1.Ledger;
+import de.tudl.learning.jw1.Transaction;
+import de.tudl.learning.jw1.TransactionBatchResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class LedgerTest {
+
+    private static BankAccount openAccount(Ledger ledger, double balance) {
+        BankAccount account = new BankAccount(UUID.randomUUID(), balance, new AccountHolder());
+        ledger.openAccount(account);
+        return account;
+    }
+
+    @Test
+    void testOpenAccount() {
+        Ledger ledger = new Ledger();
+        BankAccount account = openAccount(ledger, 100.0);
+
+        assertEquals(1, ledger.size());
+        assertEquals(100.0, ledger.getBalance(account.getId()), "Balance should be taken over!");
+        assertThrows(IllegalArgumentException.class, () -> ledger.openAccount(account), "Do not open an account twice!");
+        assertThrows(IllegalArgumentException.class, () -> ledger.openAccount(null));
+    }
+
+    @Test
+    void testUnknownAccount() {
+        Ledger ledger = new Ledger();
+        BankAccount open = openAccount(ledger, 100.0);
+        BankAccount unknown = new BankAccount();
+
+        assertThrows(NoSuchElementException.class, () -> ledger.getAccount(unknown.getId()));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getAccount(null));
+        assertThrows(NoSuchElementException.class, () -> ledger.execute(new Transaction(open, unknown, 10.0)));
+        assertEquals(100.0, ledger.getBalance(open.getId()), "Failed transaction should not change the sender!");
+    }
+
+    @Test
+    void testDepositAndWithdraw() {
+        Ledger ledger = new Ledger();
+        BankAccount account = openAccount(ledger, 100.0);
+
+        ledger.deposit(account.getId(), 50.0);
+        BankAccount updated = ledger.withdraw(account.getId(), 30.0);
+
+        assertEquals(120.0, updated.getBalance());
+        assertEquals(120.0, ledger.getBalance(account.getId()));
+        assertEquals(account.getAccountHolder(), updated.getAccountHolder(), "Account holder should be kept!");
+        assertThrows(IllegalArgumentException.class, () -> ledger.withdraw(account.getId(), 500.0));
+        assertEquals(120.0, ledger.getBalance(account.getId()));
+    }
+
+    @Test
+    void testExecuteTransaction() {
+        Ledger ledger = new Ledger();
+        BankAccount sender = openAccount(ledger, 100.0);
+        BankAccount receiver = openAccount(ledger, 20.0);
+
+        ledger.execute(new Transaction(sender, receiver, 70.0));
+
+        assertEquals(30.0, ledger.getBalance(sender.getId()), "Sender should be debited!");
+        assertEquals(90.0, ledger.getBalance(receiver.getId()), "Receiver should be credited!");
+        assertEquals(1, ledger.getExecutedTransactions());
+    }
+
+    @Test
+    void testTransactionUsesLedgerBalance() {
+        Ledger ledger = new Ledger();
+        BankAccount sender = openAccount(ledger, 100.0);
+        BankAccount receiver = openAccount(ledger, 0.0);
+        ledger.withdraw(sender.getId(), 100.0);
+
+        // The sender object of the transaction still shows the old balance.
+        assertThrows(IllegalArgumentException.class, () -> ledger.execute(new Transaction(sender, receiver, 50.0)));
+        assertEquals(0.0, ledger.getBalance(sender.getId()));
+        assertEquals(0.0, ledger.getBalance(receiver.getId()), "Receiver should not be credited without a debit!");
+        assertEquals(0, ledger.getExecutedTransactions());
+    }
+
+    @Test
+    void testTransactionToSameAccount() {
+        Ledger ledger = new Ledger();
+        BankAccount account = openAccount(ledger, 100.0);
+
+        assertThrows(IllegalArgumentException.class, () -> ledger.execute(new Transaction(account, account, 10.0)));
+        assertThrows(IllegalArgumentException.class, () -> ledger.execute(null));
+    }
+
+    @Test
+    void testConcurrentTransactionsConserveMoney() throws Exception {
+        Ledger ledger = new Ledger();
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accounts.add(openAccount(ledger, 1000.0));
+        }
+        double total = ledger.getTotalBalance();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong rejected = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < 10_000; i++) {
+                    BankAccount sender = accounts.get(random.nextInt(accounts.size()));
+                    BankAccount receiver = accounts.get(random.nextInt(accounts.size()));
+                    if (sender == receiver) continue;
+
+                    try {
+                        // Whole amounts keep the sums exact.
+                        ledger.execute(new Transaction(sender, receiver, 1 + random.nextInt(300)));
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(total, ledger.getTotalBalance(), "Money should neither be created nor destroyed!");
+        for (BankAccount account : ledger.getAccounts()) {
+            assertTrue(account.getBalance() >= 0, "No account should be overdrawn!");
+        }
+        assertTrue(ledger.getExecutedTransactions() > 0);
+    }
+
+    @Test
+    void testOppositeTransfersDoNotDeadlock() throws Exception {
+        Ledger ledger = new Ledger();
+        BankAccount first = openAccount(ledger, 1_000_000.0);
+        BankAccount second = openAccount(ledger, 1_000_000.0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < 100_000; i++) ledger.execute(new Transaction(first, second, 1.0));
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < 100_000; i++) ledger.execute(new Transaction(second, first, 1.0));
+        });
+
+        forward.get(60, TimeUnit.SECONDS);
+        backward.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(1_000_000.0, ledger.getBalance(first.getId()));
+        assertEquals(1_000_000.0, ledger.getBalance(second.getId()));
+    }
+
+    @Test
+    void testExecuteBatchNetsTransactions() {
+        Ledger ledger = new Ledger();
+        BankAccount first = openAccount(ledger, 100.0);
+        BankAccount second = openAccount(ledger, 0.0);
+        BankAccount third = openAccount(ledger, 0.0);
+
+        TransactionBatchResult result = ledger.executeBatch(List.of(
+                new Transaction(first, second, 60.0),
+                new Transaction(second, third, 50.0),
+                new Transaction(third, first, 25.5),
+                new Transaction(second, first, 10.0)
+        ));
+
+        assertTrue(result.isComplete());
+        assertEquals(4, result.getExecuted().size());
+        assertEquals(75.5, ledger.getBalance(first.getId()));
+        assertEquals(0.0, ledger.getBalance(second.getId()));
+        assertEquals(24.5, ledger.getBalance(third.getId()));
+        assertEquals(4, ledger.getExecutedTransactions());
+    }
+
+    @Test
+    void testExecuteBatchRejectsInBatchOrder() {
+        Ledger ledger = new Ledger();
+        BankAccount sender = openAccount(ledger, 50.0);
+        BankAccount receiver = openAccount(ledger, 0.0);
+        BankAccount unknown = new BankAccount();
+        Transaction tooEarly = new Transaction(receiver, sender, 30.0);
+        Transaction funding = new Transaction(sender, receiver, 50.0);
+        Transaction sameAccount = new Transaction(sender, sender, 1.0);
+        Transaction toUnknown = new Transaction(receiver, unknown, 1.0);
+
+        TransactionBatchResult result = ledger.executeBatch(List.of(tooEarly, funding, sameAccount, toUnknown, funding));
+
+        assertEquals(List.of(funding.getId()), result.getExecuted());
+        assertEquals(
+                List.of(tooEarly.getId(), sameAccount.getId(), toUnknown.getId(), funding.getId()),
+                new ArrayList<>(result.getRejected().keySet()),
+                "Rejected transactions should be kept in batch order!"
+        );
+        assertEquals("Transaction appeared earlier in the batch!", result.getRejected().get(funding.getId()));
+        assertEquals("Insufficient balance to fulfill withdrawal!", result.getRejected().get(tooEarly.getId()),
+                "The sender had no money before the funding transaction!");
+        assertTrue(result.getRejected().get(toUnknown.getId()).contains(unknown.getId().toString()));
+        assertEquals(0.0, ledger.getBalance(sender.getId()));
+        assertEquals(50.0, ledger.getBalance(receiver.getId()));
+        assertEquals(1, ledger.getExecutedTransactions());
+    }
+
+    @Test
+    void testExecuteBatchWithInvalidBatch() {
+        Ledger ledger = new Ledger();
+        BankAccount sender = openAccount(ledger, 50.0);
+        BankAccount receiver = openAccount(ledger, 0.0);
+
+        assertThrows(IllegalArgumentException.class, () -> ledger.executeBatch(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ledger.executeBatch(Arrays.asList(new Transaction(sender, receiver, 10.0), null)));
+        assertEquals(50.0, ledger.getBalance(sender.getId()), "Nothing should be executed!");
+        assertTrue(ledger.executeBatch(List.of()).isComplete());
+    }
+
+    @Test
+    void testConcurrentBatchesConserveMoney() throws Exception {
+        Ledger ledger = new Ledger();
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accounts.add(openAccount(ledger, 1000.0));
+        }
+        long total = ledger.getTotalBalanceCents();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            boolean batched = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (int i = 0; i < 200; i++) {
+                    List<Transaction> batch = new ArrayList<>();
+                    for (int j = 0; j < 50; j++) {
+                        BankAccount sender = accounts.get(random.nextInt(accounts.size()));
+                        BankAccount receiver = accounts.get(random.nextInt(accounts.size()));
+                        batch.add(Transaction.ofCents(sender, receiver, 1 + random.nextInt(30_000)));
+                    }
+
+                    if (batched) {
+                        ledger.executeBatch(batch);
+                        continue;
+                    }
+                    for (Transaction transaction : batch) {
+                        try {
+                            ledger.execute(transaction);
+                        } catch (IllegalArgumentException e) {
+                            // Overdrawn or the same account.
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(total, ledger.getTotalBalanceCents(), "Money should neither be created nor destroyed!");
+        for (BankAccount account : ledger.getAccounts()) {
+            assertTrue(account.getBalanceCents() >= 0, "No account should be overdrawn!");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.Money;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void testToCentsRoundsToNearestCent() {
+        assertEquals(4220, Money.toCents(42.20), "Amount should be converted exactly.");
+        assertEquals(1, Money.toCents(0.005), "Half a cent should round up.");
+        assertEquals(0, Money.toCents(0.004), "Less than half a cent should round down.");
+        assertEquals(-1205, Money.toCents(-12.05), "Negative amounts should be converted.");
+    }
+
+    @Test
+    void testToCentsRejectsUnrepresentableAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> Money.toCents(-1e18));
+    }
+
+    @Test
+    void testToAmount() {
+        assertEquals(42.2, Money.toAmount(4220), "Cents should be converted back.");
+        assertEquals(-0.01, Money.toAmount(-1), "Negative cents should be converted back.");
+    }
+
+    @Test
+    void testArithmeticIsExact() {
+        long total = 0;
+
+        for (int i = 0; i < 10; i++) {
+            total = Money.add(total, Money.toCents(0.1));
+        }
+
+        assertEquals(100, total, "Ten times 0.10 should be exactly 1.00.");
+        assertEquals(-90, Money.subtract(10, 100), "Difference should be exact.");
+        assertEquals(300, Money.multiply(100, 3), "Product should be exact.");
+    }
+
+    @Test
+    void testArithmeticOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("42.20", Money.format(4220));
+        assertEquals("-12.05", Money.format(-1205));
+        assertEquals("-0.50", Money.format(-50));
+    }
+}
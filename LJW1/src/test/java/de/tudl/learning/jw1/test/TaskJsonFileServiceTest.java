@@ -0,0 +1,213 @@
+package de.tudl.learning.jw1.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.learning.jw1.ImmutableTask;
+import de.tudl.learning.jw1.Task;
+import de.tudl.learning.jw1.TaskJsonFileService;
+import de.tudl.learning.jw1.Todo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class TaskJsonFileServiceTest {
+
+    private File tempFile;
+    private TaskJsonFileService taskFileService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("test-tasks", ".json");
+        taskFileService = new TaskJsonFileService(tempFile.getAbsolutePath());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        new File(tempFile.getParent(), "backup_" + tempFile.getName()).delete();
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidFilePathProvider")
+    void testInitializationWithInvalidArguments(String filePath) {
+        assertThrows(IllegalArgumentException.class, () -> new TaskJsonFileService(filePath));
+    }
+
+    private static Stream<Arguments> invalidFilePathProvider() {
+        return Stream.of(
+                Arguments.of((String) null),
+                Arguments.of(""),
+                Arguments.of(" "),
+                Arguments.of("not/existing/directory/tasks.json")
+        );
+    }
+
+    @Test
+    void testWriteAndReadTasks() throws IOException {
+        Todo todo = new Todo();
+        Task first = new Task();
+        Task second = new Task(UUID.randomUUID(), "Title \"quoted\"", "Description with \u00fcmlaut", LocalDateTime.now().plusDays(3));
+        todo.addTask(first);
+        todo.addTask(second);
+
+        taskFileService.writeToFile(todo.getTaskViews());
+        Todo readTodo = taskFileService.readFromFile();
+
+        assertEquals(List.of(first, second), readTodo.getTasks(), "Tasks should be restored in order");
+    }
+
+    @Test
+    void testReadFromNonExistentFile() {
+        tempFile.delete();
+
+        assertTrue(taskFileService.readFromFile().getTasks().isEmpty(), "Todo should be empty for a non-existent file");
+    }
+
+    @Test
+    void testReadTasksWithPastDueDate() throws IOException {
+        Files.writeString(
+                tempFile.toPath(),
+                "[{\"id\":\"" + UUID.randomUUID() + "\",\"title\":\"Old\",\"description\":\"Old task\","
+                        + "\"dueDate\":\"2001-01-01T10:00\",\"unknown\":{\"nested\":[1,2]}}]"
+        );
+
+        List<ImmutableTask> tasks = new ArrayList<>();
+        taskFileService.readFromFile(tasks::add);
+
+        assertEquals(1, tasks.size(), "Overdue tasks should be restored");
+        assertEquals(LocalDateTime.of(2001, 1, 1, 10, 0), tasks.get(0).getDueDate());
+        assertEquals("Old", tasks.get(0).getTitle());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideInvalidJsonCases")
+    void testReadFromInvalidJsonFile(String description, String invalidJsonContent) throws IOException {
+        Files.writeString(tempFile.toPath(), invalidJsonContent);
+
+        Todo todo = taskFileService.readFromFile();
+
+        assertTrue(todo.getTasks().isEmpty(), "Todo should be empty for " + description);
+        assertTrue(
+                new File(tempFile.getParent(), "backup_" + tempFile.getName()).exists(),
+                "Backup file should be created for " + description
+        );
+    }
+
+    private static Stream<Arguments> provideInvalidJsonCases() {
+        return Stream.of(
+                Arguments.of("corrupt JSON file", "INVALID JSON CONTENT"),
+                Arguments.of("empty JSON file", ""),
+                Arguments.of("partial JSON file", "[{ \"title\": \"Title\", \"description\": \"Description\""),
+                Arguments.of("invalid id", "[{\"id\":\"123\",\"title\":\"T\",\"description\":\"D\",\"dueDate\":\"2001-01-01T10:00\"}]"),
+                Arguments.of("missing title", "[{\"description\":\"D\",\"dueDate\":\"2001-01-01T10:00\"}]")
+        );
+    }
+
+    @Test
+    void testAppendToEmptyFile() throws IOException {
+        Task task = new Task();
+
+        taskFileService.appendToFile(new ImmutableTask(task));
+
+        assertEquals(List.of(task), taskFileService.readFromFile().getTasks());
+    }
+
+    @Test
+    void testAppendToNonExistentFile() throws IOException {
+        tempFile.delete();
+        Task task = new Task();
+
+        taskFileService.appendToFile(new ImmutableTask(task));
+
+        assertEquals(List.of(task), taskFileService.readFromFile().getTasks());
+    }
+
+    @Test
+    void testAppendToExistingTasks() throws IOException {
+        Task first = new Task();
+        Task second = new Task();
+        Task third = new Task();
+        Files.writeString(tempFile.toPath(), "[ ]\n");
+
+        taskFileService.appendToFile(new ImmutableTask(first));
+        taskFileService.writeToFile(taskFileService.readFromFile().getTaskViews());
+        taskFileService.appendToFile(new ImmutableTask(second));
+        taskFileService.appendToFile(new ImmutableTask(third));
+
+        assertEquals(List.of(first, second, third), taskFileService.readFromFile().getTasks());
+    }
+
+    @Test
+    void testTornAppendKeepsEarlierTasks() throws IOException {
+        Task first = new Task();
+        Task second = new Task();
+        taskFileService.appendToFile(new ImmutableTask(first));
+        long intactSize = tempFile.length();
+        taskFileService.appendToFile(new ImmutableTask(second));
+        byte[] content = Files.readAllBytes(tempFile.toPath());
+
+        // Simulates a crash in the middle of the second append.
+        for (int size : new int[] {(int) intactSize - 1, (int) intactSize + 1, (int) intactSize + 20, content.length - 3}) {
+            Files.write(tempFile.toPath(), Arrays.copyOf(content, size));
+
+            assertEquals(List.of(first), taskFileService.readFromFile().getTasks(),
+                    "Tasks before the torn append should be kept, size " + size);
+            assertTrue(new File(tempFile.getParent(), "backup_" + tempFile.getName()).exists(),
+                    "Torn file should be backed up");
+        }
+    }
+
+    @Test
+    void testAppendAfterTornAppend() throws IOException {
+        Task first = new Task();
+        Task second = new Task();
+        Task third = new Task();
+        taskFileService.appendToFile(new ImmutableTask(first));
+        taskFileService.appendToFile(new ImmutableTask(second));
+        byte[] content = Files.readAllBytes(tempFile.toPath());
+
+        // Simulates a crash in the middle of the second append.
+        Files.write(tempFile.toPath(), Arrays.copyOf(content, content.length - 3));
+        assertEquals(List.of(first), taskFileService.readFromFile().getTasks());
+
+        taskFileService.appendToFile(new ImmutableTask(third));
+
+        assertEquals(List.of(first, third), taskFileService.readFromFile().getTasks(),
+                "Append should work again after the torn file was read");
+    }
+
+    @Test
+    void testAppendToCorruptedFile() throws IOException {
+        Files.writeString(tempFile.toPath(), "[{\"title\":");
+
+        assertThrows(IOException.class, () -> taskFileService.appendToFile(new ImmutableTask(new Task())));
+    }
+
+    @Test
+    void testWriteAndReadLargeFile() throws IOException {
+        Todo todo = new Todo();
+        LocalDateTime dueDate = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 10_000; i++) {
+            todo.addTask(new Task(UUID.randomUUID(), "Task " + i, "Description " + i, dueDate));
+        }
+
+        taskFileService.writeToFile(todo.getTaskViews());
+
+        List<ImmutableTask> tasks = new ArrayList<>();
+        taskFileService.readFromFile(tasks::add);
+
+        assertEquals(new ArrayList<>(todo.getTaskViews()), tasks, "Should read back all 10000 tasks");
+    }
+}
@@ -2,8 +2,11 @@ package de.tudl.learning.jw1.test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import de.tudl.learning.jw1.BatchResult;
+import de.tudl.learning.jw1.ImmutableTask;
 import de.tudl.learning.jw1.Task;
 import de.tudl.learning.jw1.Todo;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -274,4 +277,252 @@ class TodoTest {
                 "Description should remain unchanged in Todo"
         );
     }
+
+    @Test
+    void testUpdateTaskKeepsInsertionOrder() {
+        Todo todo = new Todo();
+        Task first = new Task();
+        Task second = new Task();
+        Task third = new Task();
+        todo.addTask(first);
+        todo.addTask(second);
+        todo.addTask(third);
+
+        Task toUpdate = todo.getTask(second.getId());
+        toUpdate.setTitle("Updated Title");
+        todo.updateTask(toUpdate);
+
+        List<Task> tasks = todo.getTasks();
+
+        assertEquals(first, tasks.get(0), "First task should stay in place");
+        assertEquals(toUpdate, tasks.get(1), "Updated task should keep its position");
+        assertEquals(third, tasks.get(2), "Third task should stay in place");
+    }
+
+    @Test
+    void testAddTaskAfterDeleteAppendsTask() {
+        Todo todo = new Todo();
+        Task first = new Task();
+        Task second = new Task();
+        todo.addTask(first);
+        todo.addTask(second);
+
+        todo.deleteTask(first.getId());
+        todo.addTask(first);
+
+        List<Task> tasks = todo.getTasks();
+
+        assertEquals(2, tasks.size(), "Both tasks should be present");
+        assertEquals(second, tasks.get(0), "Remaining task should be first");
+        assertEquals(first, tasks.get(1), "Re-added task should be appended");
+    }
+
+    @Test
+    void testTodoInitializationIgnoresDuplicateIds() {
+        Task task = new Task();
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(task);
+        tasks.add(new Task(task));
+
+        Todo todo = new Todo(tasks);
+
+        assertEquals(1, todo.getTasks().size(), "Tasks with the same id should be stored once");
+    }
+
+    @Test
+    void testGetTasksDueBetween() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base.plusDays(1));
+        Task third = new Task(UUID.randomUUID(), "Third", "Third Description", base.plusDays(2));
+        Todo todo = new Todo(List.of(third, first, second));
+
+        List<Task> dueTasks = todo.getTasksDueBetween(base, base.plusDays(1));
+
+        assertEquals(List.of(first, second), dueTasks, "Only tasks within the range should be returned in due date order");
+    }
+
+    @Test
+    void testGetTasksDueBetweenInvalidRange() {
+        Todo todo = new Todo();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class, () -> todo.getTasksDueBetween(null, now));
+        assertThrows(IllegalArgumentException.class, () -> todo.getTasksDueBetween(now, null));
+        assertThrows(IllegalArgumentException.class, () -> todo.getTasksDueBetween(now, now.minusDays(1)));
+    }
+
+    @Test
+    void testGetOverdueTasks() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base.plusDays(1));
+        Todo todo = new Todo(List.of(first, second));
+
+        assertEquals(List.of(first), todo.getOverdueTasks(base.plusDays(1)), "Only tasks due before now should be overdue");
+        assertTrue(todo.getOverdueTasks(base).isEmpty(), "A task due right now should not be overdue");
+    }
+
+    @Test
+    void testGetNextDueTasks() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base.plusDays(1));
+        Task third = new Task(UUID.randomUUID(), "Third", "Third Description", base.plusDays(1));
+        Task fourth = new Task(UUID.randomUUID(), "Fourth", "Fourth Description", base.plusDays(2));
+        Todo todo = new Todo(List.of(fourth, first, second, third));
+
+        assertEquals(List.of(second, third), todo.getNextDueTasks(base.plusHours(1), 2), "Should return the soonest tasks in due date order");
+        assertTrue(todo.getNextDueTasks(base, 0).isEmpty(), "Should return no tasks for a count of 0");
+        assertThrows(IllegalArgumentException.class, () -> todo.getNextDueTasks(base, -1));
+    }
+
+    @Test
+    void testDueDateIndexFollowsUpdateAndDelete() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base.plusDays(1));
+        Todo todo = new Todo(List.of(first, second));
+
+        Task toUpdate = todo.getTask(first.getId());
+        toUpdate.setDueDate(base.plusDays(2));
+        todo.updateTask(toUpdate);
+        todo.deleteTask(second.getId());
+
+        assertTrue(todo.getTasksDueBetween(base, base.plusDays(1)).isEmpty(), "Old due dates should no longer be indexed");
+        assertEquals(List.of(toUpdate), todo.getNextDueTasks(base, 10), "Updated due date should be indexed");
+    }
+
+    @Test
+    void testDueDateQueriesReturnCopies() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task task = new Task(UUID.randomUUID(), "Original Title", "Description", base);
+        Todo todo = new Todo(List.of(task));
+
+        todo.getNextDueTasks(base, 1).get(0).setTitle("Modified Title");
+
+        assertEquals("Original Title", todo.getTask(task.getId()).getTitle(), "Title should remain unchanged in Todo");
+    }
+
+    @Test
+    void testGetTaskViews() {
+        Todo todo = new Todo();
+        Task first = new Task();
+        Task second = new Task();
+        todo.addTask(first);
+        todo.addTask(second);
+
+        List<ImmutableTask> views = new ArrayList<>(todo.getTaskViews());
+
+        assertEquals(List.of(new ImmutableTask(first), new ImmutableTask(second)), views, "Views should match the tasks in insertion order");
+    }
+
+    @Test
+    void testGetTaskViewsIsUnmodifiable() {
+        Todo todo = new Todo();
+        todo.addTask(new Task());
+
+        assertThrows(UnsupportedOperationException.class, () -> todo.getTaskViews().clear());
+    }
+
+    @Test
+    void testGetTaskViewsDoesNotCopy() {
+        Todo todo = new Todo();
+        Task task = new Task();
+        todo.addTask(task);
+
+        assertSame(
+                todo.getTaskView(task.getId()),
+                todo.getTaskViews().iterator().next(),
+                "Views should hand out the stored tasks directly"
+        );
+    }
+
+    @Test
+    void testGetTaskView() {
+        Todo todo = new Todo();
+        Task task = new Task();
+        todo.addTask(task);
+
+        assertEquals(new ImmutableTask(task), todo.getTaskView(task.getId()));
+        assertThrows(IllegalArgumentException.class, () -> todo.getTaskView(null));
+        assertThrows(NoSuchElementException.class, () -> todo.getTaskView(UUID.randomUUID()));
+    }
+
+    @Test
+    void testAddTasks() {
+        Task existing = new Task();
+        Todo todo = new Todo(List.of(existing));
+        Task first = new Task();
+        Task second = new Task();
+
+        BatchResult result = todo.addTasks(List.of(first, existing, second, new Task(first)));
+
+        assertEquals(List.of(first.getId(), second.getId()), result.getApplied(), "New tasks should be added");
+        assertEquals(List.of(existing.getId(), first.getId()), result.getSkipped(), "Existing and duplicate tasks should be skipped");
+        assertTrue(result.getMissing().isEmpty());
+        assertFalse(result.isComplete());
+        assertEquals(List.of(existing, first, second), todo.getTasks(), "Tasks should be appended in batch order");
+    }
+
+    @Test
+    void testAddTasksInvalidBatch() {
+        Todo todo = new Todo();
+        List<Task> batch = new ArrayList<>();
+        batch.add(new Task());
+        batch.add(null);
+
+        assertThrows(IllegalArgumentException.class, () -> todo.addTasks(null));
+        assertThrows(IllegalArgumentException.class, () -> todo.addTasks(batch));
+        assertTrue(todo.getTasks().isEmpty(), "Nothing should be added from an invalid batch");
+    }
+
+    @Test
+    void testUpdateTasks() {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task first = new Task(UUID.randomUUID(), "First", "First Description", base);
+        Task second = new Task(UUID.randomUUID(), "Second", "Second Description", base);
+        Todo todo = new Todo(List.of(first, second));
+
+        Task updated = new Task(first);
+        updated.setDueDate(base.plusDays(1));
+        Task unknown = new Task();
+
+        BatchResult result = todo.updateTasks(List.of(updated, second, unknown, new Task(first)));
+
+        assertEquals(List.of(first.getId()), result.getApplied(), "Changed tasks should be updated");
+        assertEquals(List.of(second.getId(), first.getId()), result.getSkipped(), "Unchanged and duplicate tasks should be skipped");
+        assertEquals(List.of(unknown.getId()), result.getMissing(), "Unknown tasks should be reported as missing");
+        assertEquals(updated, todo.getTask(first.getId()));
+        assertEquals(List.of(updated), todo.getNextDueTasks(base.plusHours(1), 10), "Due date index should be updated");
+    }
+
+    @Test
+    void testDeleteTasks() {
+        Task first = new Task();
+        Task second = new Task();
+        Todo todo = new Todo(List.of(first, second));
+        UUID unknown = UUID.randomUUID();
+
+        BatchResult result = todo.deleteTasks(List.of(first.getId(), unknown, first.getId()));
+
+        assertEquals(List.of(first.getId()), result.getApplied());
+        assertEquals(List.of(first.getId()), result.getSkipped());
+        assertEquals(List.of(unknown), result.getMissing());
+        assertEquals(List.of(second), todo.getTasks(), "Only the deleted task should be removed");
+        assertThrows(IllegalArgumentException.class, () -> todo.deleteTasks(null));
+    }
+
+    @Test
+    void testRestoreTaskWithPastDueDate() {
+        Todo todo = new Todo();
+        ImmutableTask task = new ImmutableTask(UUID.randomUUID(), "Old", "Old task", LocalDateTime.now().minusDays(3));
+
+        todo.restoreTask(task);
+        todo.restoreTask(task);
+
+        assertSame(task, todo.getTaskView(task.getId()), "Restored tasks should be stored without copying");
+        assertEquals(1, todo.getTaskViews().size(), "Do not restore same task twice!");
+        assertThrows(IllegalArgumentException.class, () -> todo.restoreTask(null));
+    }
 }
@@ -45,6 +45,20 @@ class TransactionTest
         assertEquals(original.getAmount(), copy.getAmount(), "Amount should be equal.");
     }
 
+    @Test
+    void testTransactionInCents()
+    {
+        BankAccount sender = new BankAccount();
+        BankAccount receiver = new BankAccount();
+
+        Transaction transaction = Transaction.ofCents(sender, receiver, 21005);
+
+        assertEquals(21005, transaction.getAmountCents(), "Amount in cents should be equal.");
+        assertEquals(210.05, transaction.getAmount(), "Amount should be converted from cents.");
+        assertEquals(21005, new Transaction(sender, receiver, 210.05).getAmountCents(), "Amount should be rounded to cents.");
+        assertThrows(IllegalArgumentException.class, () -> Transaction.ofCents(sender, receiver, 0));
+    }
+
     @ParameterizedTest
     @MethodSource("invalidTransactionArgumentsProvider")
     void testTransactionInitializationWithInvalidArguments(
@@ -0,0 +1,384 @@
+package de.tudl.learning.ljw2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A read-only contact file in a compact binary format, read through a memory-mapped buffer.
+ * <p>
+ * Opening the store only checks the header, no contact is decoded. Lookups by id are a binary search
+ * over the offset table and return a {@link MappedContact} that decodes its fields on access.
+ * </p>
+ * <p>
+ * The file is laid out as follows, all numbers big-endian:
+ * <pre>
+ * header   int magic, int version, int count, int reserved, long tableOffset
+ * records  long idMsb, long idLsb, then name, phone number and email, each as int length and UTF-8 bytes
+ * table    count entries of long idMsb, long idLsb, long recordOffset, sorted by id
+ * </pre>
+ * Records are stored in the order they were written, the table is sorted for the lookups.
+ * The whole file is mapped at once and must therefore be smaller than 2 GB.
+ * </p>
+ */
+public final class BinaryContactStore {
+
+    private static final int MAGIC = 0x4C4A5743; // "LJWC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    private static final int TABLE_ENTRY_SIZE = 3 * Long.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableOffset;
+
+    private BinaryContactStore(ByteBuffer buffer, int count, int tableOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.tableOffset = tableOffset;
+    }
+
+    /**
+     * Maps the given binary contact file into memory.
+     *
+     * @param file the file written by {@link #write(Path, Iterator)}
+     * @return the opened store
+     * @throws IOException if the file cannot be read or is not a valid binary contact file
+     */
+    public static BinaryContactStore open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary contact file is too large to be mapped: " + file);
+            }
+
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary contact file: " + file);
+        }
+
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported binary contact file version " + buffer.getInt(Integer.BYTES));
+        }
+
+        int count = buffer.getInt(2 * Integer.BYTES);
+        long tableOffset = buffer.getLong(4 * Integer.BYTES);
+
+        if (count < 0 || tableOffset < HEADER_SIZE
+                || tableOffset + (long) count * TABLE_ENTRY_SIZE != buffer.capacity()) {
+            throw new IOException("Corrupted binary contact file: " + file);
+        }
+
+        return new BinaryContactStore(buffer, count, (int) tableOffset);
+    }
+
+    /**
+     * Writes the contacts to a binary contact file. The file is written to a temporary file next to the target
+     * and atomically moved into place, so readers never see a partial file.
+     *
+     * @param file     the target file
+     * @param contacts the contacts to write, consumed in order
+     * @throws IOException              if the file cannot be written, the previous file is left unchanged
+     * @throws IllegalArgumentException if two contacts have the same id or a contact has no id
+     */
+    public static void write(Path file, Iterator<Contact> contacts) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+        try {
+            List<TableEntry> table = new ArrayList<>();
+            long tableOffset = HEADER_SIZE;
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile.toFile()), BUFFER_SIZE))) {
+                // The header is written last, when count and table offset are known.
+                out.write(new byte[HEADER_SIZE]);
+
+                while (contacts.hasNext()) {
+                    Contact contact = contacts.next();
+
+                    if (contact.id() == null) {
+                        throw new IllegalArgumentException("Contact id should not be null!");
+                    }
+
+                    table.add(new TableEntry(contact.id().getMostSignificantBits(), contact.id().getLeastSignificantBits(), tableOffset));
+                    out.writeLong(contact.id().getMostSignificantBits());
+                    out.writeLong(contact.id().getLeastSignificantBits());
+                    tableOffset += 2 * Long.BYTES;
+                    tableOffset += writeString(out, contact.name());
+                    tableOffset += writeString(out, contact.phoneNumber());
+                    tableOffset += writeString(out, contact.email());
+                }
+
+                table.sort(Comparator.comparingLong(TableEntry::msb).thenComparingLong(TableEntry::lsb));
+
+                for (int i = 0; i < table.size(); i++) {
+                    TableEntry entry = table.get(i);
+
+                    if (i > 0 && compare(table.get(i - 1), entry.msb(), entry.lsb()) == 0) {
+                        throw new IllegalArgumentException("Duplicate contact id " + new UUID(entry.msb(), entry.lsb()));
+                    }
+
+                    out.writeLong(entry.msb());
+                    out.writeLong(entry.lsb());
+                    out.writeLong(entry.offset());
+                }
+
+                out.flush();
+            }
+
+            if (tableOffset + (long) table.size() * TABLE_ENTRY_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("Too many contacts for a binary contact file");
+            }
+
+            writeHeader(tempFile, table.size(), tableOffset);
+
+            moveIntoPlace(tempFile, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of contacts in the store.
+     *
+     * @return the number of contacts
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Finds the contact with the given id without decoding any of its fields.
+     *
+     * @param id the id of the contact
+     * @return the contact, or an empty optional if no contact has this id
+     * @throws IllegalArgumentException if the id is null
+     */
+    public Optional<MappedContact> find(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = tableOffset + middle * TABLE_ENTRY_SIZE;
+            int comparison = Long.compare(buffer.getLong(entry), msb);
+
+            if (comparison == 0) {
+                comparison = Long.compare(buffer.getLong(entry + Long.BYTES), lsb);
+            }
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return Optional.of(new MappedContact(buffer, (int) buffer.getLong(entry + 2 * Long.BYTES)));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Returns all contacts in the order they were written. The fields are decoded lazily.
+     *
+     * @return a stream of the contacts
+     */
+    public Stream<MappedContact> stream() {
+        Iterator<MappedContact> iterator = new Iterator<>() {
+            private int position = HEADER_SIZE;
+
+            @Override
+            public boolean hasNext() {
+                return position < tableOffset;
+            }
+
+            @Override
+            public MappedContact next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                MappedContact contact = new MappedContact(buffer, position);
+                position = contact.end();
+                return contact;
+            }
+        };
+
+        return StreamSupport.stream(
+                Spliterators.spliterator(iterator, count, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        );
+    }
+
+    private static int writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    private static void writeHeader(Path file, int count, long tableOffset) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(0);
+            out.writeLong(tableOffset);
+            // Syncs the records and the table written before together with the header.
+            out.getFD().sync();
+        }
+    }
+
+    private static int compare(TableEntry entry, long msb, long lsb) {
+        int comparison = Long.compare(entry.msb(), msb);
+        return comparison != 0 ? comparison : Long.compare(entry.lsb(), lsb);
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record TableEntry(long msb, long lsb, long offset) {
+    }
+
+    /**
+     * A contact inside the mapped file. The fields are decoded from the mapped bytes on every access.
+     */
+    public static final class MappedContact {
+
+        private final ByteBuffer buffer;
+        private final int offset;
+
+        private MappedContact(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        /**
+         * Returns the id of the contact.
+         *
+         * @return the id
+         */
+        public UUID id() {
+            return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+        }
+
+        /**
+         * Returns the name of the contact.
+         *
+         * @return the decoded name
+         */
+        public String name() {
+            return readString(nameOffset());
+        }
+
+        /**
+         * Returns the phone number of the contact.
+         *
+         * @return the decoded phone number
+         */
+        public String phoneNumber() {
+            return readString(phoneNumberOffset());
+        }
+
+        /**
+         * Returns the email address of the contact.
+         *
+         * @return the decoded email address
+         */
+        public String email() {
+            return readString(emailOffset());
+        }
+
+        /**
+         * Decodes all fields into a validated {@link Contact}.
+         *
+         * @return the contact
+         * @throws IllegalArgumentException if the stored fields are not valid
+         */
+        public Contact toContact() {
+            return new Contact(id(), name(), phoneNumber(), email());
+        }
+
+        private int nameOffset() {
+            return offset + 2 * Long.BYTES;
+        }
+
+        private int phoneNumberOffset() {
+            return skipString(nameOffset());
+        }
+
+        private int emailOffset() {
+            return skipString(phoneNumberOffset());
+        }
+
+        private int end() {
+            return skipString(emailOffset());
+        }
+
+        private int skipString(int position) {
+            return position + Integer.BYTES + buffer.getInt(position);
+        }
+
+        private String readString(int position) {
+            int length = buffer.getInt(position);
+
+            if (length < 0 || position + Integer.BYTES + length > buffer.limit()) {
+                throw new BufferUnderflowException();
+            }
+
+            byte[] bytes = new byte[length];
+            buffer.get(position + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return "MappedContact[id=" + id() + ", name=" + name() + "]";
+        }
+    }
+}
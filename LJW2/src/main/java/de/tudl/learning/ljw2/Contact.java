@@ -1,7 +1,6 @@
 package de.tudl.learning.ljw2;
 
 import java.util.UUID;
-import java.util.regex.Pattern;
 
 /**
  * Represents a contact with a unique ID, name, phone number, and email address.
@@ -86,9 +85,6 @@ public record Contact(UUID id, String name, String phoneNumber, String email) {
      * @throws IllegalArgumentException if the phone number is null, empty, or invalid
      */
     private static void validatePhoneNumber(String phoneNumber) {
-        // Matches German phone numbers starting with 0 or +49 followed by the numbers 1-9 and 1-14 digits between 0-9
-        String regex = "^((\\+49)|0)[1-9]\\d{1,14}$";
-
         if (phoneNumber == null) {
             throw new IllegalArgumentException("Phone number should not be null!");
         }
@@ -97,7 +93,8 @@ public record Contact(UUID id, String name, String phoneNumber, String email) {
             throw new IllegalArgumentException("Phone number should not be empty!");
         }
 
-        if (!Pattern.matches(regex, phoneNumber.replaceAll("\\s", ""))) {
+        // Matches German phone numbers starting with 0 or +49 followed by the numbers 1-9 and 1-14 digits between 0-9
+        if (!ContactValidator.isValidPhoneNumber(phoneNumber)) {
             throw new IllegalArgumentException("Phone number must be valid!");
         }
     }
@@ -109,9 +106,6 @@ public record Contact(UUID id, String name, String phoneNumber, String email) {
      * @throws IllegalArgumentException if the email is null, empty, or invalid
      */
     private static void validateEmail(String email) {
-        // Matches email addresses containing letters, digits, dots, underscores, percent signs, plus signs, and hyphens.
-        String regex = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
-
         if (email == null) {
             throw new IllegalArgumentException("Email should not be null!");
         }
@@ -120,7 +114,8 @@ public record Contact(UUID id, String name, String phoneNumber, String email) {
             throw new IllegalArgumentException("Email should not be empty!");
         }
 
-        if (!Pattern.matches(regex, email.trim())) {
+        // Matches email addresses containing letters, digits, dots, underscores, percent signs, plus signs, and hyphens.
+        if (!ContactValidator.isValidEmail(email)) {
             throw new IllegalArgumentException("Email must be valid!");
         }
     }
@@ -0,0 +1,337 @@
+package de.tudl.learning.ljw2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * An in-memory collection of contacts with indexes for the common lookups.
+ * <p>
+ * Contacts are indexed by id, by normalized email address, by normalized phone number and by name.
+ * Email addresses are compared without surrounding whitespace and case, phone numbers without whitespace
+ * and with the prefix +49 treated like 0. The name index is sorted and answers prefix queries for
+ * autocompletion. Every change goes through this class, so the indexes always match the contacts.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class ContactBook {
+
+    private final Map<UUID, Contact> contactsById = new LinkedHashMap<>();
+
+    /*
+     * The secondary indexes map a key to the contacts with this key. Most keys are unique, so a single contact
+     * is held in a compact immutable list, which is replaced by an ArrayList once a second contact shares the key
+     * and again by an immutable list when only one is left. A list of size 1 is therefore never modified.
+     */
+    private final Map<String, List<Contact>> contactsByEmail = new HashMap<>();
+    private final Map<String, List<Contact>> contactsByPhoneNumber = new HashMap<>();
+    private final NavigableMap<String, List<Contact>> contactsByName = new TreeMap<>();
+    private final Collection<Contact> contactViews = Collections.unmodifiableCollection(contactsById.values());
+
+    /**
+     * Constructs an empty contact book.
+     */
+    public ContactBook() {
+    }
+
+    /**
+     * Constructs a contact book holding the given contacts.
+     *
+     * @param contacts the contacts to add
+     * @throws IllegalArgumentException if a contact is null, has no id or two contacts have the same id
+     */
+    public ContactBook(Collection<Contact> contacts) {
+        if (contacts == null) {
+            throw new IllegalArgumentException("Contacts should not be null!");
+        }
+
+        contacts.forEach(this::add);
+    }
+
+    /**
+     * Adds a contact to the book.
+     *
+     * @param contact the contact to add
+     * @throws IllegalArgumentException if the contact is null, has no id or a contact with the same id exists
+     */
+    public void add(Contact contact) {
+        validateContact(contact);
+
+        if (contactsById.containsKey(contact.id())) {
+            throw new IllegalArgumentException("Contact with id " + contact.id() + " already exists!");
+        }
+
+        contactsById.put(contact.id(), contact);
+        index(contact);
+    }
+
+    /**
+     * Replaces the contact with the same id and updates the indexes.
+     *
+     * @param contact the updated contact
+     * @throws IllegalArgumentException if the contact is null or has no id
+     * @throws NoSuchElementException   if no contact with the same id exists
+     */
+    public void update(Contact contact) {
+        validateContact(contact);
+
+        Contact previous = contactsById.get(contact.id());
+
+        if (previous == null) {
+            throw new NoSuchElementException("No contact found with id " + contact.id());
+        }
+
+        if (previous.equals(contact)) {
+            return;
+        }
+
+        unindex(previous);
+        contactsById.put(contact.id(), contact);
+        index(contact);
+    }
+
+    /**
+     * Applies a change to the contact with the given id, for example {@code book.update(id, c -> c.withEmail(email))}.
+     *
+     * @param id     the id of the contact
+     * @param change the function returning the changed contact, it must keep the id
+     * @return the changed contact
+     * @throws IllegalArgumentException if an argument is null or the change returns a different id
+     * @throws NoSuchElementException   if no contact with the id exists
+     */
+    public Contact update(UUID id, UnaryOperator<Contact> change) {
+        if (change == null) {
+            throw new IllegalArgumentException("Change should not be null!");
+        }
+
+        Contact changed = change.apply(get(id).orElseThrow(() -> new NoSuchElementException("No contact found with id " + id)));
+
+        if (changed == null || !id.equals(changed.id())) {
+            throw new IllegalArgumentException("Change should keep the id of the contact!");
+        }
+
+        update(changed);
+        return changed;
+    }
+
+    /**
+     * Removes the contact with the given id.
+     *
+     * @param id the id of the contact
+     * @return the removed contact
+     * @throws IllegalArgumentException if the id is null
+     * @throws NoSuchElementException   if no contact with the id exists
+     */
+    public Contact remove(UUID id) {
+        validateId(id);
+
+        Contact removed = contactsById.remove(id);
+
+        if (removed == null) {
+            throw new NoSuchElementException("No contact found with id " + id);
+        }
+
+        unindex(removed);
+        return removed;
+    }
+
+    /**
+     * Returns the contact with the given id.
+     *
+     * @param id the id of the contact
+     * @return the contact, or an empty optional if no contact has this id
+     * @throws IllegalArgumentException if the id is null
+     */
+    public Optional<Contact> get(UUID id) {
+        validateId(id);
+        return Optional.ofNullable(contactsById.get(id));
+    }
+
+    /**
+     * Returns all contacts with the given email address, ignoring case and surrounding whitespace.
+     *
+     * @param email the email address
+     * @return the matching contacts in the order they were indexed
+     */
+    public List<Contact> findByEmail(String email) {
+        return email == null ? List.of() : lookup(contactsByEmail.get(normalizeEmail(email)));
+    }
+
+    /**
+     * Returns all contacts with the given phone number, ignoring whitespace and treating +49 like 0.
+     *
+     * @param phoneNumber the phone number
+     * @return the matching contacts in the order they were indexed
+     */
+    public List<Contact> findByPhoneNumber(String phoneNumber) {
+        return phoneNumber == null ? List.of() : lookup(contactsByPhoneNumber.get(normalizePhoneNumber(phoneNumber)));
+    }
+
+    /**
+     * Returns the contacts whose name starts with the given prefix, ignoring case, sorted by name.
+     *
+     * @param prefix the start of the name
+     * @param limit  the maximum number of contacts to return
+     * @return at most {@code limit} matching contacts
+     * @throws IllegalArgumentException if the prefix is null or the limit is negative
+     */
+    public List<Contact> findByNamePrefix(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix should not be null!");
+        }
+
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit should not be negative!");
+        }
+
+        String normalized = normalizeName(prefix);
+        List<Contact> contacts = new ArrayList<>(Math.min(limit, 16));
+
+        // Every name with the prefix sorts between the prefix itself and the prefix followed by the largest char.
+        for (List<Contact> matches : contactsByName.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            for (Contact contact : matches) {
+                if (contacts.size() == limit) return contacts;
+
+                contacts.add(contact);
+            }
+        }
+
+        return contacts;
+    }
+
+    /**
+     * Returns a read-only view of all contacts in the order they were added.
+     *
+     * @return an unmodifiable collection of the contacts
+     */
+    public Collection<Contact> getContacts() {
+        return contactViews;
+    }
+
+    /**
+     * Returns the number of contacts.
+     *
+     * @return the number of contacts
+     */
+    public int size() {
+        return contactsById.size();
+    }
+
+    /**
+     * Normalizes an email address for the index by removing surrounding whitespace and lowering the case.
+     *
+     * @param email the email address
+     * @return the normalized email address
+     */
+    static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalizes a phone number for the index by removing whitespace and replacing the prefix +49 by 0.
+     *
+     * @param phoneNumber the phone number
+     * @return the normalized phone number
+     */
+    static String normalizePhoneNumber(String phoneNumber) {
+        if (isNormalizedPhoneNumber(phoneNumber)) return phoneNumber;
+
+        StringBuilder normalized = new StringBuilder(phoneNumber.length());
+
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+
+        if (normalized.length() >= 3 && normalized.charAt(0) == '+' && normalized.charAt(1) == '4' && normalized.charAt(2) == '9') {
+            normalized.replace(0, 3, "0");
+        }
+
+        return normalized.toString();
+    }
+
+    private static boolean isNormalizedPhoneNumber(String phoneNumber) {
+        if (phoneNumber.startsWith("+49")) return false;
+
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            if (Character.isWhitespace(phoneNumber.charAt(i))) return false;
+        }
+
+        return true;
+    }
+
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private void index(Contact contact) {
+        addToIndex(contactsByEmail, normalizeEmail(contact.email()), contact);
+        addToIndex(contactsByPhoneNumber, normalizePhoneNumber(contact.phoneNumber()), contact);
+        addToIndex(contactsByName, normalizeName(contact.name()), contact);
+    }
+
+    private void unindex(Contact contact) {
+        removeFromIndex(contactsByEmail, normalizeEmail(contact.email()), contact);
+        removeFromIndex(contactsByPhoneNumber, normalizePhoneNumber(contact.phoneNumber()), contact);
+        removeFromIndex(contactsByName, normalizeName(contact.name()), contact);
+    }
+
+    private static void addToIndex(Map<String, List<Contact>> index, String key, Contact contact) {
+        index.merge(key, List.of(contact), (existing, added) -> {
+            if (existing.size() == 1) {
+                List<Contact> contacts = new ArrayList<>(2);
+                contacts.add(existing.get(0));
+                contacts.add(contact);
+                return contacts;
+            }
+
+            existing.add(contact);
+            return existing;
+        });
+    }
+
+    private static void removeFromIndex(Map<String, List<Contact>> index, String key, Contact contact) {
+        index.computeIfPresent(key, (k, existing) -> {
+            if (existing.size() == 1) {
+                return existing.get(0).id().equals(contact.id()) ? null : existing;
+            }
+
+            existing.removeIf(c -> c.id().equals(contact.id()));
+            return existing.size() == 1 ? List.of(existing.get(0)) : existing;
+        });
+    }
+
+    private static List<Contact> lookup(List<Contact> contacts) {
+        return contacts == null ? List.of() : List.copyOf(contacts);
+    }
+
+    private static void validateContact(Contact contact) {
+        if (contact == null) {
+            throw new IllegalArgumentException("Contact should not be null!");
+        }
+
+        validateId(contact.id());
+    }
+
+    private static void validateId(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id should not be null!");
+        }
+    }
+}
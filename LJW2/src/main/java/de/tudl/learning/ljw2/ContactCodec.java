@@ -0,0 +1,127 @@
+package de.tudl.learning.ljw2;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The shared Jackson configuration for reading and writing contacts.
+ * <p>
+ * Building an {@link ObjectMapper} and resolving the serializers of a type is the expensive part of Jackson,
+ * so all file services share one preconfigured mapper and the readers and writers derived from it. Readers
+ * and writers are immutable and thread-safe and keep their resolved (de)serializers between calls.
+ * </p>
+ * <p>
+ * If the Jackson Blackbird module is on the class path, it is registered to replace reflection with
+ * generated accessors. It can be switched off with the system property {@value #BLACKBIRD_PROPERTY}{@code =false}.
+ * </p>
+ */
+public final class ContactCodec {
+
+    /**
+     * The system property deciding whether the Blackbird module is registered when it is available.
+     */
+    public static final String BLACKBIRD_PROPERTY = "ljw2.jackson.blackbird";
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final Logger LOGGER = Logger.getLogger(ContactCodec.class.getName());
+    private static final ContactCodec SHARED = new ContactCodec(Boolean.parseBoolean(System.getProperty(BLACKBIRD_PROPERTY, "true")));
+
+    private final ObjectMapper mapper;
+    private final ObjectReader contactReader;
+    private final ObjectWriter contactWriter;
+    private final boolean blackbird;
+
+    private ContactCodec(boolean useBlackbird) {
+        this.mapper = new ObjectMapper();
+        this.blackbird = useBlackbird && registerBlackbird(mapper);
+        this.contactReader = mapper.readerFor(Contact.class);
+        // Streaming writers flush once at the end, flushing after every contact would defeat their buffer.
+        this.contactWriter = mapper.writerFor(Contact.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Returns the codec shared by all file services.
+     *
+     * @return the shared codec
+     */
+    public static ContactCodec shared() {
+        return SHARED;
+    }
+
+    /**
+     * Creates a codec of its own, for example to compare the configurations.
+     *
+     * @param useBlackbird whether the Blackbird module is registered when it is available
+     * @return a new codec
+     */
+    public static ContactCodec create(boolean useBlackbird) {
+        return new ContactCodec(useBlackbird);
+    }
+
+    /**
+     * Returns the mapper, for types other than contacts. It must not be reconfigured.
+     *
+     * @return the shared mapper
+     */
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the factory for streaming parsers and generators.
+     *
+     * @return the factory of the mapper
+     */
+    public JsonFactory factory() {
+        return mapper.getFactory();
+    }
+
+    /**
+     * Returns the reader of a single contact.
+     *
+     * @return the contact reader
+     */
+    public ObjectReader contactReader() {
+        return contactReader;
+    }
+
+    /**
+     * Returns the writer of a single contact. It does not flush after each value.
+     *
+     * @return the contact writer
+     */
+    public ObjectWriter contactWriter() {
+        return contactWriter;
+    }
+
+    /**
+     * Returns whether the Blackbird module is registered.
+     *
+     * @return {@code true} if Blackbird is used
+     */
+    public boolean usesBlackbird() {
+        return blackbird;
+    }
+
+    /**
+     * Registers the Blackbird module by reflection, so it stays an optional dependency.
+     */
+    private static boolean registerBlackbird(ObjectMapper mapper) {
+        try {
+            Class<?> moduleClass = Class.forName(BLACKBIRD_MODULE);
+            mapper.registerModule((Module) moduleClass.getDeclaredConstructor().newInstance());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.log(Level.INFO, "cannot register the Jackson Blackbird module", e);
+            return false;
+        }
+    }
+}
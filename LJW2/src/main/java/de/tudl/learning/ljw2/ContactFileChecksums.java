@@ -0,0 +1,264 @@
+package de.tudl.learning.ljw2;
+
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes the checksum file next to a contacts file.
+ * <p>
+ * The contacts file is split into blocks of {@value #BLOCK_SIZE} bytes and the CRC32C of every block is stored
+ * in {@code <file>.crc}, followed by a footer:
+ * </p>
+ * <pre>
+ * int[blockCount] checksums
+ * int             magic
+ * int             version
+ * int             block size
+ * int             block count
+ * long            file length
+ * int             CRC32C of everything before
+ * </pre>
+ * <p>
+ * Keeping the checksums in a file of their own leaves the contacts file plain JSON for every other reader.
+ * The checksums are computed while the contacts file is written, and verifying it only reads its bytes,
+ * without binding any objects.
+ * </p>
+ */
+final class ContactFileChecksums {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final String EXTENSION = ".crc";
+
+    private static final int MAGIC = 0x4C4A4343;
+    private static final int VERSION = 1;
+    private static final int FOOTER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+    private ContactFileChecksums() {
+    }
+
+    /**
+     * Returns the checksum file of a contacts file.
+     *
+     * @param file the contacts file
+     * @return the path of its checksum file
+     */
+    static Path checksumFileOf(Path file) {
+        return file.resolveSibling(file.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Writes the checksums collected by the stream to the given file and syncs it.
+     *
+     * @param checksumFile the file to write
+     * @param stream       the finished stream the contacts file was written through
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path checksumFile, ChecksumOutputStream stream) throws IOException {
+        int[] checksums = stream.checksums();
+        ByteBuffer buffer = ByteBuffer.allocate(checksums.length * Integer.BYTES + FOOTER_SIZE);
+
+        buffer.asIntBuffer().put(checksums);
+        buffer.position(checksums.length * Integer.BYTES);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(BLOCK_SIZE)
+                .putInt(checksums.length)
+                .putLong(stream.length());
+        buffer.putInt(crc(buffer.array(), buffer.position()));
+
+        try (FileOutputStream out = new FileOutputStream(checksumFile.toFile())) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Compares the blocks of the file with the stored checksums.
+     *
+     * @param file the contacts file
+     * @return the report, not verifiable if the checksum file is missing or damaged
+     * @throws IOException if the contacts file cannot be read
+     */
+    static IntegrityReport verify(Path file) throws IOException {
+        int[] expected = readChecksums(checksumFileOf(file));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+
+            if (expected == null) {
+                return new IntegrityReport(false, length, BLOCK_SIZE, List.of());
+            }
+
+            int[] actual = compute(channel);
+            List<Integer> damagedBlocks = new ArrayList<>();
+
+            for (int block = 0; block < Math.max(actual.length, expected.length); block++) {
+                if (block >= actual.length || block >= expected.length || actual[block] != expected[block]) {
+                    damagedBlocks.add(block);
+                }
+            }
+
+            return new IntegrityReport(true, length, BLOCK_SIZE, damagedBlocks);
+        }
+    }
+
+    /**
+     * Computes the block checksums of the content of the channel, starting at its beginning.
+     *
+     * @param channel the channel to read
+     * @return the checksum of every block
+     * @throws IOException if the channel cannot be read
+     */
+    static int[] compute(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_SIZE);
+        CRC32C crc = new CRC32C();
+        int[] checksums = new int[(int) ((channel.size() + BLOCK_SIZE - 1) / BLOCK_SIZE)];
+        int block = 0;
+
+        channel.position(0);
+        while (readBlock(channel, buffer)) {
+            if (block == checksums.length) {
+                checksums = Arrays.copyOf(checksums, block + 1);
+            }
+
+            crc.reset();
+            crc.update(buffer.flip());
+            checksums[block++] = (int) crc.getValue();
+            buffer.clear();
+        }
+
+        return block == checksums.length ? checksums : Arrays.copyOf(checksums, block);
+    }
+
+    /**
+     * Reads the checksums, or returns {@code null} if the checksum file is missing or not valid.
+     */
+    private static int[] readChecksums(Path checksumFile) throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(checksumFile);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (content.length < FOOTER_SIZE || (content.length - FOOTER_SIZE) % Integer.BYTES != 0) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        int blockCount = (content.length - FOOTER_SIZE) / Integer.BYTES;
+        buffer.position(blockCount * Integer.BYTES);
+
+        if (buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getInt() != BLOCK_SIZE
+                || buffer.getInt() != blockCount) {
+            return null;
+        }
+
+        buffer.getLong();
+        if (buffer.getInt() != crc(content, content.length - Integer.BYTES)) {
+            return null;
+        }
+
+        int[] checksums = new int[blockCount];
+        ByteBuffer.wrap(content, 0, blockCount * Integer.BYTES).asIntBuffer().get(checksums);
+        return checksums;
+    }
+
+    private static boolean readBlock(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) break;
+        }
+
+        return buffer.position() > 0;
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Computes the block checksums of everything written through it.
+     */
+    static final class ChecksumOutputStream extends FilterOutputStream {
+
+        private final CRC32C crc = new CRC32C();
+        private int[] checksums = new int[16];
+        private int blockCount;
+        private int blockFill;
+        private long length;
+
+        ChecksumOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            length++;
+
+            if (++blockFill == BLOCK_SIZE) {
+                finishBlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            this.length += length;
+
+            while (length > 0) {
+                int chunk = Math.min(length, BLOCK_SIZE - blockFill);
+                crc.update(bytes, offset, chunk);
+                blockFill += chunk;
+                offset += chunk;
+                length -= chunk;
+
+                if (blockFill == BLOCK_SIZE) {
+                    finishBlock();
+                }
+            }
+        }
+
+        private void finishBlock() {
+            if (blockCount == checksums.length) {
+                checksums = Arrays.copyOf(checksums, blockCount * 2);
+            }
+
+            checksums[blockCount++] = (int) crc.getValue();
+            crc.reset();
+            blockFill = 0;
+        }
+
+        /**
+         * Returns the checksums of all blocks written so far, including the last partial block.
+         */
+        int[] checksums() {
+            if (blockFill > 0) {
+                finishBlock();
+            }
+
+            return Arrays.copyOf(checksums, blockCount);
+        }
+
+        long length() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package de.tudl.learning.ljw2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Converts contact files between the JSON format of {@link JsonFileService} and the binary format
+ * of {@link BinaryContactStore}. Both directions stream the contacts, so neither file is held in memory.
+ */
+public final class ContactFileConverter {
+
+    private ContactFileConverter() {
+    }
+
+    /**
+     * Converts the JSON contact file of the given service into a binary contact file.
+     *
+     * @param source the service reading the JSON file
+     * @param target the binary contact file to write
+     * @throws IOException if the JSON file cannot be read or the binary file cannot be written
+     */
+    public static void jsonToBinary(JsonFileService source, Path target) throws IOException {
+        try (Stream<Contact> contacts = source.streamFromFile()) {
+            BinaryContactStore.write(target, contacts.iterator());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Converts a binary contact file into the JSON contact file of the given service.
+     *
+     * @param source the binary contact file to read
+     * @param target the service writing the JSON file
+     * @throws IOException if the binary file cannot be read or the JSON file cannot be written
+     */
+    public static void binaryToJson(Path source, JsonFileService target) throws IOException {
+        BinaryContactStore store = BinaryContactStore.open(source);
+        target.writeToFile(store.stream().map(BinaryContactStore.MappedContact::toContact));
+    }
+}
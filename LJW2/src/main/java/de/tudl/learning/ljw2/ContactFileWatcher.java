@@ -0,0 +1,302 @@
+package de.tudl.learning.ljw2;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Keeps an up to date snapshot of a contacts file that other processes write to.
+ * <p>
+ * A {@link WatchService} on the directory of the file reports changes. A burst of changes, like the two moves
+ * of a {@link JsonFileService#writeToFile(java.util.Iterator) write}, is collected until the file has been quiet
+ * for the debounce time and then reloaded once. The new snapshot is published through an {@link AtomicReference},
+ * so readers never block and always see a complete state.
+ * </p>
+ * <p>
+ * A reload first computes the block checksums of the file, see {@link ContactFileChecksums}. If no block
+ * changed, nothing is parsed. Otherwise the contacts that lie entirely before the first changed block are
+ * kept and only the rest of the file is parsed. Gzip files are always parsed completely. If the file cannot
+ * be parsed, e.g. because another process writes it in place, the previous snapshot is kept until the next change.
+ * </p>
+ */
+public class ContactFileWatcher implements Closeable {
+
+    private final Path file;
+    private final Duration debounce;
+    private final ContactCodec codec = ContactCodec.shared();
+    private final AtomicReference<ContactSnapshot> snapshot = new AtomicReference<>();
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final WatchService watchService;
+
+    private LoadedFile loaded;
+    private long fullReloads;
+    private long incrementalReloads;
+
+    /**
+     * Starts watching the file and loads it.
+     *
+     * @param fileService the service of the file to watch
+     * @param debounce    how long the file has to be quiet after a change before it is reloaded
+     * @throws IOException              if the file cannot be loaded or watched
+     * @throws IllegalArgumentException if an argument is null or the debounce time is negative
+     */
+    public ContactFileWatcher(JsonFileService fileService, Duration debounce) throws IOException {
+        if (fileService == null || debounce == null || debounce.isNegative()) {
+            throw new IllegalArgumentException("File service and a non-negative debounce time should be given!");
+        }
+
+        this.file = Path.of(fileService.getFilePath()).toAbsolutePath();
+        this.debounce = debounce;
+
+        // Register before the first load, so a write landing in between is still seen as a change.
+        this.watchService = file.getFileSystem().newWatchService();
+        try {
+            file.getParent().register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY
+            );
+            reload();
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        Thread watchThread = new Thread(this::watch, "contact-file-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Returns the latest snapshot without blocking.
+     *
+     * @return the current snapshot
+     */
+    public ContactSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the current contacts.
+     *
+     * @return the unmodifiable contacts of the latest snapshot
+     */
+    public List<Contact> getContacts() {
+        return snapshot.get().contacts();
+    }
+
+    /**
+     * Returns how often the whole file was parsed.
+     *
+     * @return the number of full reloads, including the first load
+     */
+    public synchronized long getFullReloads() {
+        return fullReloads;
+    }
+
+    /**
+     * Returns how often only the changed end of the file was parsed.
+     *
+     * @return the number of incremental reloads
+     */
+    public synchronized long getIncrementalReloads() {
+        return incrementalReloads;
+    }
+
+    /**
+     * Reloads the file now and publishes a new snapshot if it changed.
+     *
+     * @return {@code true} if a new snapshot was published
+     * @throws IOException if the file cannot be read or parsed, the previous snapshot is kept
+     */
+    public synchronized boolean reload() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int[] checksums = ContactFileChecksums.compute(channel);
+
+            if (loaded != null && Arrays.equals(loaded.checksums, checksums)) {
+                return false;
+            }
+
+            boolean compressed = isCompressed(channel);
+            int resumeIndex = loaded == null || compressed || loaded.compressed ? 0 : resumeIndex(checksums);
+            LoadedFile next = resumeIndex == 0
+                    ? parse(channel, checksums, compressed, List.of(), 0)
+                    : parse(channel, checksums, false, loaded.contacts.subList(0, resumeIndex), loaded.starts[resumeIndex]);
+
+            if (resumeIndex == 0) {
+                fullReloads++;
+            } else {
+                incrementalReloads++;
+            }
+
+            ContactSnapshot previous = snapshot.get();
+            loaded = next;
+            snapshot.set(new ContactSnapshot(
+                    Collections.unmodifiableList(next.contacts),
+                    previous == null ? 1 : previous.version() + 1
+            ));
+            return true;
+        }
+    }
+
+    /**
+     * Stops watching the file. The last snapshot stays available.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = isFileEvent(watchService.take());
+
+                // Wait for the burst to end, the debounce time starts over with every event.
+                WatchKey key;
+                while ((key = watchService.poll(debounce.toNanos(), TimeUnit.NANOSECONDS)) != null) {
+                    changed |= isFileEvent(key);
+                }
+
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        logger.log(Level.WARNING, "cannot reload contacts from " + file, e);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // The watcher was closed.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isFileEvent(WatchKey key) {
+        boolean fileEvent = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                fileEvent = true;
+            }
+        }
+
+        key.reset();
+        return fileEvent;
+    }
+
+    /**
+     * Returns the index of the first contact to parse again. The bytes before the first changed block are
+     * the same, so every contact that ends before it is the same, and the contact after them still starts
+     * where it did.
+     */
+    private int resumeIndex(int[] checksums) {
+        long changeOffset = (long) Arrays.mismatch(loaded.checksums, checksums) * ContactFileChecksums.BLOCK_SIZE;
+        int count = loaded.contacts.size();
+
+        // The first contact ending after the change.
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (loaded.ends[middle] <= changeOffset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int index = low;
+
+        if (index == count || loaded.starts[index] >= changeOffset) {
+            index--;
+        }
+
+        return Math.max(index, 0);
+    }
+
+    private static boolean isCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        channel.read(magic, 0);
+
+        return magic.position() == 2 && ((magic.get(0) & 0xff) | (magic.get(1) & 0xff) << 8) == GZIPInputStream.GZIP_MAGIC;
+    }
+
+    /**
+     * Parses the contacts from the given offset on. Starting in the middle, the elements are prefixed
+     * with the opening bracket of the array, so they are read like a complete array.
+     */
+    private LoadedFile parse(FileChannel channel, int[] checksums, boolean compressed, List<Contact> kept, long offset)
+            throws IOException {
+        List<Contact> contacts = new ArrayList<>(kept);
+        long[] starts = kept.isEmpty() ? new long[16] : Arrays.copyOf(loaded.starts, kept.size() * 2);
+        long[] ends = kept.isEmpty() ? new long[16] : Arrays.copyOf(loaded.ends, kept.size() * 2);
+
+        channel.position(offset);
+        InputStream in = Channels.newInputStream(channel);
+        long base = 0;
+
+        if (compressed) {
+            in = new GZIPInputStream(in);
+        } else if (offset > 0) {
+            in = new SequenceInputStream(new ByteArrayInputStream(new byte[] {'['}), in);
+            base = offset - 1;
+        }
+
+        try (JsonParser parser = codec.factory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of contacts");
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of contacts array");
+                }
+
+                if (contacts.size() == starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                    ends = Arrays.copyOf(ends, ends.length * 2);
+                }
+
+                starts[contacts.size()] = base + parser.currentTokenLocation().getByteOffset();
+                Contact contact = codec.contactReader().readValue(parser);
+                ends[contacts.size()] = base + parser.currentLocation().getByteOffset();
+                contacts.add(contact);
+            }
+        }
+
+        return new LoadedFile(checksums, compressed, contacts, starts, ends);
+    }
+
+    /**
+     * The loaded version of the file, with the byte range of every contact.
+     */
+    private record LoadedFile(int[] checksums, boolean compressed, List<Contact> contacts, long[] starts, long[] ends) {
+    }
+}
@@ -0,0 +1,35 @@
+package de.tudl.learning.ljw2;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The contacts recovered from a possibly corrupted contacts file.
+ *
+ * @param contacts         the contacts that could be read, in file order
+ * @param corruptedOffsets the byte offsets of the skipped elements and other corrupted spots in ascending order,
+ *                         counted in the decompressed content for gzip files
+ * @param backup           completes when the backup of the corrupted file is written, already complete if none
+ *                         was needed
+ */
+public record ContactRecovery(List<Contact> contacts, List<Long> corruptedOffsets, CompletableFuture<Void> backup) {
+
+    /**
+     * Creates a recovery that needs no backup.
+     *
+     * @param contacts         the contacts that could be read, in file order
+     * @param corruptedOffsets the byte offsets of the corrupted spots in ascending order
+     */
+    public ContactRecovery(List<Contact> contacts, List<Long> corruptedOffsets) {
+        this(contacts, corruptedOffsets, CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * Returns whether the file was read without skipping anything.
+     *
+     * @return {@code true} if no corruption was found
+     */
+    public boolean isComplete() {
+        return corruptedOffsets.isEmpty();
+    }
+}
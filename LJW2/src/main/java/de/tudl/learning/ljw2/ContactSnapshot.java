@@ -0,0 +1,12 @@
+package de.tudl.learning.ljw2;
+
+import java.util.List;
+
+/**
+ * An immutable state of a watched contacts file.
+ *
+ * @param contacts the contacts in file order, unmodifiable
+ * @param version  the number of times the file was loaded with changes, starting with 1 for the first load
+ */
+public record ContactSnapshot(List<Contact> contacts, long version) {
+}
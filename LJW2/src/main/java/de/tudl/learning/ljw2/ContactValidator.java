@@ -0,0 +1,120 @@
+package de.tudl.learning.ljw2;
+
+/**
+ * Validates the fields of a {@link Contact} with hand-written character scanners.
+ * <p>
+ * The scanners accept exactly the same inputs as the regular expressions the contact used before, but
+ * neither compile a pattern nor allocate, which matters when many contacts are loaded at once.
+ * </p>
+ */
+public final class ContactValidator {
+
+    private ContactValidator() {
+    }
+
+    /**
+     * Checks a german phone number. Whitespace anywhere in the number is ignored, the rest must match
+     * {@code ^((\+49)|0)[1-9]\d{1,14}$}: the prefix +49 or 0, a digit between 1 and 9 and 1 to 14 more digits.
+     *
+     * @param phoneNumber the phone number to check (must not be null)
+     * @return {@code true} if the phone number is valid
+     */
+    public static boolean isValidPhoneNumber(String phoneNumber) {
+        int length = phoneNumber.length();
+        int index = skipWhitespace(phoneNumber, 0);
+
+        if (index == length) return false;
+
+        if (phoneNumber.charAt(index) == '+') {
+            index = skipWhitespace(phoneNumber, index + 1);
+            if (index == length || phoneNumber.charAt(index) != '4') return false;
+
+            index = skipWhitespace(phoneNumber, index + 1);
+            if (index == length || phoneNumber.charAt(index) != '9') return false;
+        } else if (phoneNumber.charAt(index) != '0') {
+            return false;
+        }
+
+        index = skipWhitespace(phoneNumber, index + 1);
+        if (index == length) return false;
+
+        char first = phoneNumber.charAt(index);
+        if (first < '1' || first > '9') return false;
+
+        int digits = 0;
+        for (index++; index < length; index++) {
+            char c = phoneNumber.charAt(index);
+
+            if (isWhitespace(c)) continue;
+            if (!isDigit(c) || ++digits > 14) return false;
+        }
+
+        return digits >= 1;
+    }
+
+    /**
+     * Checks an email address. Leading and trailing whitespace is ignored as by {@link String#trim()}, the rest
+     * must match {@code ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$}.
+     *
+     * @param email the email address to check (must not be null)
+     * @return {@code true} if the email address is valid
+     */
+    public static boolean isValidEmail(String email) {
+        int start = 0;
+        int end = email.length();
+
+        while (start < end && email.charAt(start) <= ' ') start++;
+        while (end > start && email.charAt(end - 1) <= ' ') end--;
+
+        int index = start;
+        while (index < end && isLocalPartChar(email.charAt(index))) index++;
+
+        if (index == start || index == end || email.charAt(index) != '@') return false;
+
+        int domainStart = index + 1;
+        int lastDot = -1;
+
+        for (index = domainStart; index < end; index++) {
+            char c = email.charAt(index);
+
+            if (c == '.') {
+                lastDot = index;
+            } else if (!isLetter(c) && !isDigit(c) && c != '-') {
+                return false;
+            }
+        }
+
+        // The top level domain after the last dot must have at least two letters and the domain before it one character.
+        if (lastDot <= domainStart || end - lastDot - 1 < 2) return false;
+
+        for (index = lastDot + 1; index < end; index++) {
+            if (!isLetter(email.charAt(index))) return false;
+        }
+
+        return true;
+    }
+
+    private static int skipWhitespace(String value, int index) {
+        while (index < value.length() && isWhitespace(value.charAt(index))) index++;
+        return index;
+    }
+
+    /**
+     * Matches the characters of {@code \s} in a regular expression.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLocalPartChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+}
@@ -0,0 +1,374 @@
+package de.tudl.learning.ljw2;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link ContactBook} in memory and saves only the contacts that changed.
+ * <p>
+ * Every add, update and remove is tracked. {@link #save()} writes the tracked changes as a small delta
+ * segment next to the main JSON file of the {@link JsonFileService}, so its cost depends on the number of
+ * changes and not on the size of the book. Once enough segments exist, a background thread merges them
+ * into the main file and deletes them. On start, the main file is loaded and the segments are applied in order.
+ * </p>
+ * <p>
+ * A segment is only deleted after the merged main file was atomically moved into place. Applying a segment
+ * twice gives the same result, so a crash during a merge loses nothing.
+ * </p>
+ * <p>
+ * The methods of this class are synchronized, the merge runs on its own thread and only touches the files.
+ * </p>
+ */
+public class IncrementalContactStore implements Closeable {
+
+    private static final String SEGMENT_INFIX = ".delta.";
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final ObjectReader segmentReader = ContactCodec.shared().mapper().readerFor(DeltaSegment.class);
+    private final ObjectWriter segmentWriter = ContactCodec.shared().mapper().writerFor(DeltaSegment.class);
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contact-segment-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JsonFileService mainFile;
+    private final int mergeThreshold;
+    private final ContactBook contactBook = new ContactBook();
+
+    private final Map<UUID, Contact> pendingUpserts = new LinkedHashMap<>();
+    private final Set<UUID> pendingRemovals = new LinkedHashSet<>();
+
+    /**
+     * The segments written but not yet merged, oldest first.
+     */
+    private final List<Path> segments = new ArrayList<>();
+    private long nextSegmentNumber = 1;
+    private CompletableFuture<Void> lastMerge = CompletableFuture.completedFuture(null);
+    private boolean mergeScheduled;
+
+    /**
+     * Loads the contacts from the main file and all delta segments next to it.
+     *
+     * @param mainFile       the service of the main JSON file
+     * @param mergeThreshold the number of segments after which a background merge starts (0 disables it)
+     * @throws IOException              if the main file or a segment cannot be read
+     * @throws IllegalArgumentException if the service is null or the threshold is negative
+     */
+    public IncrementalContactStore(JsonFileService mainFile, int mergeThreshold) throws IOException {
+        if (mainFile == null) {
+            throw new IllegalArgumentException("Main file should not be null!");
+        }
+
+        if (mergeThreshold < 0) {
+            throw new IllegalArgumentException("Merge threshold should not be negative!");
+        }
+
+        this.mainFile = mainFile;
+        this.mergeThreshold = mergeThreshold;
+
+        Map<UUID, Contact> contacts = readMainFile();
+
+        for (Path segment : findSegments()) {
+            applySegment(contacts, readSegment(segment));
+            segments.add(segment);
+            nextSegmentNumber = segmentNumber(segment) + 1;
+        }
+
+        contacts.values().forEach(contactBook::add);
+    }
+
+    /**
+     * Adds a contact and tracks it for the next save.
+     *
+     * @param contact the contact to add
+     * @throws IllegalArgumentException if the contact is invalid or its id already exists
+     * @see ContactBook#add(Contact)
+     */
+    public synchronized void add(Contact contact) {
+        contactBook.add(contact);
+        trackUpsert(contact);
+    }
+
+    /**
+     * Replaces the contact with the same id and tracks it for the next save.
+     *
+     * @param contact the updated contact
+     * @throws IllegalArgumentException if the contact is invalid
+     * @throws NoSuchElementException   if no contact with the same id exists
+     * @see ContactBook#update(Contact)
+     */
+    public synchronized void update(Contact contact) {
+        contactBook.update(contact);
+        trackUpsert(contact);
+    }
+
+    /**
+     * Applies a change to the contact with the given id and tracks it for the next save.
+     *
+     * @param id     the id of the contact
+     * @param change the function returning the changed contact, it must keep the id
+     * @return the changed contact
+     * @throws IllegalArgumentException if an argument is null or the change returns a different id
+     * @throws NoSuchElementException   if no contact with the id exists
+     * @see ContactBook#update(UUID, UnaryOperator)
+     */
+    public synchronized Contact update(UUID id, UnaryOperator<Contact> change) {
+        Contact changed = contactBook.update(id, change);
+        trackUpsert(changed);
+        return changed;
+    }
+
+    /**
+     * Removes the contact with the given id and tracks the removal for the next save.
+     *
+     * @param id the id of the contact
+     * @return the removed contact
+     * @throws IllegalArgumentException if the id is null
+     * @throws NoSuchElementException   if no contact with the id exists
+     */
+    public synchronized Contact remove(UUID id) {
+        Contact removed = contactBook.remove(id);
+        pendingUpserts.remove(id);
+        pendingRemovals.add(id);
+        return removed;
+    }
+
+    /**
+     * Returns the contact with the given id.
+     *
+     * @param id the id of the contact
+     * @return the contact, or an empty optional if no contact has this id
+     * @throws IllegalArgumentException if the id is null
+     */
+    public synchronized Optional<Contact> get(UUID id) {
+        return contactBook.get(id);
+    }
+
+    /**
+     * Returns a copy of all contacts in the order they were added.
+     *
+     * @return a list of the contacts
+     */
+    public synchronized List<Contact> getContacts() {
+        return List.copyOf(contactBook.getContacts());
+    }
+
+    /**
+     * Returns the number of changes which are not saved yet.
+     *
+     * @return the number of tracked changes
+     */
+    public synchronized int getPendingChanges() {
+        return pendingUpserts.size() + pendingRemovals.size();
+    }
+
+    /**
+     * Writes the tracked changes as a new delta segment. Nothing is written if nothing changed.
+     * Starts a background merge once the merge threshold is reached.
+     *
+     * @throws IOException if the segment cannot be written, the changes stay tracked in this case
+     */
+    public synchronized void save() throws IOException {
+        if (pendingUpserts.isEmpty() && pendingRemovals.isEmpty()) return;
+
+        Path segment = segmentPath(nextSegmentNumber);
+        writeSegment(segment, new DeltaSegment(List.copyOf(pendingUpserts.values()), List.copyOf(pendingRemovals)));
+
+        nextSegmentNumber++;
+        segments.add(segment);
+        pendingUpserts.clear();
+        pendingRemovals.clear();
+
+        if (mergeThreshold > 0 && segments.size() >= mergeThreshold && !mergeScheduled) {
+            merge();
+        }
+    }
+
+    /**
+     * Starts merging all saved segments into the main file in the background.
+     *
+     * @return a future completing when the merge is done
+     */
+    public synchronized CompletableFuture<Void> merge() {
+        List<Path> merged = List.copyOf(segments);
+        mergeScheduled = true;
+
+        lastMerge = CompletableFuture.runAsync(() -> {
+            try {
+                mergeSegments(merged);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, mergeExecutor).whenComplete((result, error) -> {
+            synchronized (this) {
+                mergeScheduled = false;
+                if (error == null) {
+                    segments.removeAll(merged);
+                } else {
+                    logger.log(Level.WARNING, "cannot merge contact segments into " + mainFile.getFilePath(), error);
+                }
+            }
+        });
+
+        return lastMerge;
+    }
+
+    /**
+     * Returns the number of saved segments which are not merged yet.
+     *
+     * @return the number of segments
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Saves the tracked changes and waits for a running merge before stopping the merge thread.
+     *
+     * @throws IOException if the changes cannot be saved
+     */
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<Void> merge;
+
+        synchronized (this) {
+            save();
+            merge = lastMerge;
+        }
+
+        try {
+            merge.exceptionally(error -> null).join();
+        } finally {
+            mergeExecutor.shutdown();
+            try {
+                mergeExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void trackUpsert(Contact contact) {
+        pendingRemovals.remove(contact.id());
+        pendingUpserts.put(contact.id(), contact);
+    }
+
+    /**
+     * Folds the given segments into the main file. Runs on the merge thread and reads everything from disk,
+     * so it never sees the contact book while it is changed.
+     */
+    private void mergeSegments(List<Path> merged) throws IOException {
+        Map<UUID, Contact> contacts = readMainFile();
+
+        for (Path segment : merged) {
+            // A segment is missing if an earlier merge already folded it in.
+            if (Files.exists(segment)) {
+                applySegment(contacts, readSegment(segment));
+            }
+        }
+
+        mainFile.writeToFile(contacts.values().iterator());
+
+        for (Path segment : merged) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    private Map<UUID, Contact> readMainFile() throws IOException {
+        Map<UUID, Contact> contacts = new LinkedHashMap<>();
+
+        try (Stream<Contact> stream = mainFile.streamFromFile()) {
+            stream.forEach(contact -> contacts.put(contact.id(), contact));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return contacts;
+    }
+
+    private static void applySegment(Map<UUID, Contact> contacts, DeltaSegment segment) {
+        segment.upserts().forEach(contact -> contacts.put(contact.id(), contact));
+        segment.removals().forEach(contacts::remove);
+    }
+
+    private DeltaSegment readSegment(Path segment) throws IOException {
+        return segmentReader.readValue(segment.toFile());
+    }
+
+    private void writeSegment(Path segment, DeltaSegment delta) throws IOException {
+        Path tempFile = Files.createTempFile(segment.getParent(), segment.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
+                out.write(segmentWriter.writeValueAsBytes(delta));
+                out.getFD().sync();
+            }
+
+            try {
+                Files.move(tempFile, segment, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, segment, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    private Path mainPath() {
+        return Path.of(mainFile.getFilePath()).toAbsolutePath();
+    }
+
+    private Path segmentPath(long number) {
+        return mainPath().resolveSibling(mainPath().getFileName() + SEGMENT_INFIX + String.format("%010d", number));
+    }
+
+    private List<Path> findSegments() throws IOException {
+        String prefix = mainPath().getFileName() + SEGMENT_INFIX;
+
+        try (Stream<Path> files = Files.list(mainPath().getParent())) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> file.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                    .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(name.lastIndexOf(SEGMENT_INFIX) + SEGMENT_INFIX.length()));
+    }
+
+    /**
+     * The content of a delta segment: the added or changed contacts and the ids of the removed ones.
+     */
+    record DeltaSegment(List<Contact> upserts, List<UUID> removals) {
+    }
+}
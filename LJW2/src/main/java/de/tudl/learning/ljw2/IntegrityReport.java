@@ -0,0 +1,29 @@
+package de.tudl.learning.ljw2;
+
+import java.util.List;
+
+/**
+ * The result of checking a contacts file against its block checksums.
+ * <p>
+ * Block {@code i} covers the bytes from {@code i * blockSize} up to {@code (i + 1) * blockSize} of the file as
+ * it is stored, so of the compressed content for gzip files.
+ * </p>
+ *
+ * @param verifiable    whether the file has valid checksums to compare with, {@code false} if it was not written
+ *                      by {@link JsonFileService} or its checksum file is missing or damaged
+ * @param length        the length of the file in bytes
+ * @param blockSize     the size of a checksummed block in bytes
+ * @param damagedBlocks the indexes of the blocks whose content differs from the checksums in ascending order,
+ *                      including blocks that are missing or were added
+ */
+public record IntegrityReport(boolean verifiable, long length, int blockSize, List<Integer> damagedBlocks) {
+
+    /**
+     * Returns whether the file is verified to be exactly as it was written.
+     *
+     * @return {@code true} if the file has checksums and all blocks match
+     */
+    public boolean isIntact() {
+        return verifiable && damagedBlocks.isEmpty();
+    }
+}
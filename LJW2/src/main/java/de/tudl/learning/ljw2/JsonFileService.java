@@ -1,26 +1,59 @@
 package de.tudl.learning.ljw2;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
 
 public class JsonFileService {
 
-    private final ObjectMapper objectMapper;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final ExecutorService BACKUP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "contact-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ContactCodec codec;
     private final String filePath;
     private final Logger logger = Logger.getLogger(getClass().getName());
+    private volatile CompletableFuture<Void> pendingBackup = CompletableFuture.completedFuture(null);
 
     public JsonFileService(String filePath) {
         validateFilePath(filePath);
 
-        this.objectMapper = new ObjectMapper();
+        this.codec = ContactCodec.shared();
         this.filePath = filePath;
     }
 
@@ -40,28 +73,232 @@ public class JsonFileService {
 
     public void writeToFile(List<Contact> contacts) {
         try {
-            objectMapper.writeValue(new File(filePath), contacts);
+            writeToFile(contacts.iterator());
         } catch (IOException e) {
-            e.getStackTrace();
+            throw new UncheckedIOException("Cannot write contacts to " + filePath, e);
+        }
+    }
+
+    /**
+     * Writes the contacts of the stream to the file without collecting them first.
+     *
+     * @param contacts the contacts to write, consumed in order
+     * @throws IOException if the contacts cannot be written, the previous file is left unchanged
+     * @see #writeToFile(Iterator)
+     */
+    public void writeToFile(Stream<Contact> contacts) throws IOException {
+        writeToFile(contacts.iterator());
+    }
+
+    /**
+     * Writes the contacts to a temporary file next to the target and atomically moves it into place,
+     * so a crash mid-write never leaves a torn file behind. The contacts are written one at a time
+     * through a buffered generator and the temporary file is synced before the move.
+     * If the file name ends with {@code .gz}, the contacts are gzip compressed while they are written.
+     * The block checksums of the written bytes are stored next to it, see {@link #verify()}.
+     * A pending backup of a corrupted file is finished before the file is replaced.
+     *
+     * @param contacts the contacts to write, consumed in order
+     * @throws IOException if the contacts cannot be written, the previous file is left unchanged
+     */
+    public void writeToFile(Iterator<Contact> contacts) throws IOException {
+        Path target = Path.of(filePath).toAbsolutePath();
+        Path checksumFile = ContactFileChecksums.checksumFileOf(target);
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Path tempChecksumFile = null;
+        boolean compressed = filePath.endsWith(GZIP_EXTENSION);
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempFile.toFile());
+                 ContactFileChecksums.ChecksumOutputStream checksums = new ContactFileChecksums.ChecksumOutputStream(out);
+                 OutputStream stream = compressed
+                         ? new GZIPOutputStream(new BufferedOutputStream(checksums, BUFFER_SIZE), BUFFER_SIZE)
+                         : new BufferedOutputStream(checksums, BUFFER_SIZE)) {
+                // The stream stays open after the generator, the gzip trailer and the sync come later.
+                try (JsonGenerator generator = codec.factory().createGenerator(stream)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                    generator.writeStartArray();
+
+                    while (contacts.hasNext()) {
+                        codec.contactWriter().writeValue(generator, contacts.next());
+                    }
+
+                    generator.writeEndArray();
+                }
+
+                if (stream instanceof GZIPOutputStream gzip) {
+                    gzip.finish();
+                }
+
+                stream.flush();
+                out.getFD().sync();
+
+                tempChecksumFile = Files.createTempFile(target.getParent(), checksumFile.getFileName().toString(), ".tmp");
+                ContactFileChecksums.write(tempChecksumFile, checksums);
+            }
+
+            pendingBackup.join();
+            // A crash between the moves leaves stale checksums, the file is then reported damaged but reads fine.
+            moveIntoPlace(tempFile, target);
+            moveIntoPlace(tempChecksumFile, checksumFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            if (tempChecksumFile != null) Files.deleteIfExists(tempChecksumFile);
+            throw e;
+        }
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    /**
+     * Loads the file and keeps the snapshot up to date while other processes change it.
+     *
+     * @param debounce how long the file has to be quiet after a change before it is reloaded
+     * @return the started watcher, it must be closed
+     * @throws IOException if the file cannot be loaded or watched
+     * @see ContactFileWatcher
+     */
+    public ContactFileWatcher watch(Duration debounce) throws IOException {
+        return new ContactFileWatcher(this, debounce);
+    }
+
+    /**
+     * Checks the file against the block checksums stored when it was written, without parsing it.
+     * Only the bytes are read, so it runs at disk speed and tells exactly which blocks are damaged.
+     *
+     * @return the report, not verifiable if the file has no valid checksums, e.g. because it was written elsewhere
+     * @throws IOException if the file cannot be read
+     */
+    public IntegrityReport verify() throws IOException {
+        return ContactFileChecksums.verify(Path.of(filePath));
+    }
+
+    /**
+     * Reads all contacts that can be recovered from the file, skipping corrupted ones.
+     *
+     * @return the recovered contacts, empty if the file does not exist or cannot be opened
+     * @see #recoverFromFile()
+     */
     public List<Contact> readFromFile() {
+        try {
+            return recoverFromFile().contacts();
+        } catch (IOException e) {
+            logger.info("cannot read file at " + filePath);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads the contacts one at a time and skips the elements that cannot be read instead of failing,
+     * so a single corrupted byte only costs the contact it is in. If anything was skipped, the file is
+     * backed up in the background unless its checksums prove it intact, the read does not wait for the copy.
+     *
+     * @return the recovered contacts, the byte offsets of the corrupted elements and the pending backup
+     * @throws IOException if the file cannot be opened
+     */
+    public ContactRecovery recoverFromFile() throws IOException {
+        File file = new File(filePath);
+
+        if (!file.exists()) return new ContactRecovery(new ArrayList<>(), List.of());
+
+        ContactRecovery recovery;
+        try {
+            recovery = new ResilientContactReader(() -> openInput(file), codec).read();
+        } catch (EOFException | ZipException e) {
+            // The gzip header itself is damaged, nothing can be recovered.
+            recovery = new ContactRecovery(new ArrayList<>(), List.of(0L));
+        }
+
+        if (recovery.isComplete()) return recovery;
+
+        logger.warning("recovered " + recovery.contacts().size() + " contacts from " + file.getAbsolutePath()
+                + ", skipped corrupted data at offsets " + recovery.corruptedOffsets());
+
+        return new ContactRecovery(recovery.contacts(), recovery.corruptedOffsets(), backupCorruptedFile(file));
+    }
+
+    /**
+     * Reads the contacts one at a time, so files larger than the heap can be processed.
+     * The returned stream holds the file open and must be closed, e.g. with try-with-resources.
+     * If the file is corrupted, it is backed up before the error is thrown, even when some contacts
+     * were already read. Gzip compressed files are recognized by their magic bytes and
+     * decompressed while they are read.
+     *
+     * @return a lazy stream of the contacts in file order, empty if the file does not exist
+     * @throws IOException if the file cannot be opened or does not start with a JSON array
+     * @throws UncheckedIOException if a parse error happens while the stream is consumed
+     */
+    public Stream<Contact> streamFromFile() throws IOException {
         File file = new File(filePath);
 
-        if (!file.exists()) return new ArrayList<>();
+        if (!file.exists()) return Stream.empty();
+
+        JsonParser parser = null;
 
         try {
-            return objectMapper.readValue(file, new TypeReference<>() {});
+            parser = codec.factory().createParser(openInput(file));
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of contacts");
+            }
         } catch (IOException e) {
-            backupCorruptedFile(file);
-            return new ArrayList<>();
+            if (parser != null) parser.close();
+            copyToBackup(file);
+            throw e;
+        }
+
+        JsonParser openParser = parser;
+
+        Iterator<Contact> iterator = new ContactIterator(openParser, file);
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(() -> {
+            try {
+                openParser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Opens the file for reading and decompresses it if it starts with the gzip magic bytes.
+     */
+    private InputStream openInput(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+
+        try {
+            in.mark(2);
+            int magic = in.read() | (in.read() << 8);
+            in.reset();
+
+            return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
         }
     }
 
-    private void backupCorruptedFile(File file) {
+    private CompletableFuture<Void> backupCorruptedFile(File file) {
+        CompletableFuture<Void> backup = CompletableFuture.runAsync(() -> copyToBackup(file), BACKUP_EXECUTOR);
+        pendingBackup = backup;
+        return backup;
+    }
+
+    private void copyToBackup(File file) {
         File backupFile = new File(file.getParent(), "backup_" + file.getName());
         try {
+            // An intact file failed to read for another reason, there is nothing to preserve.
+            if (ContactFileChecksums.verify(file.toPath()).isIntact()) return;
+
             Files.copy(
                     file.toPath(),
                     backupFile.toPath(),
@@ -71,4 +308,55 @@ public class JsonFileService {
             logger.info("cannot write file to path at " + file.getAbsolutePath());
         }
     }
+
+    /**
+     * Iterates the elements of a JSON array, binding one contact at a time.
+     */
+    private class ContactIterator implements Iterator<Contact> {
+
+        private final JsonParser parser;
+        private final File file;
+        private Contact next;
+        private boolean finished;
+
+        ContactIterator(JsonParser parser, File file) {
+            this.parser = parser;
+            this.file = file;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (finished) return false;
+
+            try {
+                JsonToken token = parser.nextToken();
+
+                if (token == JsonToken.END_ARRAY) {
+                    finished = true;
+                    return false;
+                }
+
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of contacts array");
+                }
+
+                next = codec.contactReader().readValue(parser);
+                return true;
+            } catch (IOException e) {
+                finished = true;
+                copyToBackup(file);
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Contact next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            Contact contact = next;
+            next = null;
+            return contact;
+        }
+    }
 }
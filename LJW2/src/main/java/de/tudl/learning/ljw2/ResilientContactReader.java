@@ -0,0 +1,314 @@
+package de.tudl.learning.ljw2;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a JSON array of contacts and skips the elements that cannot be read instead of giving up on the file.
+ * <p>
+ * The file is first streamed through a regular Jackson parser. Only if that fails, it is opened again and
+ * scanned from the end of the last contact that was read. The scan looks for the boundaries of the array
+ * elements, honoring strings and nesting, and binds each element on its own. An element that is structurally
+ * complete but cannot be bound, e.g. because of an invalid email, is skipped. If an element does not end
+ * before the input ends or grows beyond {@value #MAX_ELEMENT_SIZE} bytes, a quote or bracket was probably
+ * lost, so scanning starts over at the next opening brace after the start of the element. Only the element
+ * being scanned is held in memory.
+ * </p>
+ */
+final class ResilientContactReader {
+
+    static final int MAX_ELEMENT_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int EOF = -1;
+
+    /**
+     * Opens the content to read, it is opened a second time if the first read fails.
+     */
+    interface Source {
+        InputStream open() throws IOException;
+    }
+
+    private final Source source;
+    private final ContactCodec codec;
+    private final List<Contact> contacts = new ArrayList<>();
+    private final List<Long> corruptedOffsets = new ArrayList<>();
+
+    private InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLimit;
+    private long position;
+    private boolean inputFailed;
+    // Whether the last corruption is still being skipped, so running out of input is not reported twice.
+    private boolean skipping;
+
+    private byte[] element = new byte[1024];
+    private int elementLength;
+
+    /**
+     * Constructs a reader of the given source.
+     *
+     * @param source the source of the content
+     * @param codec  the codec binding the contacts
+     */
+    ResilientContactReader(Source source, ContactCodec codec) {
+        this.source = source;
+        this.codec = codec;
+    }
+
+    /**
+     * Reads all contacts that can be recovered. An error of the input is treated like its end,
+     * so a truncated gzip stream still yields the contacts before the damage.
+     *
+     * @return the recovered contacts and the offsets of the corrupted spots
+     * @throws IOException if the source cannot be opened
+     */
+    ContactRecovery read() throws IOException {
+        long resumeOffset = -1;
+        boolean afterElement = false;
+
+        try (JsonParser parser = codec.factory().createParser(source.open())) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                resumeOffset = parser.currentLocation().getByteOffset();
+                JsonToken token;
+
+                while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                    contacts.add(codec.contactReader().readValue(parser));
+                    resumeOffset = parser.currentLocation().getByteOffset();
+                    afterElement = true;
+                }
+
+                if (token == JsonToken.END_ARRAY) {
+                    return new ContactRecovery(contacts, corruptedOffsets);
+                }
+            }
+        } catch (IOException e) {
+            // Scan the rest of the file, starting after the last contact that was read.
+        }
+
+        try (InputStream input = source.open()) {
+            in = input;
+
+            if (resumeOffset < 0) {
+                return readElements(readArrayStart());
+            }
+
+            in.skipNBytes(resumeOffset);
+            position = resumeOffset;
+            return readElements(afterElement ? readAfterElement() : skipWhitespace());
+        }
+    }
+
+    private int readArrayStart() {
+        int b = skipWhitespace();
+
+        if (b == '[') {
+            return skipWhitespace();
+        }
+
+        corruptedOffsets.add(Math.max(position - 1, 0));
+        skipping = true;
+        return b == '{' ? b : skipTo('{');
+    }
+
+    private ContactRecovery readElements(int b) {
+        while (b != EOF && b != ']') {
+            long start = position - 1;
+
+            if (!scanElement(b)) {
+                // The element has no end, retry from the next object after its first byte.
+                corruptedOffsets.add(start);
+                unread(element, 1, elementLength - 1, start + 1);
+                skipping = true;
+                b = skipTo('{');
+                continue;
+            }
+
+            bindElement(start);
+            skipping = false;
+            b = readAfterElement();
+        }
+
+        if (b == EOF && !skipping) {
+            corruptedOffsets.add(position);
+        }
+
+        return new ContactRecovery(contacts, corruptedOffsets);
+    }
+
+    /**
+     * Reads the separator after an element and returns the first byte of the next element.
+     */
+    private int readAfterElement() {
+        int b = skipWhitespace();
+
+        if (b == ',') {
+            return skipWhitespace();
+        }
+
+        if (b != ']' && b != EOF) {
+            corruptedOffsets.add(position - 1);
+            skipping = true;
+            return skipTo('{');
+        }
+
+        return b;
+    }
+
+    private void bindElement(long start) {
+        try {
+            contacts.add(codec.contactReader().readValue(element, 0, elementLength));
+        } catch (IOException | RuntimeException e) {
+            corruptedOffsets.add(start);
+        }
+    }
+
+    /**
+     * Collects the element starting with the given byte.
+     *
+     * @return {@code false} if the element does not end within the input or the size limit
+     */
+    private boolean scanElement(int first) {
+        elementLength = 0;
+        append(first);
+
+        if (first != '{' && first != '[' && first != '"') {
+            return scanScalar();
+        }
+
+        int depth = first == '"' ? 0 : 1;
+        boolean inString = first == '"';
+        boolean escaped = false;
+
+        while (true) {
+            int b = nextByte();
+
+            if (b == EOF || elementLength == MAX_ELEMENT_SIZE) return false;
+            append(b);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (depth == 0) return true;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) return true;
+            }
+        }
+    }
+
+    private boolean scanScalar() {
+        while (true) {
+            int b = nextByte();
+
+            if (b == EOF) return true;
+
+            if (b == ',' || b == ']' || isWhitespace(b)) {
+                unread();
+                return true;
+            }
+
+            if (elementLength == MAX_ELEMENT_SIZE) return false;
+            append(b);
+        }
+    }
+
+    private void append(int b) {
+        if (elementLength == element.length) {
+            element = Arrays.copyOf(element, element.length * 2);
+        }
+
+        element[elementLength++] = (byte) b;
+    }
+
+    private int skipWhitespace() {
+        int b;
+        do {
+            b = nextByte();
+        } while (isWhitespace(b));
+
+        return b;
+    }
+
+    private int skipTo(int target) {
+        int b;
+        do {
+            b = nextByte();
+        } while (b != target && b != EOF);
+
+        return b;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private int nextByte() {
+        if (bufferPosition == bufferLimit && !fill()) return EOF;
+
+        position++;
+        return buffer[bufferPosition++] & 0xff;
+    }
+
+    private boolean fill() {
+        if (inputFailed) return false;
+
+        if (buffer.length < BUFFER_SIZE) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+
+        try {
+            int read;
+            do {
+                read = in.read(buffer, 0, buffer.length);
+            } while (read == 0);
+
+            bufferPosition = 0;
+            bufferLimit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            inputFailed = true;
+            bufferPosition = 0;
+            bufferLimit = 0;
+            return false;
+        }
+    }
+
+    /**
+     * Steps back over the byte just read, it is still in the buffer.
+     */
+    private void unread() {
+        bufferPosition--;
+        position--;
+    }
+
+    /**
+     * Puts the given bytes in front of the unread part of the buffer, so they are read again.
+     */
+    private void unread(byte[] bytes, int offset, int length, long startPosition) {
+        int remaining = bufferLimit - bufferPosition;
+        byte[] combined = new byte[length + remaining];
+
+        System.arraycopy(bytes, offset, combined, 0, length);
+        System.arraycopy(buffer, bufferPosition, combined, length, remaining);
+
+        buffer = combined;
+        bufferPosition = 0;
+        bufferLimit = combined.length;
+        position = startPosition;
+    }
+}
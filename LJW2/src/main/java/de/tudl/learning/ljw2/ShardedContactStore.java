@@ -0,0 +1,179 @@
+package de.tudl.learning.ljw2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Stores contacts in several JSON files, partitioned by the hash of {@link Contact#id()}.
+ * <p>
+ * Each shard is a file of its own with its own {@link JsonFileService}, so the shards are read and written
+ * in parallel on the given executor instead of serializing all I/O through one file. A contact always lands
+ * in the same shard as long as the number of shards stays the same.
+ * </p>
+ * <p>
+ * Every shard is replaced atomically, but a write of all shards is not atomic as a whole.
+ * </p>
+ */
+public class ShardedContactStore {
+
+    private final List<JsonFileService> shards;
+    private final Executor executor;
+
+    /**
+     * Constructs a sharded store. Missing shard files are created empty.
+     *
+     * @param directory  the directory of the shard files
+     * @param baseName   the name of the shard files, they are called {@code baseName-<shard>.json}
+     * @param shardCount the number of shards
+     * @param executor   the executor reading and writing the shards
+     * @throws IOException              if a missing shard file cannot be created
+     * @throws IllegalArgumentException if an argument is null or blank or the shard count is not positive
+     */
+    public ShardedContactStore(Path directory, String baseName, int shardCount, Executor executor) throws IOException {
+        if (directory == null || baseName == null || baseName.isBlank() || executor == null) {
+            throw new IllegalArgumentException("Directory, base name and executor should not be empty!");
+        }
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count should be positive!");
+        }
+
+        this.executor = executor;
+        this.shards = new ArrayList<>(shardCount);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            Path file = directory.resolve(String.format("%s-%03d.json", baseName, shard));
+
+            if (Files.notExists(file)) {
+                Files.writeString(file, "[]");
+            }
+
+            shards.add(new JsonFileService(file.toString()));
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the shard a contact with the given id is stored in.
+     *
+     * @param id the id of the contact
+     * @return the index of the shard
+     */
+    public int shardOf(UUID id) {
+        return Math.floorMod(id.hashCode(), shards.size());
+    }
+
+    /**
+     * Reads all shards concurrently.
+     *
+     * @return the contacts of all shards, shard by shard
+     * @throws IOException if a shard cannot be read
+     */
+    public List<Contact> readAll() throws IOException {
+        List<CompletableFuture<List<Contact>>> reads = new ArrayList<>(shards.size());
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int index = shard;
+            reads.add(CompletableFuture.supplyAsync(() -> readShard(index), executor));
+        }
+
+        List<Contact> contacts = new ArrayList<>();
+        for (CompletableFuture<List<Contact>> read : reads) {
+            contacts.addAll(join(read));
+        }
+
+        return contacts;
+    }
+
+    /**
+     * Reads a single shard.
+     *
+     * @param shard the index of the shard
+     * @return the contacts of the shard in file order
+     * @throws UncheckedIOException if the shard cannot be read
+     */
+    public List<Contact> readShard(int shard) {
+        try (Stream<Contact> contacts = shards.get(shard).streamFromFile()) {
+            return contacts.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Partitions the contacts by id and writes all shards concurrently. Shards without contacts are written empty.
+     *
+     * @param contacts the contacts to store
+     * @throws IOException              if a shard cannot be written
+     * @throws IllegalArgumentException if the contacts or one of them is null
+     */
+    public void writeAll(Collection<Contact> contacts) throws IOException {
+        if (contacts == null) {
+            throw new IllegalArgumentException("Contacts should not be null!");
+        }
+
+        List<List<Contact>> partitions = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            partitions.add(new ArrayList<>(contacts.size() / shards.size() + 1));
+        }
+
+        for (Contact contact : contacts) {
+            if (contact == null) {
+                throw new IllegalArgumentException("Contact should not be null!");
+            }
+
+            partitions.get(shardOf(contact.id())).add(contact);
+        }
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JsonFileService service = shards.get(shard);
+            List<Contact> partition = partitions.get(shard);
+
+            writes.add(CompletableFuture.runAsync(() -> {
+                try {
+                    service.writeToFile(partition.iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+
+        for (CompletableFuture<Void> write : writes) {
+            join(write);
+        }
+    }
+
+    /**
+     * Waits for a shard operation and unwraps its I/O error.
+     */
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package de.tudl.learning.ljw2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes contacts through a {@link JsonFileService} on a dedicated writer thread, so callers never block on disk I/O.
+ * <p>
+ * {@link #save(List)} only queues a copy of the contacts and returns a future which completes once they are durable
+ * in the file. Saves arriving while the writer is busy collapse into a single write of the latest state, because
+ * every save replaces the whole file anyway. All futures of the collapsed saves complete with that write.
+ * </p>
+ * <p>
+ * Queued saves are flushed when the service is closed and, if enabled, when the JVM shuts down.
+ * </p>
+ */
+public class WriteBehindJsonFileService implements Closeable {
+
+    private final Logger logger = Logger.getLogger(getClass().getName());
+    private final JsonFileService fileService;
+    private final ExecutorService writer;
+    private final Thread shutdownHook;
+
+    /**
+     * The latest contacts waiting to be written, null if no save is queued.
+     */
+    private List<Contact> pendingContacts;
+    private final List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+    private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+    private boolean closed;
+
+    private long requestedSaves;
+    private long writtenSaves;
+    private long completedWrites;
+
+    /**
+     * Constructs a write-behind service on top of the given file service.
+     *
+     * @param fileService     the service writing the file
+     * @param flushOnShutdown whether queued saves are written when the JVM shuts down
+     * @throws IllegalArgumentException if the file service is null
+     */
+    public WriteBehindJsonFileService(JsonFileService fileService, boolean flushOnShutdown) {
+        if (fileService == null) {
+            throw new IllegalArgumentException("File service should not be null!");
+        }
+
+        this.fileService = fileService;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "contact-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (flushOnShutdown) {
+            shutdownHook = new Thread(this::flushOnShutdown, "contact-write-behind-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } else {
+            shutdownHook = null;
+        }
+    }
+
+    /**
+     * Queues the contacts to be written. If a save is already queued, it is replaced by this one.
+     *
+     * @param contacts the contacts to write, copied before the method returns
+     * @return a future completing when the contacts are durable, or completing exceptionally if the write failed
+     * @throws IllegalArgumentException if the contacts are null
+     * @throws IllegalStateException    if the service is closed
+     */
+    public synchronized CompletableFuture<Void> save(List<Contact> contacts) {
+        if (contacts == null) {
+            throw new IllegalArgumentException("Contacts should not be null!");
+        }
+
+        if (closed) {
+            throw new IllegalStateException("Write-behind service is closed!");
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        requestedSaves++;
+        pendingFutures.add(future);
+
+        boolean queued = pendingContacts != null;
+        pendingContacts = List.copyOf(contacts);
+
+        if (!queued) {
+            lastWrite = CompletableFuture.runAsync(this::writePending, writer);
+        }
+
+        return future;
+    }
+
+    /**
+     * Returns a future completing when every save queued until now is written.
+     *
+     * @return a future of the last queued write
+     */
+    public synchronized CompletableFuture<Void> flush() {
+        return lastWrite;
+    }
+
+    /**
+     * Returns the number of saves waiting to be written.
+     *
+     * @return the queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return pendingFutures.size();
+    }
+
+    /**
+     * Returns the number of calls to {@link #save(List)}.
+     *
+     * @return the number of requested saves
+     */
+    public synchronized long getRequestedSaves() {
+        return requestedSaves;
+    }
+
+    /**
+     * Returns the number of writes to the file, successful or not.
+     *
+     * @return the number of completed writes
+     */
+    public synchronized long getCompletedWrites() {
+        return completedWrites;
+    }
+
+    /**
+     * Returns how many saves were served by one write on average. 1 means no save was coalesced.
+     *
+     * @return the ratio of written saves to file writes, 0 if nothing was written yet
+     */
+    public synchronized double getCoalescingRatio() {
+        return completedWrites == 0 ? 0 : (double) writtenSaves / completedWrites;
+    }
+
+    /**
+     * Writes the queued saves and stops the writer thread. A failed write is not thrown again here,
+     * it was already reported through the futures of its saves.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Void> write;
+
+        synchronized (this) {
+            if (closed) return;
+
+            closed = true;
+            write = lastWrite;
+        }
+
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // The JVM is already shutting down and runs the hook itself.
+            }
+        }
+
+        try {
+            write.exceptionally(error -> null).join();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Takes the latest queued contacts and writes them. Runs on the writer thread.
+     */
+    private void writePending() {
+        List<Contact> contacts;
+        List<CompletableFuture<Void>> futures;
+
+        synchronized (this) {
+            contacts = pendingContacts;
+            futures = List.copyOf(pendingFutures);
+            pendingContacts = null;
+            pendingFutures.clear();
+        }
+
+        Exception failure = null;
+
+        try {
+            fileService.writeToFile(contacts.iterator());
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+
+        // The metrics are updated before the futures complete, so callers waiting on a save see them.
+        synchronized (this) {
+            writtenSaves += futures.size();
+            completedWrites++;
+        }
+
+        if (failure == null) {
+            futures.forEach(future -> future.complete(null));
+        } else {
+            logger.log(Level.WARNING, "cannot write contacts to " + fileService.getFilePath(), failure);
+            for (CompletableFuture<Void> future : futures) {
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void flushOnShutdown() {
+        try {
+            flush().get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "cannot flush contacts to " + fileService.getFilePath() + " on shutdown", e);
+        }
+    }
+}
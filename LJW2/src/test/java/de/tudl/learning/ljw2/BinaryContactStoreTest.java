@@ -0,0 +1,122 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryContactStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<Contact> createContacts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+    }
+
+    @Test
+    void testWriteAndFind() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        List<Contact> contacts = createContacts(1000);
+
+        BinaryContactStore.write(file, contacts.iterator());
+        BinaryContactStore store = BinaryContactStore.open(file);
+
+        assertEquals(1000, store.size());
+        for (Contact contact : contacts) {
+            BinaryContactStore.MappedContact mapped = store.find(contact.id()).orElseThrow();
+            assertEquals(contact, mapped.toContact(), "Every contact should be found by its id");
+        }
+        assertTrue(store.find(UUID.randomUUID()).isEmpty(), "Unknown id should not be found");
+    }
+
+    @Test
+    void testStreamKeepsWriteOrder() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        List<Contact> contacts = createContacts(100);
+
+        BinaryContactStore.write(file, contacts.iterator());
+
+        assertEquals(
+                contacts,
+                BinaryContactStore.open(file).stream().map(BinaryContactStore.MappedContact::toContact).toList()
+        );
+    }
+
+    @Test
+    void testNonAsciiFields() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        Contact contact = new Contact(UUID.randomUUID(), "Jürgen Müßig 🙂", "0173 4542312", "juergen@test.de");
+
+        BinaryContactStore.write(file, List.of(contact).iterator());
+
+        assertEquals("Jürgen Müßig 🙂", BinaryContactStore.open(file).find(contact.id()).orElseThrow().name());
+    }
+
+    @Test
+    void testEmptyStore() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+
+        BinaryContactStore.write(file, List.<Contact>of().iterator());
+        BinaryContactStore store = BinaryContactStore.open(file);
+
+        assertEquals(0, store.size());
+        assertTrue(store.find(UUID.randomUUID()).isEmpty());
+        assertEquals(0, store.stream().count());
+    }
+
+    @Test
+    void testDuplicateIdsAreRejected() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        Contact contact = createContacts(1).get(0);
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryContactStore.write(file, List.of(contact, contact).iterator()));
+        assertFalse(Files.exists(file), "No file should be left behind");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Temporary file should be removed");
+        }
+    }
+
+    @Test
+    void testOpenInvalidFile() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        Files.writeString(file, "[{\"name\":\"Peter\"}]");
+
+        assertThrows(IOException.class, () -> BinaryContactStore.open(file));
+    }
+
+    @Test
+    void testOpenTruncatedFile() throws IOException {
+        Path file = directory.resolve("contacts.bin");
+        BinaryContactStore.write(file, createContacts(10).iterator());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> BinaryContactStore.open(file));
+    }
+
+    @Test
+    void testConvertJsonToBinaryAndBack() throws IOException {
+        Path jsonFile = Files.createFile(directory.resolve("contacts.json"));
+        Path binaryFile = directory.resolve("contacts.bin");
+        JsonFileService jsonFileService = new JsonFileService(jsonFile.toString());
+        List<Contact> contacts = createContacts(500);
+        jsonFileService.writeToFile(contacts);
+
+        ContactFileConverter.jsonToBinary(jsonFileService, binaryFile);
+        Files.delete(jsonFile);
+        ContactFileConverter.binaryToJson(binaryFile, jsonFileService);
+
+        assertEquals(contacts, jsonFileService.readFromFile(), "Contacts should survive the round trip");
+    }
+}
@@ -0,0 +1,124 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ContactBookTest {
+
+    private ContactBook contactBook;
+    private Contact peter;
+    private Contact petra;
+    private Contact klaus;
+
+    @BeforeEach
+    void setUp() {
+        peter = new Contact(UUID.randomUUID(), "Peter", "0173 4542312", "peter@test.de");
+        petra = new Contact(UUID.randomUUID(), "Petra", "+49 173 1111111", "Petra@Test.de");
+        klaus = new Contact(UUID.randomUUID(), "Klaus", "0173 2222222", "klaus@test.de");
+        contactBook = new ContactBook(List.of(peter, petra, klaus));
+    }
+
+    @Test
+    void testGet() {
+        assertEquals(peter, contactBook.get(peter.id()).orElseThrow());
+        assertTrue(contactBook.get(UUID.randomUUID()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> contactBook.get(null));
+    }
+
+    @Test
+    void testAddInvalidContacts() {
+        assertThrows(IllegalArgumentException.class, () -> contactBook.add(null));
+        assertThrows(IllegalArgumentException.class, () -> contactBook.add(new Contact(null, "Anna", "0173 3333333", "anna@test.de")));
+        assertThrows(IllegalArgumentException.class, () -> contactBook.add(peter.withName("Other")));
+        assertEquals(3, contactBook.size(), "Invalid contacts should not be added");
+    }
+
+    @Test
+    void testFindByEmailIsNormalized() {
+        assertEquals(List.of(petra), contactBook.findByEmail("petra@test.de"));
+        assertEquals(List.of(peter), contactBook.findByEmail("  PETER@test.DE "));
+        assertTrue(contactBook.findByEmail("unknown@test.de").isEmpty());
+        assertTrue(contactBook.findByEmail(null).isEmpty());
+    }
+
+    @Test
+    void testFindByPhoneNumberIsNormalized() {
+        assertEquals(List.of(peter), contactBook.findByPhoneNumber("01734542312"));
+        assertEquals(List.of(peter), contactBook.findByPhoneNumber("+49 173 454 2312"));
+        assertEquals(List.of(petra), contactBook.findByPhoneNumber("0173 1111111"));
+        assertTrue(contactBook.findByPhoneNumber("0173 9999999").isEmpty());
+    }
+
+    @Test
+    void testSharedEmailAndPhoneNumber() {
+        Contact anna = new Contact(UUID.randomUUID(), "Anna", "01734542312", "PETER@test.de");
+        contactBook.add(anna);
+
+        assertEquals(List.of(peter, anna), contactBook.findByEmail("peter@test.de"));
+        assertEquals(List.of(peter, anna), contactBook.findByPhoneNumber("0173 4542312"));
+
+        contactBook.remove(peter.id());
+
+        assertEquals(List.of(anna), contactBook.findByEmail("peter@test.de"));
+        assertEquals(List.of(anna), contactBook.findByPhoneNumber("0173 4542312"));
+    }
+
+    @Test
+    void testFindByNamePrefix() {
+        assertEquals(List.of(peter, petra), contactBook.findByNamePrefix("pet", 10), "Prefix should ignore case and sort by name");
+        assertEquals(List.of(peter), contactBook.findByNamePrefix("Pet", 1), "Limit should be respected");
+        assertEquals(List.of(klaus, peter, petra), contactBook.findByNamePrefix("", 10), "Empty prefix should match all names");
+        assertTrue(contactBook.findByNamePrefix("x", 10).isEmpty());
+        assertTrue(contactBook.findByNamePrefix("Peters", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> contactBook.findByNamePrefix(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> contactBook.findByNamePrefix("p", -1));
+    }
+
+    @Test
+    void testUpdateKeepsIndexesConsistent() {
+        contactBook.update(peter.id(), contact -> contact.withName("Hans"));
+        contactBook.update(peter.id(), contact -> contact.withEmail("hans@test.de"));
+        Contact updated = contactBook.update(peter.id(), contact -> contact.withPhone("0173 5555555"));
+
+        assertEquals(new Contact(peter.id(), "Hans", "0173 5555555", "hans@test.de"), updated);
+        assertEquals(List.of(updated), contactBook.findByNamePrefix("ha", 10));
+        assertEquals(List.of(updated), contactBook.findByEmail("hans@test.de"));
+        assertEquals(List.of(updated), contactBook.findByPhoneNumber("0173 5555555"));
+        assertEquals(List.of(petra), contactBook.findByNamePrefix("pe", 10), "Old name should be removed from the index");
+        assertTrue(contactBook.findByEmail("peter@test.de").isEmpty(), "Old email should be removed from the index");
+        assertTrue(contactBook.findByPhoneNumber("0173 4542312").isEmpty(), "Old phone number should be removed from the index");
+    }
+
+    @Test
+    void testUpdateWithInvalidArguments() {
+        assertThrows(NoSuchElementException.class, () -> contactBook.update(new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de")));
+        assertThrows(NoSuchElementException.class, () -> contactBook.update(UUID.randomUUID(), contact -> contact));
+        assertThrows(IllegalArgumentException.class, () -> contactBook.update(peter.id(), null));
+        assertThrows(IllegalArgumentException.class, () -> contactBook.update(
+                peter.id(),
+                contact -> new Contact(UUID.randomUUID(), contact.name(), contact.phoneNumber(), contact.email())
+        ));
+        assertEquals(peter, contactBook.get(peter.id()).orElseThrow(), "Failed updates should not change the contact");
+    }
+
+    @Test
+    void testRemove() {
+        assertEquals(petra, contactBook.remove(petra.id()));
+
+        assertEquals(List.of(peter, klaus), List.copyOf(contactBook.getContacts()));
+        assertTrue(contactBook.findByEmail("petra@test.de").isEmpty());
+        assertTrue(contactBook.findByPhoneNumber("0173 1111111").isEmpty());
+        assertEquals(List.of(peter), contactBook.findByNamePrefix("pe", 10));
+        assertThrows(NoSuchElementException.class, () -> contactBook.remove(petra.id()));
+    }
+
+    @Test
+    void testContactsViewIsReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> contactBook.getContacts().clear());
+    }
+}
@@ -0,0 +1,46 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ContactCodecTest {
+
+    private static final List<Contact> CONTACTS = IntStream.range(0, 100)
+            .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+            .toList();
+
+    @Test
+    void testSharedCodecIsReused() {
+        assertSame(ContactCodec.shared(), ContactCodec.shared());
+        assertSame(ContactCodec.shared().contactReader(), ContactCodec.shared().contactReader());
+    }
+
+    @Test
+    void testBlackbirdIsRegisteredWhenAvailable() {
+        assertTrue(ContactCodec.create(true).usesBlackbird(), "Blackbird is on the test class path");
+        assertFalse(ContactCodec.create(false).usesBlackbird());
+    }
+
+    @Test
+    void testRoundTripWithAndWithoutBlackbird() throws IOException {
+        for (ContactCodec codec : List.of(ContactCodec.create(true), ContactCodec.create(false))) {
+            byte[] json = codec.mapper().writeValueAsBytes(CONTACTS);
+
+            assertEquals(CONTACTS, codec.mapper().readValue(json, new TypeReference<List<Contact>>() {}));
+            assertEquals(CONTACTS.get(0), codec.contactReader().readValue(codec.contactWriter().writeValueAsBytes(CONTACTS.get(0))));
+        }
+    }
+
+    @Test
+    void testInvalidContactIsRejected() {
+        byte[] json = "{\"id\":null,\"name\":\"Peter\",\"phoneNumber\":\"123\",\"email\":\"peter@test.de\"}".getBytes();
+
+        assertThrows(IOException.class, () -> ContactCodec.shared().contactReader().readValue(json));
+    }
+}
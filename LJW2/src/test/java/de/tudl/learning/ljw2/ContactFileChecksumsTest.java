@@ -0,0 +1,144 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContactFileChecksumsTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private JsonFileService jsonFileService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createFile(directory.resolve("contacts.json"));
+        jsonFileService = new JsonFileService(file.toString());
+    }
+
+    private static List<Contact> createContacts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+    }
+
+    @Test
+    void testWrittenFileIsIntact() throws IOException {
+        jsonFileService.writeToFile(createContacts(5000));
+
+        IntegrityReport report = jsonFileService.verify();
+
+        assertTrue(report.isIntact(), "Freshly written file should be intact");
+        assertEquals(Files.size(file), report.length());
+        assertTrue(report.length() > 3L * report.blockSize(), "File should span several blocks");
+        assertTrue(Files.exists(ContactFileChecksums.checksumFileOf(file)), "Checksums should be stored next to the file");
+    }
+
+    @Test
+    void testCompressedFileIsIntact() throws IOException {
+        Path compressedFile = Files.createFile(directory.resolve("contacts.json.gz"));
+        JsonFileService compressedService = new JsonFileService(compressedFile.toString());
+
+        compressedService.writeToFile(createContacts(5000));
+
+        assertTrue(compressedService.verify().isIntact(), "Checksums should cover the compressed bytes");
+    }
+
+    @Test
+    void testDamagedBlockIsReported() throws IOException {
+        jsonFileService.writeToFile(createContacts(5000));
+        long offset = 3L * ContactFileChecksums.BLOCK_SIZE + 17;
+
+        try (RandomAccessFile content = new RandomAccessFile(file.toFile(), "rw")) {
+            content.seek(offset);
+            int b = content.read();
+            content.seek(offset);
+            content.write(b ^ 0x01);
+        }
+
+        IntegrityReport report = jsonFileService.verify();
+
+        assertTrue(report.verifiable());
+        assertFalse(report.isIntact());
+        assertEquals(List.of(3), report.damagedBlocks(), "Only the flipped block should be damaged");
+    }
+
+    @Test
+    void testTruncatedFileReportsMissingBlocks() throws IOException {
+        jsonFileService.writeToFile(createContacts(5000));
+        int blocks = (int) ((Files.size(file) + ContactFileChecksums.BLOCK_SIZE - 1) / ContactFileChecksums.BLOCK_SIZE);
+
+        try (RandomAccessFile content = new RandomAccessFile(file.toFile(), "rw")) {
+            content.setLength(2L * ContactFileChecksums.BLOCK_SIZE);
+        }
+
+        List<Integer> damagedBlocks = jsonFileService.verify().damagedBlocks();
+
+        assertEquals(IntStream.range(2, blocks).boxed().toList(), damagedBlocks, "Cut off blocks should be damaged");
+    }
+
+    @Test
+    void testFileWithoutChecksumsIsNotVerifiable() throws IOException {
+        Files.writeString(file, "[]");
+
+        IntegrityReport report = jsonFileService.verify();
+
+        assertFalse(report.verifiable());
+        assertFalse(report.isIntact());
+    }
+
+    @Test
+    void testDamagedChecksumFileIsNotVerifiable() throws IOException {
+        jsonFileService.writeToFile(createContacts(100));
+        Path checksumFile = ContactFileChecksums.checksumFileOf(file);
+        byte[] checksums = Files.readAllBytes(checksumFile);
+        checksums[0] ^= 0x01;
+        Files.write(checksumFile, checksums);
+
+        assertFalse(jsonFileService.verify().verifiable(), "Checksums failing their own check should not be trusted");
+    }
+
+    @Test
+    void testIntactFileIsNotBackedUp() throws IOException {
+        // Checksums of content that is not valid JSON, as if the file was written wrong but stored correctly.
+        byte[] content = "[{\"id\":".getBytes(StandardCharsets.UTF_8);
+        try (ContactFileChecksums.ChecksumOutputStream out =
+                     new ContactFileChecksums.ChecksumOutputStream(new FileOutputStream(file.toFile()))) {
+            out.write(content);
+            ContactFileChecksums.write(ContactFileChecksums.checksumFileOf(file), out);
+        }
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+        recovery.backup().join();
+
+        assertTrue(recovery.contacts().isEmpty());
+        assertTrue(jsonFileService.verify().isIntact());
+        assertFalse(Files.exists(directory.resolve("backup_contacts.json")), "Intact file should not be backed up");
+    }
+
+    @Test
+    void testDamagedFileIsBackedUp() throws IOException {
+        jsonFileService.writeToFile(createContacts(100));
+        Files.writeString(file, Files.readString(file).replace("email50@test.com", "email50 test.com"));
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+        recovery.backup().join();
+
+        assertEquals(99, recovery.contacts().size());
+
+        assertTrue(Files.exists(directory.resolve("backup_contacts.json")), "Damaged file should be backed up");
+    }
+}
@@ -0,0 +1,174 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContactFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private JsonFileService jsonFileService;
+    private ContactFileWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jsonFileService = new JsonFileService(Files.writeString(directory.resolve("contacts.json"), "[]").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    private static List<Contact> createContacts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition should be met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ContactFileWatcher(null, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ContactFileWatcher(jsonFileService, null));
+        assertThrows(IllegalArgumentException.class, () -> new ContactFileWatcher(jsonFileService, Duration.ofMillis(-1)));
+    }
+
+    @Test
+    void testLoadsInitialSnapshot() throws IOException {
+        List<Contact> contacts = createContacts(10);
+        jsonFileService.writeToFile(contacts);
+
+        watcher = jsonFileService.watch(Duration.ofMillis(50));
+
+        assertEquals(contacts, watcher.getContacts());
+        assertEquals(1, watcher.snapshot().version());
+        assertThrows(UnsupportedOperationException.class, () -> watcher.getContacts().add(contacts.get(0)));
+    }
+
+    @Test
+    void testReloadsExternalChange() throws IOException, InterruptedException {
+        watcher = jsonFileService.watch(Duration.ofMillis(50));
+        List<Contact> contacts = createContacts(10);
+
+        // Another process writes the file through its own service.
+        new JsonFileService(jsonFileService.getFilePath()).writeToFile(contacts);
+
+        awaitCondition(() -> watcher.getContacts().equals(contacts));
+        assertEquals(2, watcher.snapshot().version(), "The write should be published as one snapshot");
+    }
+
+    @Test
+    void testDebouncesBurstOfWrites() throws IOException, InterruptedException {
+        watcher = jsonFileService.watch(Duration.ofMillis(300));
+        List<Contact> last = List.of();
+
+        for (int i = 1; i <= 10; i++) {
+            last = createContacts(i);
+            jsonFileService.writeToFile(last);
+        }
+
+        List<Contact> expected = last;
+        awaitCondition(() -> watcher.getContacts().equals(expected));
+        assertTrue(watcher.snapshot().version() < 11, "A burst of writes should be reloaded fewer times");
+    }
+
+    @Test
+    void testUnchangedContentIsNotReloaded() throws IOException {
+        List<Contact> contacts = createContacts(10);
+        jsonFileService.writeToFile(contacts);
+        watcher = jsonFileService.watch(Duration.ofMillis(50));
+
+        jsonFileService.writeToFile(contacts);
+
+        assertFalse(watcher.reload(), "Same content should not publish a snapshot");
+        assertEquals(1, watcher.snapshot().version());
+        assertEquals(1, watcher.getFullReloads());
+    }
+
+    @Test
+    void testReloadsChangeAtTheEndIncrementally() throws IOException {
+        List<Contact> contacts = new ArrayList<>(createContacts(5000));
+        jsonFileService.writeToFile(contacts);
+        watcher = jsonFileService.watch(Duration.ofHours(1));
+
+        contacts.set(4990, new Contact(contacts.get(4990).id(), "Changed", "0173456789", "changed@test.com"));
+        contacts.add(new Contact(UUID.randomUUID(), "Added", "0173456780", "added@test.com"));
+        jsonFileService.writeToFile(contacts);
+
+        assertTrue(watcher.reload());
+        assertEquals(contacts, watcher.getContacts());
+        assertEquals(1, watcher.getFullReloads(), "Only the first load should parse the whole file");
+        assertEquals(1, watcher.getIncrementalReloads());
+    }
+
+    @Test
+    void testReloadsChangeInTheMiddle() throws IOException {
+        List<Contact> contacts = new ArrayList<>(createContacts(5000));
+        jsonFileService.writeToFile(contacts);
+        watcher = jsonFileService.watch(Duration.ofHours(1));
+
+        contacts.remove(2500);
+        jsonFileService.writeToFile(contacts);
+        assertTrue(watcher.reload());
+        assertEquals(contacts, watcher.getContacts());
+
+        contacts.add(1000, new Contact(UUID.randomUUID(), "Inserted", "0173456780", "inserted@test.com"));
+        jsonFileService.writeToFile(contacts);
+        assertTrue(watcher.reload());
+        assertEquals(contacts, watcher.getContacts());
+        assertEquals(2, watcher.getIncrementalReloads());
+    }
+
+    @Test
+    void testCompressedFileIsReloaded() throws IOException {
+        JsonFileService compressedService = new JsonFileService(
+                Files.createFile(directory.resolve("contacts.json.gz")).toString());
+        compressedService.writeToFile(createContacts(100));
+        watcher = compressedService.watch(Duration.ofHours(1));
+        List<Contact> contacts = createContacts(200);
+
+        compressedService.writeToFile(contacts);
+
+        assertTrue(watcher.reload());
+        assertEquals(contacts, watcher.getContacts());
+        assertEquals(2, watcher.getFullReloads(), "Compressed files should be parsed completely");
+    }
+
+    @Test
+    void testBrokenFileKeepsPreviousSnapshot() throws IOException {
+        List<Contact> contacts = createContacts(10);
+        jsonFileService.writeToFile(contacts);
+        watcher = jsonFileService.watch(Duration.ofHours(1));
+
+        Files.writeString(Path.of(jsonFileService.getFilePath()), "[{\"id\":");
+
+        assertThrows(IOException.class, () -> watcher.reload());
+        assertEquals(contacts, watcher.getContacts(), "Readers should keep the last complete snapshot");
+        assertEquals(1, watcher.snapshot().version());
+    }
+}
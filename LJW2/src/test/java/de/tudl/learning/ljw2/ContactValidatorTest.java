@@ -0,0 +1,109 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Checks that the scanners of {@link ContactValidator} accept exactly the inputs of the former regular expressions.
+ */
+class ContactValidatorTest {
+
+    private static final Pattern PHONE_NUMBER = Pattern.compile("^((\\+49)|0)[1-9]\\d{1,14}$");
+    private static final Pattern EMAIL = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+
+    private static boolean matchesPhoneNumberRegex(String phoneNumber) {
+        return PHONE_NUMBER.matcher(phoneNumber.replaceAll("\\s", "")).matches();
+    }
+
+    private static boolean matchesEmailRegex(String email) {
+        return EMAIL.matcher(email.trim()).matches();
+    }
+
+    @ParameterizedTest
+    @MethodSource("phoneNumberProvider")
+    void testPhoneNumberConformance(String phoneNumber) {
+        assertEquals(
+                matchesPhoneNumberRegex(phoneNumber),
+                ContactValidator.isValidPhoneNumber(phoneNumber),
+                "Scanner and regex should agree on '" + phoneNumber + "'"
+        );
+    }
+
+    private static Stream<String> phoneNumberProvider() {
+        return Stream.of(
+                "", " ", "0", "01", "012", "0173 4542312", "+49 173 4542312", "+491734542312", "+ 4 9 1 7",
+                "+4917", "+49", "+490173", "00173", "0173-4542312", "(0173)4542312", "0\t1\n7\u000B3\f4\r5",
+                "0123456789012345", "01234567890123456", "+49123456789012345", "+491234567890123456",
+                "0173 454231a", " 0173", "0173 454", "0١٢", "+48 173 4542312", "49173", "+",
+                " 0173 ", "0 1", "1234"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("emailProvider")
+    void testEmailConformance(String email) {
+        assertEquals(
+                matchesEmailRegex(email),
+                ContactValidator.isValidEmail(email),
+                "Scanner and regex should agree on '" + email + "'"
+        );
+    }
+
+    private static Stream<String> emailProvider() {
+        return Stream.of(
+                "", " ", "a@b.de", "klaus.peter@test.de", " klaus@test.de\t", "\u0001klaus@test.de\u001F",
+                "a@b.c", "a@.de", "a@b.", "a@b.d1", "@b.de", "a@@b.de", "a@b@c.de", "a b@c.de", "a@b..de",
+                "a@b.de.", "a@b.-de", "a@-.de", "a@..de", "a%+_-.@b-1.c.de", "ä@b.de", "a@b.dé",
+                "a@b.DE", "a.@b.de", "ab.de", "a@bde", "a@b.de ", " a@b.de", "a@b\u0000.de",
+                "a@b.de\n", "a@b.d e", "a@b.1de"
+        );
+    }
+
+    @Test
+    void testRandomPhoneNumbers() {
+        Random random = new Random(42);
+        String alphabet = "0123456789+4 9\t\n\u000Ba- ";
+
+        for (int i = 0; i < 200_000; i++) {
+            String phoneNumber = randomString(random, alphabet, 20);
+
+            assertEquals(
+                    matchesPhoneNumberRegex(phoneNumber),
+                    ContactValidator.isValidPhoneNumber(phoneNumber),
+                    "Scanner and regex should agree on '" + phoneNumber + "'"
+            );
+        }
+    }
+
+    @Test
+    void testRandomEmails() {
+        Random random = new Random(42);
+        String alphabet = "ab.@-_%+Z9 \t\u0001äde";
+
+        for (int i = 0; i < 200_000; i++) {
+            String email = randomString(random, alphabet, 12);
+
+            assertEquals(
+                    matchesEmailRegex(email),
+                    ContactValidator.isValidEmail(email),
+                    "Scanner and regex should agree on '" + email + "'"
+            );
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength + 1)];
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,164 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalContactStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private Path mainPath;
+    private JsonFileService jsonFileService;
+    private List<Contact> initialContacts;
+    private IncrementalContactStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mainPath = Files.createFile(directory.resolve("contacts.json"));
+        jsonFileService = new JsonFileService(mainPath.toString());
+        initialContacts = IntStream.range(0, 100)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+        jsonFileService.writeToFile(initialContacts);
+        store = new IncrementalContactStore(jsonFileService, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("contacts.json.delta.")).sorted().toList();
+        }
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalContactStore(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalContactStore(jsonFileService, -1));
+    }
+
+    @Test
+    void testLoadsMainFile() {
+        assertEquals(initialContacts, store.getContacts());
+    }
+
+    @Test
+    void testSaveWritesOnlyChanges() throws IOException {
+        String mainContent = Files.readString(mainPath);
+        Contact added = new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de");
+
+        store.add(added);
+        store.update(initialContacts.get(5).id(), contact -> contact.withName("Changed"));
+        store.remove(initialContacts.get(7).id());
+        assertEquals(3, store.getPendingChanges());
+
+        store.save();
+
+        assertEquals(0, store.getPendingChanges());
+        assertEquals(mainContent, Files.readString(mainPath), "Main file should not be rewritten");
+        assertEquals(1, segments().size(), "One segment should be written");
+
+        String segment = Files.readString(segments().get(0));
+        assertTrue(segment.contains("Anna") && segment.contains("Changed"), "Segment should hold the changed contacts");
+        assertFalse(segment.contains("Name1\""), "Segment should not hold unchanged contacts");
+    }
+
+    @Test
+    void testSaveWithoutChangesWritesNothing() throws IOException {
+        store.save();
+
+        assertTrue(segments().isEmpty());
+    }
+
+    @Test
+    void testChangesAreCoalesced() throws IOException {
+        Contact added = new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de");
+
+        store.add(added);
+        store.update(added.withEmail("anna@other.de"));
+        store.remove(initialContacts.get(0).id());
+
+        assertEquals(2, store.getPendingChanges(), "Changes to the same contact should be tracked once");
+    }
+
+    @Test
+    void testReopenAppliesSegments() throws IOException {
+        Contact added = new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de");
+        store.add(added);
+        store.save();
+        Contact changed = store.update(initialContacts.get(0).id(), contact -> contact.withEmail("changed@test.de"));
+        store.remove(initialContacts.get(1).id());
+        store.close();
+
+        store = new IncrementalContactStore(jsonFileService, 0);
+
+        List<Contact> contacts = store.getContacts();
+        assertEquals(100, contacts.size());
+        assertEquals(changed, contacts.get(0), "Updated contact should keep its position");
+        assertEquals(added, contacts.get(99), "Added contact should be restored");
+        assertTrue(store.get(initialContacts.get(1).id()).isEmpty(), "Removed contact should stay removed");
+    }
+
+    @Test
+    void testMergeFoldsSegmentsIntoMainFile() throws IOException {
+        store.add(new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de"));
+        store.save();
+        store.remove(initialContacts.get(0).id());
+        store.save();
+        List<Contact> expected = store.getContacts();
+
+        store.merge().join();
+
+        assertTrue(segments().isEmpty(), "Merged segments should be deleted");
+        assertEquals(0, store.getSegmentCount());
+        assertEquals(expected, jsonFileService.readFromFile(), "Main file should hold the merged contacts");
+    }
+
+    @Test
+    void testBackgroundMergeAfterThreshold() throws IOException {
+        store.close();
+        store = new IncrementalContactStore(jsonFileService, 3);
+
+        for (int i = 0; i < 3; i++) {
+            store.update(initialContacts.get(i).id(), contact -> contact.withName("Changed"));
+            store.save();
+        }
+        List<Contact> expected = store.getContacts();
+        store.close();
+
+        assertTrue(segments().isEmpty(), "Segments should be merged in the background");
+        assertEquals(expected, jsonFileService.readFromFile());
+    }
+
+    @Test
+    void testStaleSegmentAfterMergeIsHarmless() throws IOException {
+        store.add(new Contact(UUID.randomUUID(), "Anna", "0173 3333333", "anna@test.de"));
+        store.save();
+        Path segment = segments().get(0);
+        byte[] content = Files.readAllBytes(segment);
+        store.merge().join();
+        store.close();
+
+        // Simulates a crash after the main file was replaced but before the segment was deleted.
+        Files.write(segment, content);
+        store = new IncrementalContactStore(jsonFileService, 0);
+
+        assertEquals(jsonFileService.readFromFile(), store.getContacts());
+        assertEquals(101, store.getContacts().size());
+    }
+}
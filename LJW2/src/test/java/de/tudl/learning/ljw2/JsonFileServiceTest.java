@@ -4,12 +4,19 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +40,7 @@ class JsonFileServiceTest {
         if (tempFile.exists()) {
             tempFile.delete();
         }
+        new File(tempFile.getPath() + ContactFileChecksums.EXTENSION).delete();
     }
 
     @Test
@@ -123,13 +131,15 @@ class JsonFileServiceTest {
     ) throws IOException {
         Files.writeString(tempFile.toPath(), invalidJsonContent);
 
-        List<Contact> contacts = jsonFileService.readFromFile();
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+        List<Contact> contacts = recovery.contacts();
 
         assertNotNull(contacts, "Contacts list should not be null");
         assertTrue(
                 contacts.isEmpty(),
                 "Contacts list should be empty for " + description
         );
+        recovery.backup().join();
 
         File backupFile = new File(
                 tempFile.getParent(),
@@ -177,4 +187,269 @@ class JsonFileServiceTest {
                 "Last contact should match"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamFromFile() throws IOException {
+        List<Contact> expected = IntStream.range(0, 1000)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+        jsonFileService.writeToFile(expected);
+
+        try (Stream<Contact> contacts = jsonFileService.streamFromFile()) {
+            assertEquals(expected, contacts.toList(), "Should stream all contacts in order");
+        }
+    }
+
+    @Test
+    void testStreamFromNonExistentFile() throws IOException {
+        tempFile.delete();
+
+        try (Stream<Contact> contacts = jsonFileService.streamFromFile()) {
+            assertEquals(0, contacts.count(), "Stream should be empty for non-existent file");
+        }
+    }
+
+    @Test
+    void testStreamFromFileIsLazy() throws IOException {
+        Files.writeString(
+                tempFile.toPath(),
+                "[{\"id\":\"" + UUID.randomUUID() + "\",\"name\":\"Peter\",\"phoneNumber\":\"01734542312\","
+                        + "\"email\":\"peter@test.de\"}, INVALID"
+        );
+
+        try (Stream<Contact> contacts = jsonFileService.streamFromFile()) {
+            assertEquals("Peter", contacts.findFirst().orElseThrow().name(), "First contact should be read before the error");
+        }
+    }
+
+    @Test
+    void testStreamFromFileWithErrorMidStream() throws IOException {
+        Files.writeString(
+                tempFile.toPath(),
+                "[{\"id\":\"" + UUID.randomUUID() + "\",\"name\":\"Peter\",\"phoneNumber\":\"01734542312\","
+                        + "\"email\":\"peter@test.de\"},{\"id\":\"" + UUID.randomUUID() + "\",\"name\":\"Klaus\""
+        );
+        List<Contact> contacts = new ArrayList<>();
+
+        try (Stream<Contact> stream = jsonFileService.streamFromFile()) {
+            assertThrows(UncheckedIOException.class, () -> stream.forEach(contacts::add));
+        }
+
+        assertEquals(1, contacts.size(), "Contacts before the error should be delivered");
+        assertTrue(
+                new File(tempFile.getParent(), "backup_" + tempFile.getName()).exists(),
+                "Backup file should be created for an error mid-stream"
+        );
+    }
+
+    @Test
+    void testWriteStreamToFile() throws IOException {
+        jsonFileService.writeToFile(
+                IntStream.range(0, 1000)
+                        .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+        );
+
+        List<Contact> contacts = jsonFileService.readFromFile();
+
+        assertEquals(1000, contacts.size(), "Should read back all 1000 streamed contacts");
+        assertEquals("Name999", contacts.get(999).name(), "Last contact should match");
+    }
+
+    @Test
+    void testFailedWriteKeepsPreviousFile() throws IOException {
+        Contact contact = new Contact(UUID.randomUUID(), "Peter", "0173 4542312", "klaus.peter@test.de");
+        jsonFileService.writeToFile(List.of(contact));
+        String previousContent = Files.readString(tempFile.toPath());
+
+        Stream<Contact> failing = Stream.of(contact, contact).map(c -> {
+            if (c == contact) throw new IllegalStateException("Simulated failure mid-write");
+            return c;
+        });
+
+        assertThrows(IllegalStateException.class, () -> jsonFileService.writeToFile(failing));
+        assertEquals(previousContent, Files.readString(tempFile.toPath()), "Previous file should stay untouched");
+        assertEquals(List.of(contact), jsonFileService.readFromFile());
+        assertFalse(
+                new File(tempFile.getParent(), "backup_" + tempFile.getName()).exists(),
+                "A failed write should not leave a corrupted file behind"
+        );
+
+        try (Stream<Path> files = Files.list(tempFile.toPath().getParent())) {
+            assertTrue(
+                    files.noneMatch(path -> path.getFileName().toString().startsWith(tempFile.getName())
+                            && path.toString().endsWith(".tmp")),
+                    "Temporary file should be removed"
+            );
+        }
+    }
+
+    @Test
+    void testWriteErrorSurfacesToCaller() throws IOException {
+        File directory = Files.createTempDirectory("test-contacts").toFile();
+        File blocker = new File(directory, "content");
+        assertTrue(blocker.createNewFile());
+
+        try {
+            JsonFileService directoryService = new JsonFileService(directory.getAbsolutePath());
+
+            assertThrows(UncheckedIOException.class, () -> directoryService.writeToFile(List.of()));
+        } finally {
+            blocker.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    void testWriteAndReadCompressedFile() throws IOException {
+        File compressedFile = File.createTempFile("test-contacts", ".json.gz");
+
+        try {
+            JsonFileService compressedService = new JsonFileService(compressedFile.getAbsolutePath());
+            List<Contact> contacts = IntStream.range(0, 1000)
+                    .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                    .toList();
+
+            compressedService.writeToFile(contacts);
+
+            try (InputStream in = new FileInputStream(compressedFile)) {
+                byte[] magic = in.readNBytes(2);
+                assertEquals((byte) 0x1f, magic[0], "File should start with the gzip magic bytes");
+                assertEquals((byte) 0x8b, magic[1], "File should start with the gzip magic bytes");
+            }
+
+            assertEquals(contacts, compressedService.readFromFile(), "Contacts should be read back decompressed");
+        } finally {
+            compressedFile.delete();
+            new File(compressedFile.getPath() + ContactFileChecksums.EXTENSION).delete();
+        }
+    }
+
+    @Test
+    void testReadCompressedFileDetectedByMagicBytes() throws IOException {
+        Contact contact = new Contact(UUID.randomUUID(), "Name", "0173456789", "email@test.com");
+
+        try (GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+            new ObjectMapper().writeValue(out, List.of(contact));
+        }
+
+        assertEquals(List.of(contact), jsonFileService.readFromFile(), "Gzip content should be detected without the extension");
+    }
+
+    @Test
+    void testTruncatedCompressedFileIsBackedUp() throws IOException {
+        File compressedFile = File.createTempFile("test-contacts", ".json.gz");
+        File backupFile = new File(compressedFile.getParent(), "backup_" + compressedFile.getName());
+
+        try {
+            JsonFileService compressedService = new JsonFileService(compressedFile.getAbsolutePath());
+            List<Contact> contacts = createContacts(1000);
+            compressedService.writeToFile(contacts);
+            byte[] content = Files.readAllBytes(compressedFile.toPath());
+            Files.write(compressedFile.toPath(), Arrays.copyOf(content, content.length / 2));
+
+            ContactRecovery recovery = compressedService.recoverFromFile();
+            recovery.backup().join();
+            List<Contact> recovered = recovery.contacts();
+
+            assertFalse(recovered.isEmpty(), "Contacts before the truncation should be recovered");
+            assertTrue(recovered.size() < contacts.size(), "Contacts after the truncation should be missing");
+            assertEquals(contacts.subList(0, recovered.size()), recovered, "Recovered contacts should keep their order");
+            assertTrue(backupFile.exists(), "Truncated file should be backed up");
+        } finally {
+            compressedFile.delete();
+            new File(compressedFile.getPath() + ContactFileChecksums.EXTENSION).delete();
+            backupFile.delete();
+        }
+    }
+
+    @Test
+    void testRecoverFromIntactFile() throws IOException {
+        List<Contact> contacts = createContacts(100);
+        jsonFileService.writeToFile(contacts);
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+
+        assertEquals(contacts, recovery.contacts());
+        assertTrue(recovery.isComplete(), "Intact file should not report corruption");
+        assertTrue(recovery.backup().isDone(), "Intact file should not wait for a backup");
+        assertFalse(new File(tempFile.getParent(), "backup_" + tempFile.getName()).exists(), "Intact file should not be backed up");
+    }
+
+    @Test
+    void testRecoverSkipsInvalidContact() throws IOException {
+        List<Contact> contacts = createContacts(3);
+        String content = new ObjectMapper().writeValueAsString(contacts).replace("email1@test.com", "not an email");
+        Files.writeString(tempFile.toPath(), content);
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+
+        assertEquals(List.of(contacts.get(0), contacts.get(2)), recovery.contacts(), "Valid contacts should be recovered");
+        assertEquals(List.of(elementOffset(content, 1)), recovery.corruptedOffsets(), "Offset of the invalid contact should be reported");
+    }
+
+    @Test
+    void testRecoverSkipsElementWithLostQuote() throws IOException {
+        List<Contact> contacts = createContacts(5);
+        String content = new ObjectMapper().writeValueAsString(contacts).replace("\"Name1\"", "\"Name1");
+        Files.writeString(tempFile.toPath(), content);
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+
+        assertEquals(
+                List.of(contacts.get(0), contacts.get(2), contacts.get(3), contacts.get(4)),
+                recovery.contacts(),
+                "Contacts after the broken one should be recovered"
+        );
+        assertEquals(elementOffset(content, 1), recovery.corruptedOffsets().get(0), "Offset of the broken contact should be reported first");
+    }
+
+    @Test
+    void testRecoverTruncatedFile() throws IOException {
+        List<Contact> contacts = createContacts(3);
+        String content = new ObjectMapper().writeValueAsString(contacts);
+        int truncatedAt = content.indexOf("Name2");
+        Files.writeString(tempFile.toPath(), content.substring(0, truncatedAt));
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+
+        assertEquals(contacts.subList(0, 2), recovery.contacts());
+        assertEquals(List.of(elementOffset(content, 2)), recovery.corruptedOffsets(), "Offset of the truncated contact should be reported");
+    }
+
+    @Test
+    void testRecoverBacksUpCorruptedFile() throws IOException {
+        List<Contact> contacts = createContacts(10);
+        String content = new ObjectMapper().writeValueAsString(contacts).replace("\"email4@test.com\"", "\u0000\u0001");
+        Files.writeString(tempFile.toPath(), content);
+
+        ContactRecovery recovery = jsonFileService.recoverFromFile();
+        recovery.backup().join();
+        List<Contact> recovered = recovery.contacts();
+
+        assertEquals(9, recovered.size(), "Only the corrupted contact should be lost");
+        assertFalse(recovered.contains(contacts.get(4)));
+        assertEquals(
+                content,
+                Files.readString(new File(tempFile.getParent(), "backup_" + tempFile.getName()).toPath()),
+                "Backup should hold the corrupted content"
+        );
+        new File(tempFile.getParent(), "backup_" + tempFile.getName()).delete();
+    }
+
+    private static List<Contact> createContacts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+    }
+
+    /**
+     * Returns the byte offset of the element with the given index in a compact JSON array of contacts.
+     */
+    private static long elementOffset(String content, int index) {
+        int offset = 0;
+        for (int i = 0; i <= index; i++) {
+            offset = content.indexOf("{\"id\"", offset + 1);
+        }
+        return offset;
+    }
+}
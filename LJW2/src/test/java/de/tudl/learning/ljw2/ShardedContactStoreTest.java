@@ -0,0 +1,103 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardedContactStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService executor;
+    private ShardedContactStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        store = new ShardedContactStore(directory, "contacts", 8, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static List<Contact> createContacts(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedContactStore(null, "contacts", 8, executor));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedContactStore(directory, " ", 8, executor));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedContactStore(directory, "contacts", 0, executor));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedContactStore(directory, "contacts", 8, null));
+    }
+
+    @Test
+    void testCreatesEmptyShards() throws IOException {
+        assertTrue(Files.exists(directory.resolve("contacts-000.json")));
+        assertTrue(Files.exists(directory.resolve("contacts-007.json")));
+        assertTrue(store.readAll().isEmpty());
+    }
+
+    @Test
+    void testWriteAndReadAll() throws IOException {
+        List<Contact> contacts = createContacts(1000);
+
+        store.writeAll(contacts);
+        List<Contact> read = new ShardedContactStore(directory, "contacts", 8, executor).readAll();
+
+        assertEquals(1000, read.size());
+        assertEquals(new HashSet<>(contacts), new HashSet<>(read), "All contacts should be read back");
+    }
+
+    @Test
+    void testContactsArePartitionedById() throws IOException {
+        List<Contact> contacts = createContacts(1000);
+
+        store.writeAll(contacts);
+
+        for (int shard = 0; shard < store.getShardCount(); shard++) {
+            List<Contact> shardContacts = store.readShard(shard);
+
+            assertFalse(shardContacts.isEmpty(), "Every shard should get contacts");
+            for (Contact contact : shardContacts) {
+                assertEquals(shard, store.shardOf(contact.id()), "Contact should be stored in its shard");
+            }
+        }
+    }
+
+    @Test
+    void testWriteAllReplacesPreviousContacts() throws IOException {
+        store.writeAll(createContacts(100));
+        List<Contact> contacts = createContacts(10);
+
+        store.writeAll(contacts);
+
+        assertEquals(new HashSet<>(contacts), new HashSet<>(store.readAll()));
+    }
+
+    @Test
+    void testCorruptedShardFailsRead() throws IOException {
+        store.writeAll(createContacts(100));
+        Files.writeString(directory.resolve("contacts-003.json"), "[{\"name\":");
+
+        assertThrows(IOException.class, () -> store.readAll());
+    }
+}
@@ -0,0 +1,115 @@
+package de.tudl.learning.ljw2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteBehindJsonFileServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JsonFileService jsonFileService;
+    private WriteBehindJsonFileService writeBehind;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jsonFileService = new JsonFileService(Files.createFile(directory.resolve("contacts.json")).toString());
+        writeBehind = new WriteBehindJsonFileService(jsonFileService, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.close();
+    }
+
+    private static Contact contact(int i) {
+        return new Contact(UUID.randomUUID(), "Name" + i, "017345" + i, "email" + i + "@test.com");
+    }
+
+    @Test
+    void testInitializationWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteBehindJsonFileService(null, false));
+        assertThrows(IllegalArgumentException.class, () -> writeBehind.save(null));
+    }
+
+    @Test
+    void testSaveCompletesWhenWritten() {
+        List<Contact> contacts = List.of(contact(1), contact(2));
+
+        writeBehind.save(contacts).join();
+
+        assertEquals(contacts, jsonFileService.readFromFile());
+        assertEquals(1, writeBehind.getCompletedWrites());
+        assertEquals(0, writeBehind.getQueueDepth());
+    }
+
+    @Test
+    void testRapidSavesAreCoalesced() {
+        List<Contact> contacts = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            contacts.add(contact(i));
+            futures.add(writeBehind.save(contacts));
+        }
+
+        futures.forEach(CompletableFuture::join);
+
+        assertEquals(contacts, jsonFileService.readFromFile(), "Latest state should be written");
+        assertEquals(200, writeBehind.getRequestedSaves());
+        assertTrue(writeBehind.getCompletedWrites() < 200, "Saves should be collapsed into fewer writes");
+        assertTrue(writeBehind.getCoalescingRatio() > 1, "Coalescing ratio should show collapsed saves");
+    }
+
+    @Test
+    void testSaveCopiesContacts() {
+        List<Contact> contacts = new ArrayList<>(List.of(contact(1)));
+
+        CompletableFuture<Void> future = writeBehind.save(contacts);
+        contacts.add(contact(2));
+        future.join();
+        writeBehind.flush().join();
+
+        assertEquals(1, jsonFileService.readFromFile().size(), "Later changes to the list should not be written");
+    }
+
+    @Test
+    void testCloseFlushesQueuedSaves() {
+        List<Contact> contacts = List.of(contact(1));
+        writeBehind.save(List.of(contact(0)));
+        writeBehind.save(contacts);
+
+        writeBehind.close();
+
+        assertEquals(contacts, jsonFileService.readFromFile());
+        assertThrows(IllegalStateException.class, () -> writeBehind.save(contacts));
+    }
+
+    @Test
+    void testFailedWriteCompletesExceptionally() throws IOException {
+        Path blockedDirectory = Files.createDirectory(directory.resolve("blocked"));
+        Files.createFile(blockedDirectory.resolve("content"));
+        WriteBehindJsonFileService failing = new WriteBehindJsonFileService(new JsonFileService(blockedDirectory.toString()), false);
+
+        try {
+            CompletableFuture<Void> future = failing.save(List.of(contact(1)));
+
+            CompletionException exception = assertThrows(CompletionException.class, future::join);
+            assertInstanceOf(IOException.class, exception.getCause());
+        } finally {
+            failing.close();
+        }
+    }
+}
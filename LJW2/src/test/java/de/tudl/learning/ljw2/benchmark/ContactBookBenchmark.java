@@ -0,0 +1,92 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.ContactBook;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the indexed lookups of {@link ContactBook} against scanning the contact list.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactBookBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ContactBookBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private List<Contact> contacts;
+    private ContactBook contactBook;
+
+    @Setup
+    public void setUp() {
+        contacts = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            contacts.add(new Contact(UUID.randomUUID(), "Name " + i, "0173" + (1_000_000 + i), "email" + i + "@test.com"));
+        }
+
+        contactBook = new ContactBook(contacts);
+    }
+
+    private Contact randomContact() {
+        return contacts.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Optional<Contact> indexedGetById() {
+        return contactBook.get(randomContact().id());
+    }
+
+    @Benchmark
+    public List<Contact> indexedFindByEmail() {
+        return contactBook.findByEmail(randomContact().email());
+    }
+
+    @Benchmark
+    public List<Contact> indexedFindByPhoneNumber() {
+        return contactBook.findByPhoneNumber(randomContact().phoneNumber());
+    }
+
+    @Benchmark
+    public List<Contact> indexedFindByNamePrefix() {
+        return contactBook.findByNamePrefix("Name " + ThreadLocalRandom.current().nextInt(size / 1000), 10);
+    }
+
+    @Benchmark
+    public Optional<Contact> scanFindByEmail() {
+        String email = randomContact().email();
+        return contacts.stream().filter(contact -> contact.email().equalsIgnoreCase(email)).findFirst();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactBookBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
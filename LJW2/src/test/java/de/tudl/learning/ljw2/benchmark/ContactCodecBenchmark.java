@@ -0,0 +1,112 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.ContactCodec;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the serialize and deserialize throughput of 1000 contacts between the former path, a new
+ * {@link ObjectMapper} per file service and a {@link TypeReference} per read, and list readers and writers
+ * cached once from the mapper of {@link ContactCodec} with and without the Blackbird module.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactCodecBenchmark {
+
+    private List<Contact> contacts;
+    private byte[] json;
+    private ObjectMapper reusedMapper;
+    private ObjectReader codecReader;
+    private ObjectWriter codecWriter;
+    private ObjectReader blackbirdReader;
+    private ObjectWriter blackbirdWriter;
+
+    @Setup
+    public void setUp() throws IOException {
+        contacts = IntStream.range(0, 1000)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name " + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+        reusedMapper = new ObjectMapper();
+        ContactCodec codec = ContactCodec.create(false);
+        ContactCodec blackbirdCodec = ContactCodec.create(true);
+        codecReader = codec.mapper().readerFor(new TypeReference<List<Contact>>() {});
+        codecWriter = codec.mapper().writerFor(new TypeReference<List<Contact>>() {});
+        blackbirdReader = blackbirdCodec.mapper().readerFor(new TypeReference<List<Contact>>() {});
+        blackbirdWriter = blackbirdCodec.mapper().writerFor(new TypeReference<List<Contact>>() {});
+        json = reusedMapper.writeValueAsBytes(contacts);
+    }
+
+    @Benchmark
+    public List<Contact> deserializeNewMapper() throws IOException {
+        return new ObjectMapper().readValue(json, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<Contact> deserializeTypeReference() throws IOException {
+        return reusedMapper.readValue(json, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<Contact> deserializeCodec() throws IOException {
+        return codecReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<Contact> deserializeCodecBlackbird() throws IOException {
+        return blackbirdReader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serializeNewMapper() throws IOException {
+        return new ObjectMapper().writeValueAsBytes(contacts);
+    }
+
+    @Benchmark
+    public byte[] serializeReusedMapper() throws IOException {
+        return reusedMapper.writeValueAsBytes(contacts);
+    }
+
+    @Benchmark
+    public byte[] serializeCodec() throws IOException {
+        return codecWriter.writeValueAsBytes(contacts);
+    }
+
+    @Benchmark
+    public byte[] serializeCodecBlackbird() throws IOException {
+        return blackbirdWriter.writeValueAsBytes(contacts);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.JsonFileService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares writing and reading 100k contacts as plain JSON and as gzip compressed JSON with {@link JsonFileService}.
+ * The file sizes are printed after the setup, so the time spent compressing can be weighed against the bytes saved.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactCompressionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ContactCompressionBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    @Param({".json", ".json.gz"})
+    private String extension;
+
+    private Path file;
+    private JsonFileService service;
+    private List<Contact> contacts;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("compressed-contacts", extension);
+        service = new JsonFileService(file.toString());
+        contacts = IntStream.range(0, SIZE)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name " + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+        service.writeToFile(contacts.iterator());
+
+        System.out.printf("%n%s: %,d bytes for %,d contacts%n", extension, Files.size(file), SIZE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        service.writeToFile(contacts.iterator());
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        try (Stream<Contact> stream = service.streamFromFile()) {
+            return stream.count();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
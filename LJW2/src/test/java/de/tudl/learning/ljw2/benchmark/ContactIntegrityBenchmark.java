@@ -0,0 +1,83 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.IntegrityReport;
+import de.tudl.learning.ljw2.JsonFileService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares checking a file of 1M contacts against its block checksums with parsing all of its contacts,
+ * the only way to tell whether it is intact before the checksums.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactIntegrityBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ContactIntegrityBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    private Path directory;
+    private JsonFileService service;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("contact-integrity");
+        service = new JsonFileService(Files.createFile(directory.resolve("contacts.json")).toString());
+        service.writeToFile(IntStream.range(0, SIZE)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name " + i, "017345" + i, "email" + i + "@test.com")));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public IntegrityReport verify() throws IOException {
+        return service.verify();
+    }
+
+    @Benchmark
+    public long parse() throws IOException {
+        try (Stream<Contact> contacts = service.streamFromFile()) {
+            return contacts.count();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactIntegrityBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
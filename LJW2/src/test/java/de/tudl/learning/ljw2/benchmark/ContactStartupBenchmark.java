@@ -0,0 +1,109 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.BinaryContactStore;
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.ContactFileConverter;
+import de.tudl.learning.ljw2.JsonFileService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the startup cost of loading a contact file: parsing the JSON file of {@link JsonFileService}
+ * against mapping the {@link BinaryContactStore} and looking up a single contact.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactStartupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ContactStartupBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private Path directory;
+    private Path binaryFile;
+    private JsonFileService jsonFileService;
+    private UUID lastId;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("contact-startup");
+        Path jsonFile = Files.createFile(directory.resolve("contacts.json"));
+        binaryFile = directory.resolve("contacts.bin");
+        jsonFileService = new JsonFileService(jsonFile.toString());
+
+        UUID[] ids = new UUID[size];
+        jsonFileService.writeToFile(IntStream.range(0, size).mapToObj(i -> {
+            ids[i] = UUID.randomUUID();
+            return new Contact(ids[i], "Name " + i, "017345" + i, "email" + i + "@test.com");
+        }));
+        lastId = ids[size - 1];
+
+        ContactFileConverter.jsonToBinary(jsonFileService, binaryFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<Contact> jsonReadAll() {
+        return jsonFileService.readFromFile();
+    }
+
+    @Benchmark
+    public Optional<Contact> jsonStreamFind() throws IOException {
+        try (Stream<Contact> contacts = jsonFileService.streamFromFile()) {
+            return contacts.filter(contact -> contact.id().equals(lastId)).findFirst();
+        }
+    }
+
+    @Benchmark
+    public String binaryOpenAndFind() throws IOException {
+        return BinaryContactStore.open(binaryFile).find(lastId).orElseThrow().name();
+    }
+
+    @Benchmark
+    public long binaryOpenAndScanNames() throws IOException {
+        return BinaryContactStore.open(binaryFile).stream().mapToInt(contact -> contact.name().length()).sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactStartupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
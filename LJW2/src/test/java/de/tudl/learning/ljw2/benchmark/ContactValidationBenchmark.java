@@ -0,0 +1,91 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.ContactValidator;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the phone number and email validation of the former {@code Pattern.matches} calls, precompiled
+ * patterns and the character scanners of {@link ContactValidator}.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ContactValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContactValidationBenchmark {
+
+    private static final String PHONE_NUMBER_REGEX = "^((\\+49)|0)[1-9]\\d{1,14}$";
+    private static final String EMAIL_REGEX = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
+    private static final Pattern PHONE_NUMBER = Pattern.compile(PHONE_NUMBER_REGEX);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+    private static final Pattern EMAIL = Pattern.compile(EMAIL_REGEX);
+
+    private final String[] phoneNumbers = {"0173 4542312", "+49 173 4542312", "+491734542312", "0173-4542312"};
+    private final String[] emails = {"klaus.peter@test.de", " peter@mail.example.com ", "invalid@test", "a@b.de"};
+
+    @Benchmark
+    public void regexPhoneNumber(Blackhole blackhole) {
+        for (String phoneNumber : phoneNumbers) {
+            blackhole.consume(Pattern.matches(PHONE_NUMBER_REGEX, phoneNumber.replaceAll("\\s", "")));
+        }
+    }
+
+    @Benchmark
+    public void compiledPhoneNumber(Blackhole blackhole) {
+        for (String phoneNumber : phoneNumbers) {
+            blackhole.consume(PHONE_NUMBER.matcher(WHITESPACE.matcher(phoneNumber).replaceAll("")).matches());
+        }
+    }
+
+    @Benchmark
+    public void scannerPhoneNumber(Blackhole blackhole) {
+        for (String phoneNumber : phoneNumbers) {
+            blackhole.consume(ContactValidator.isValidPhoneNumber(phoneNumber));
+        }
+    }
+
+    @Benchmark
+    public void regexEmail(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(Pattern.matches(EMAIL_REGEX, email.trim()));
+        }
+    }
+
+    @Benchmark
+    public void compiledEmail(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(EMAIL.matcher(email.trim()).matches());
+        }
+    }
+
+    @Benchmark
+    public void scannerEmail(Blackhole blackhole) {
+        for (String email : emails) {
+            blackhole.consume(ContactValidator.isValidEmail(email));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContactValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
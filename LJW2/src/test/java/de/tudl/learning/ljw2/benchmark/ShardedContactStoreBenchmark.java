@@ -0,0 +1,99 @@
+package de.tudl.learning.ljw2.benchmark;
+
+import de.tudl.learning.ljw2.Contact;
+import de.tudl.learning.ljw2.JsonFileService;
+import de.tudl.learning.ljw2.ShardedContactStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how the load time of 1M contacts scales with the number of threads reading the shards
+ * of a {@link ShardedContactStore}, compared to a single {@link JsonFileService} file.
+ *
+ * <p>Run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.tudl.learning.ljw2.benchmark.ShardedContactStoreBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ShardedContactStoreBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int SHARDS = 16;
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+
+    private Path directory;
+    private ExecutorService executor;
+    private ShardedContactStore shardedStore;
+    private JsonFileService singleFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sharded-contacts");
+        executor = Executors.newFixedThreadPool(threads);
+        shardedStore = new ShardedContactStore(directory, "contacts", SHARDS, executor);
+        singleFile = new JsonFileService(Files.createFile(directory.resolve("single.json")).toString());
+
+        List<Contact> contacts = IntStream.range(0, SIZE)
+                .mapToObj(i -> new Contact(UUID.randomUUID(), "Name " + i, "017345" + i, "email" + i + "@test.com"))
+                .toList();
+        shardedStore.writeAll(contacts);
+        singleFile.writeToFile(contacts);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<Contact> shardedLoad() throws IOException {
+        return shardedStore.readAll();
+    }
+
+    @Benchmark
+    public List<Contact> singleFileLoad() {
+        return singleFile.readFromFile();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ShardedContactStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}